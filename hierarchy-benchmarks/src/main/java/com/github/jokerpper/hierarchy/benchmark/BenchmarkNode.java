@@ -0,0 +1,74 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import java.util.List;
+
+/**
+ * 基准测试所用的节点 (模拟数据库中id为bigint的菜单/组织数据)
+ */
+public class BenchmarkNode {
+
+    private Long id;
+    private Long pid;
+    private int sort;
+    private String name;
+    private List<BenchmarkNode> children;
+
+    public BenchmarkNode() {
+    }
+
+    public BenchmarkNode(Long id, Long pid, int sort, String name) {
+        this.id = id;
+        this.pid = pid;
+        this.sort = sort;
+        this.name = name;
+    }
+
+    /**
+     * 复制当前节点(不包含children),用作转换函数
+     *
+     * @return 新节点
+     */
+    public BenchmarkNode copy() {
+        return new BenchmarkNode(id, pid, sort, name);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPid() {
+        return pid;
+    }
+
+    public void setPid(Long pid) {
+        this.pid = pid;
+    }
+
+    public int getSort() {
+        return sort;
+    }
+
+    public void setSort(int sort) {
+        this.sort = sort;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<BenchmarkNode> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<BenchmarkNode> children) {
+        this.children = children;
+    }
+}
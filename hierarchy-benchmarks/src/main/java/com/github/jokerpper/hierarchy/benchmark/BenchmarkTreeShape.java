@@ -0,0 +1,63 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试的树形结构
+ * <p>
+ * 节点id从1开始连续分配,root为虚拟节点(id为0,不存在于数据列表中)
+ */
+public enum BenchmarkTreeShape {
+
+    /**
+     * 宽树: 每个节点最多1024个子节点 (层级很浅)
+     */
+    WIDE {
+        @Override
+        long getPid(long id, long size, Random random) {
+            return (id - 1) / 1024;
+        }
+    },
+
+    /**
+     * 深树: 由多条长度约为1000的链组成
+     */
+    DEEP {
+        @Override
+        long getPid(long id, long size, Random random) {
+            long chains = Math.max(1, size / 1000);
+            return id <= chains ? BenchmarkTrees.ROOT_ID : id - chains;
+        }
+    },
+
+    /**
+     * 平衡树: 每个节点最多8个子节点
+     */
+    BALANCED {
+        @Override
+        long getPid(long id, long size, Random random) {
+            return (id - 1) / 8;
+        }
+    },
+
+    /**
+     * 倾斜树: 父节点偏向于靠前的节点,少数节点拥有大量子节点
+     */
+    SKEWED {
+        @Override
+        long getPid(long id, long size, Random random) {
+            double r = random.nextDouble();
+            return (long) ((id - 1) * r * r * r * r);
+        }
+    };
+
+    /**
+     * 获取节点的pid
+     *
+     * @param id     节点id (从1开始)
+     * @param size   节点总数
+     * @param random 随机数
+     * @return pid, 为0时表示root的直接子节点
+     */
+    abstract long getPid(long id, long size, Random random);
+}
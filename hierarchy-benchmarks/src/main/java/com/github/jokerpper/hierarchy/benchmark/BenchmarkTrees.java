@@ -0,0 +1,132 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyFlatUtils;
+import com.github.jokerpper.hierarchy.HierarchyUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成
+ */
+public class BenchmarkTrees {
+
+    /**
+     * 虚拟root id
+     */
+    public static final long ROOT_ID = 0L;
+
+    /**
+     * 固定随机种子,保证每次生成的数据一致
+     */
+    private static final long SEED = 20240707L;
+
+    private BenchmarkTrees() {
+    }
+
+    /**
+     * 生成铺平的数据列表 (顺序已打乱)
+     *
+     * @param shape 树形结构
+     * @param size  节点个数
+     * @return 数据列表
+     */
+    public static List<BenchmarkNode> generate(BenchmarkTreeShape shape, int size) {
+        Random random = new Random(SEED);
+        List<BenchmarkNode> results = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            long pid = shape.getPid(id, size, random);
+            results.add(new BenchmarkNode(id, pid, random.nextInt(1000), "node-" + id));
+        }
+        Collections.shuffle(results, random);
+        return results;
+    }
+
+    /**
+     * 生成树形数据列表 (子元素顺序未排序)
+     *
+     * @param shape 树形结构
+     * @param size  节点个数
+     * @return 树形数据列表
+     */
+    public static List<BenchmarkNode> generateTree(BenchmarkTreeShape shape, int size) {
+        return HierarchyUtils.getHierarchyResult(generate(shape, size), getFunctions(false));
+    }
+
+    /**
+     * 获取构建树形数据的函数
+     *
+     * @param withTransfer 是否启用转换
+     * @return 函数
+     */
+    public static HierarchyUtils.HierarchyFunctions<BenchmarkNode, Long, BenchmarkNode> getFunctions(boolean withTransfer) {
+        HierarchyUtils.HierarchyFunctions<BenchmarkNode, Long, BenchmarkNode> functions = new HierarchyUtils.HierarchyFunctions<>();
+        functions.setGetIdFunction(BenchmarkNode::getId);
+        functions.setGetPidFunction(BenchmarkNode::getPid);
+        functions.setIsRootFunction(id -> Objects.equals(ROOT_ID, id));
+        functions.setSetChildrenFunction(BenchmarkNode::setChildren);
+        if (withTransfer) {
+            functions.setTransferFunction(BenchmarkNode::copy);
+        }
+        return functions;
+    }
+
+    /**
+     * 获取构建树形数据的函数 (long id)
+     *
+     * @param withTransfer 是否启用转换
+     * @return 函数
+     */
+    public static HierarchyUtils.HierarchyLongFunctions<BenchmarkNode, BenchmarkNode> getLongFunctions(boolean withTransfer) {
+        HierarchyUtils.HierarchyLongFunctions<BenchmarkNode, BenchmarkNode> functions = new HierarchyUtils.HierarchyLongFunctions<>();
+        functions.setGetIdFunction(BenchmarkNode::getId);
+        functions.setGetPidFunction(BenchmarkNode::getPid);
+        functions.setIsRootFunction(id -> id == ROOT_ID);
+        functions.setSetChildrenFunction(BenchmarkNode::setChildren);
+        if (withTransfer) {
+            functions.setTransferFunction(BenchmarkNode::copy);
+        }
+        return functions;
+    }
+
+    /**
+     * 获取打平数据的函数
+     *
+     * @param withTransfer 是否启用转换
+     * @return 函数
+     */
+    public static HierarchyFlatUtils.HierarchyFlatFunctions<BenchmarkNode, Long, BenchmarkNode> getFlatFunctions(boolean withTransfer) {
+        HierarchyFlatUtils.HierarchyFlatFunctions<BenchmarkNode, Long, BenchmarkNode> functions = new HierarchyFlatUtils.HierarchyFlatFunctions<>();
+        functions.setGetIdFunction(BenchmarkNode::getId);
+        functions.setGetPidFunction(BenchmarkNode::getPid);
+        functions.setIsRootFunction(id -> Objects.equals(ROOT_ID, id));
+        functions.setIsWithAllChildren(() -> true);
+        if (withTransfer) {
+            functions.setTransferFunction(BenchmarkNode::copy);
+        }
+        return functions;
+    }
+
+    /**
+     * 过滤掉约10%的节点(及其不可达的子节点)
+     *
+     * @param node 节点
+     * @return 是否保留
+     */
+    public static boolean filter(BenchmarkNode node) {
+        return node.getId() % 10 != 0;
+    }
+
+    /**
+     * 获取排序比较器
+     *
+     * @return 比较器
+     */
+    public static Comparator<BenchmarkNode> getComparator() {
+        return Comparator.comparingInt(BenchmarkNode::getSort);
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyEachUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchyEachUtils.recursionEach / stream / levelEach / postOrderEach 基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchyEachUtilsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "DEEP"})
+    private BenchmarkTreeShape shape;
+
+    @Param({"false"})
+    private boolean withParentList;
+
+    private List<BenchmarkNode> treeList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        treeList = BenchmarkTrees.generateTree(shape, size);
+    }
+
+    @Benchmark
+    public void recursionEach(final Blackhole blackhole) {
+        HierarchyEachUtils.recursionEach(treeList, BenchmarkNode::getChildren, new HierarchyEachUtils.EachCallback<BenchmarkNode>() {
+
+            @Override
+            public boolean withParentList() {
+                return withParentList;
+            }
+
+            @Override
+            public void each(int level, BenchmarkNode current, BenchmarkNode parent, List<BenchmarkNode> parentList, List<BenchmarkNode> children, boolean hasExistChildren) {
+                blackhole.consume(current);
+                blackhole.consume(parentList);
+            }
+        });
+    }
+
+    @Benchmark
+    public void stream(final Blackhole blackhole) {
+        HierarchyEachUtils.stream(treeList, BenchmarkNode::getChildren).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void parallelStream(final Blackhole blackhole) {
+        HierarchyEachUtils.stream(treeList, BenchmarkNode::getChildren).parallel().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void levelEach(final Blackhole blackhole) {
+        HierarchyEachUtils.levelEach(treeList, BenchmarkNode::getChildren, (level, nodes) -> blackhole.consume(nodes));
+    }
+
+    @Benchmark
+    public List<Integer> postOrderEach() {
+        //子树元素个数
+        return HierarchyEachUtils.postOrderEach(treeList, BenchmarkNode::getChildren, (level, current, parent, childrenResults) -> {
+            int size = 1;
+            for (int i = 0; i < childrenResults.size(); i++) {
+                size += childrenResults.get(i);
+            }
+            return size;
+        });
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyFlatUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchyFlatUtils.getHierarchyFlatResult 基准测试 (返回全部子元素)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchyFlatUtilsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "DEEP"})
+    private BenchmarkTreeShape shape;
+
+    @Param({"false", "true"})
+    private boolean withTransfer;
+
+    @Param({"false"})
+    private boolean withFilter;
+
+    @Param({"true"})
+    private boolean withComparator;
+
+    /**
+     * 结果顺序,DEFAULT时为默认顺序
+     */
+    @Param({"DEFAULT", "PRE_ORDER"})
+    private String flatOrder;
+
+    private List<BenchmarkNode> sourceList;
+
+    private HierarchyFlatUtils.HierarchyFlatFunctions<BenchmarkNode, Long, BenchmarkNode> functions;
+
+    private Comparator<BenchmarkNode> comparator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceList = BenchmarkTrees.generate(shape, size);
+        functions = BenchmarkTrees.getFlatFunctions(withTransfer);
+        if (withFilter) {
+            functions.setFilterPredicate(BenchmarkTrees::filter);
+        }
+        if (!"DEFAULT".equals(flatOrder)) {
+            functions.setFlatOrder(HierarchyFlatUtils.FlatOrder.valueOf(flatOrder));
+        }
+        comparator = withComparator ? BenchmarkTrees.getComparator() : null;
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyFlatResult() {
+        return HierarchyFlatUtils.getHierarchyFlatResult(sourceList, functions, comparator);
+    }
+
+    /**
+     * 获取中间位置的一页数据 (50条)
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyFlatIteratorPage() {
+        return HierarchyFlatUtils.getHierarchyFlatIterator(sourceList, functions, comparator).skip(size >> 1).limit(50).toList();
+    }
+
+}
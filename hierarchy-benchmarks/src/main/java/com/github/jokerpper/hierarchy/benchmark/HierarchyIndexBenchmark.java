@@ -0,0 +1,65 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyIndex;
+import com.github.jokerpper.hierarchy.HierarchyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchyIndex 建立一次后多次查询的基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchyIndexBenchmark {
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"BALANCED", "DEEP"})
+    private BenchmarkTreeShape shape;
+
+    private List<BenchmarkNode> sourceList;
+
+    private HierarchyUtils.HierarchyFunctions<BenchmarkNode, Long, BenchmarkNode> functions;
+
+    private HierarchyIndex<BenchmarkNode, Long> hierarchyIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceList = BenchmarkTrees.generate(shape, size);
+        functions = BenchmarkTrees.getFunctions(false);
+        hierarchyIndex = HierarchyIndex.of(sourceList, functions);
+    }
+
+    @Benchmark
+    public HierarchyIndex<BenchmarkNode, Long> buildIndex() {
+        return HierarchyIndex.of(sourceList, functions);
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyResultByIndex() {
+        return hierarchyIndex.getHierarchyResult(BenchmarkTrees.ROOT_ID, BenchmarkNode::setChildren);
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> getDescendantsByIndex() {
+        return hierarchyIndex.getDescendants(BenchmarkTrees.ROOT_ID);
+    }
+
+    /**
+     * 获取中间位置的一页数据 (50条)
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> getDescendantPageByIndex() {
+        return hierarchyIndex.getDescendantIterator(BenchmarkTrees.ROOT_ID).skip(size >> 1).limit(50).toList();
+    }
+
+}
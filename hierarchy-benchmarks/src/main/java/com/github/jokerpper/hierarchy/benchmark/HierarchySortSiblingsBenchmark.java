@@ -0,0 +1,72 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyPlan;
+import com.github.jokerpper.hierarchy.HierarchySortUtils;
+import com.github.jokerpper.hierarchy.HierarchyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 构建时整体排序与只对同级元素排序(isSortSiblings)的对比基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchySortSiblingsBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"WIDE", "BALANCED"})
+    private BenchmarkTreeShape shape;
+
+    /**
+     * 比较器类型: COMPARATOR 为普通比较器, INT_KEY 为排序键比较器
+     */
+    @Param({"COMPARATOR", "INT_KEY"})
+    private String comparatorType;
+
+    private List<BenchmarkNode> sourceList;
+
+    private HierarchyPlan<BenchmarkNode, BenchmarkNode> globalSortPlan;
+
+    private HierarchyPlan<BenchmarkNode, BenchmarkNode> sortSiblingsPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceList = BenchmarkTrees.generate(shape, size);
+        Comparator<BenchmarkNode> comparator = "INT_KEY".equals(comparatorType)
+                ? HierarchySortUtils.comparingIntKey(BenchmarkNode::getSort) : BenchmarkTrees.getComparator();
+        HierarchyUtils.HierarchyFunctions<BenchmarkNode, Long, BenchmarkNode> functions = BenchmarkTrees.getFunctions(false);
+        globalSortPlan = HierarchyPlan.of(functions, comparator);
+        functions.setIsSortSiblings(() -> true);
+        sortSiblingsPlan = HierarchyPlan.of(functions, comparator);
+    }
+
+    /**
+     * 对筛选后的源数据列表整体排序后构建
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> globalSort() {
+        return globalSortPlan.build(sourceList);
+    }
+
+    /**
+     * 建立子元素索引后分别对各父元素的子元素排序
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> sortSiblings() {
+        return sortSiblingsPlan.build(sourceList);
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyEachUtils;
+import com.github.jokerpper.hierarchy.HierarchySortUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchySortUtils.sortWithChildren / parallelSortWithChildren 基准测试
+ * <p>
+ * 排序会改变数据顺序,每次调用前将各子元素列表恢复为未排序的顺序(不计入耗时)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchySortUtilsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "SKEWED"})
+    private BenchmarkTreeShape shape;
+
+    private List<BenchmarkNode> treeList;
+
+    /**
+     * 未排序时的各列表 (与snapshotLists一一对应)
+     */
+    private List<List<BenchmarkNode>> lists;
+
+    private List<List<BenchmarkNode>> snapshotLists;
+
+    private Comparator<BenchmarkNode> comparator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        treeList = BenchmarkTrees.generateTree(shape, size);
+        comparator = BenchmarkTrees.getComparator();
+        lists = new ArrayList<>();
+        snapshotLists = new ArrayList<>();
+        lists.add(treeList);
+        HierarchyEachUtils.recursionEach(treeList, BenchmarkNode::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> {
+            if (hasExistChildren) {
+                lists.add(children);
+            }
+        });
+        for (List<BenchmarkNode> list : lists) {
+            snapshotLists.add(new ArrayList<>(list));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        for (int i = 0; i < lists.size(); i++) {
+            List<BenchmarkNode> list = lists.get(i);
+            List<BenchmarkNode> snapshotList = snapshotLists.get(i);
+            for (int j = 0; j < list.size(); j++) {
+                list.set(j, snapshotList.get(j));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> sortWithChildren() {
+        HierarchySortUtils.sortWithChildren(treeList, BenchmarkNode::getChildren, comparator);
+        return treeList;
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> parallelSortWithChildren() {
+        HierarchySortUtils.parallelSortWithChildren(treeList, BenchmarkNode::getChildren, comparator);
+        return treeList;
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> sortWithChildrenByIntKey() {
+        HierarchySortUtils.sortWithChildrenByIntKey(treeList, BenchmarkNode::getChildren, BenchmarkNode::getSort);
+        return treeList;
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.github.jokerpper.hierarchy.benchmark;
+
+import com.github.jokerpper.hierarchy.HierarchyBuilder;
+import com.github.jokerpper.hierarchy.HierarchyPlan;
+import com.github.jokerpper.hierarchy.HierarchyUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HierarchyUtils.getHierarchyResult 基准测试
+ * <p>
+ * 默认只运行少量有代表性的参数组合,其余组合可通过 -p 指定,如: -p size=1000,10000000 -p withParallel=true
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class HierarchyUtilsBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"BALANCED", "DEEP"})
+    private BenchmarkTreeShape shape;
+
+    @Param({"false", "true"})
+    private boolean withTransfer;
+
+    @Param({"false"})
+    private boolean withFilter;
+
+    @Param({"true"})
+    private boolean withComparator;
+
+    @Param({"false"})
+    private boolean withParallel;
+
+    @Param({"false"})
+    private boolean withSortSiblings;
+
+    /**
+     * 最大层级,为0时不限制
+     */
+    @Param({"0"})
+    private int maxDepth;
+
+    private List<BenchmarkNode> sourceList;
+
+    private HierarchyUtils.HierarchyFunctions<BenchmarkNode, Long, BenchmarkNode> functions;
+
+    private HierarchyUtils.HierarchyLongFunctions<BenchmarkNode, BenchmarkNode> longFunctions;
+
+    private Comparator<BenchmarkNode> comparator;
+
+    private HierarchyBuilder<BenchmarkNode, BenchmarkNode> builder;
+
+    private HierarchyPlan<BenchmarkNode, BenchmarkNode> plan;
+
+    private HierarchyPlan<BenchmarkNode, BenchmarkNode> lazyPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceList = BenchmarkTrees.generate(shape, size);
+        functions = BenchmarkTrees.getFunctions(withTransfer);
+        if (withParallel) {
+            functions.setIsParallel(() -> true);
+        }
+        if (withFilter) {
+            functions.setFilterPredicate(BenchmarkTrees::filter);
+        }
+        if (withSortSiblings) {
+            functions.setIsSortSiblings(() -> true);
+        }
+        if (maxDepth > 0) {
+            functions.setMaxDepth(() -> maxDepth);
+        }
+        longFunctions = BenchmarkTrees.getLongFunctions(withTransfer);
+        if (withParallel) {
+            longFunctions.setIsParallel(() -> true);
+        }
+        if (withFilter) {
+            longFunctions.setFilterPredicate(BenchmarkTrees::filter);
+        }
+        if (withSortSiblings) {
+            longFunctions.setIsSortSiblings(() -> true);
+        }
+        if (maxDepth > 0) {
+            longFunctions.setMaxDepth(() -> maxDepth);
+        }
+        comparator = withComparator ? BenchmarkTrees.getComparator() : null;
+        builder = HierarchyBuilder.of(functions, comparator);
+        plan = HierarchyPlan.of(functions, comparator);
+        functions.setIsLazyChildren(() -> true);
+        lazyPlan = HierarchyPlan.of(functions, comparator);
+        functions.setIsLazyChildren(null);
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyResult() {
+        return HierarchyUtils.getHierarchyResult(sourceList, functions, comparator);
+    }
+
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyResultByLongId() {
+        return HierarchyUtils.getHierarchyResultByLongId(sourceList, longFunctions, comparator);
+    }
+
+    /**
+     * 只构建id为1的元素的子树
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> getHierarchyResultById() {
+        return HierarchyUtils.getHierarchyResultById(sourceList, functions, 1L, comparator);
+    }
+
+    /**
+     * 复用缓冲区进行构建
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> buildWithBuilder() {
+        return builder.build(sourceList);
+    }
+
+    /**
+     * 通过预先确定的计划进行构建
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> buildWithPlan() {
+        return plan.build(sourceList);
+    }
+
+    /**
+     * 延迟处理子元素,只访问root的直接子元素及第一个元素的子元素
+     *
+     * @return
+     */
+    @Benchmark
+    public List<BenchmarkNode> buildWithLazyChildren() {
+        List<BenchmarkNode> results = lazyPlan.build(sourceList);
+        if (!results.isEmpty() && results.get(0).getChildren() != null && !results.get(0).getChildren().isEmpty()) {
+            results.get(0).getChildren().get(0);
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * 可复用缓冲区的构建器
+ * <p>
+ * 与 HierarchyUtils / HierarchyFlatUtils 的结果一致,但在多次构建之间复用要处理的元素列表、pid所对应slot的map及建立子元素索引所需的数组,
+ * 并按上次构建的结果个数确定结果列表的初始容量,适用于频繁构建较小树形数据的场景
+ * <p>
+ * 非线程安全,可通过 ThreadLocal 为每个线程创建 (如: ThreadLocal.withInitial(() -&gt; HierarchyBuilder.of(functions, comparator)));
+ * 缓冲区按构建过的最大元素个数扩容且不缩小,构建期间(如在转换函数中)再次调用同一构建器时不使用缓冲区
+ *
+ * @param <T> 源数据类型
+ * @param <R> 转换结果类型
+ */
+public final class HierarchyBuilder<T, R> {
+
+    /**
+     * 构建函数
+     */
+    private final BiFunction<List<T>, HierarchyWorkspace, List<R>> buildFunction;
+
+    /**
+     * 缓冲区
+     */
+    private final HierarchyWorkspace workspace = new HierarchyWorkspace();
+
+    /**
+     * 是否正在构建
+     */
+    private boolean isBuilding;
+
+    private HierarchyBuilder(final BiFunction<List<T>, HierarchyWorkspace, List<R>> buildFunction) {
+        this.buildFunction = buildFunction;
+    }
+
+    /**
+     * 通过计划创建构建器 (可在多个线程间共享同一计划,并为每个线程创建构建器)
+     *
+     * @param plan 计划
+     * @param <T>  源数据类型
+     * @param <R>  转换结果类型
+     * @return 构建器
+     * @see HierarchyPlan
+     */
+    public static <T, R> HierarchyBuilder<T, R> of(final HierarchyPlan<T, R> plan) {
+        Objects.requireNonNull(plan, "plan must be not null");
+        return new HierarchyBuilder<>(plan::build);
+    }
+
+    /**
+     * 创建构建树形结构的构建器
+     *
+     * @param functions 函数 (构建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @param <V>       ID属性类型
+     * @return 构建器
+     * @see HierarchyUtils#getHierarchyResult(List, HierarchyUtils.HierarchyFunctions)
+     */
+    public static <T, R, V> HierarchyBuilder<T, R> of(final HierarchyUtils.HierarchyFunctions<T, V, R> functions) {
+        return of(functions, null);
+    }
+
+    /**
+     * 创建构建树形结构的构建器
+     *
+     * @param functions  函数 (构建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 构建器
+     * @see HierarchyUtils#getHierarchyResult(List, HierarchyUtils.HierarchyFunctions, Comparator)
+     */
+    public static <T, R, V> HierarchyBuilder<T, R> of(final HierarchyUtils.HierarchyFunctions<T, V, R> functions, final Comparator<? super T> comparator) {
+        Objects.requireNonNull(functions, "functions must be not null");
+        return new HierarchyBuilder<>((sourceList, workspace) -> HierarchyUtils.getHierarchyResult(sourceList, functions, comparator, workspace));
+    }
+
+    /**
+     * 创建构建树形结构的构建器 (id为long或int类型,id及pid不进行装箱)
+     *
+     * @param functions 函数 (构建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @return 构建器
+     * @see HierarchyUtils#getHierarchyResultByLongId(List, HierarchyUtils.HierarchyLongFunctions)
+     */
+    public static <T, R> HierarchyBuilder<T, R> ofLongId(final HierarchyUtils.HierarchyLongFunctions<T, R> functions) {
+        return ofLongId(functions, null);
+    }
+
+    /**
+     * 创建构建树形结构的构建器 (id为long或int类型,id及pid不进行装箱)
+     *
+     * @param functions  函数 (构建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 构建器
+     * @see HierarchyUtils#getHierarchyResultByLongId(List, HierarchyUtils.HierarchyLongFunctions, Comparator)
+     */
+    public static <T, R> HierarchyBuilder<T, R> ofLongId(final HierarchyUtils.HierarchyLongFunctions<T, R> functions, final Comparator<? super T> comparator) {
+        Objects.requireNonNull(functions, "functions must be not null");
+        return new HierarchyBuilder<>((sourceList, workspace) -> HierarchyUtils.getHierarchyResultByLongId(sourceList, functions, comparator, workspace));
+    }
+
+    /**
+     * 创建获取打平数据的构建器
+     *
+     * @param functions 函数 (构建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @param <V>       ID属性类型
+     * @return 构建器
+     * @see HierarchyFlatUtils#getHierarchyFlatResult(List, HierarchyFlatUtils.HierarchyFlatFunctions)
+     */
+    public static <T, R, V> HierarchyBuilder<T, R> ofFlat(final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, R> functions) {
+        return ofFlat(functions, null);
+    }
+
+    /**
+     * 创建获取打平数据的构建器
+     *
+     * @param functions  函数 (构建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 构建器
+     * @see HierarchyFlatUtils#getHierarchyFlatResult(List, HierarchyFlatUtils.HierarchyFlatFunctions, Comparator)
+     */
+    public static <T, R, V> HierarchyBuilder<T, R> ofFlat(final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, R> functions, final Comparator<T> comparator) {
+        Objects.requireNonNull(functions, "functions must be not null");
+        return new HierarchyBuilder<>((sourceList, workspace) -> HierarchyFlatUtils.getHierarchyFlatResult(sourceList, functions, comparator, workspace));
+    }
+
+    /**
+     * 构建结果
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @return 转换结果 (每次构建均为新的列表)
+     */
+    public List<R> build(final List<T> sourceList) {
+        if (isBuilding) {
+            //构建期间再次调用时不使用缓冲区
+            return buildFunction.apply(sourceList, HierarchyWorkspace.NONE);
+        }
+        isBuilding = true;
+        try {
+            return buildFunction.apply(sourceList, workspace);
+        } finally {
+            isBuilding = false;
+        }
+    }
+
+}
@@ -0,0 +1,726 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 元素的子元素索引 (compressed sparse row)
+ * <p>
+ * 每个不同的pid对应一个slot,slot的子元素为 children[offsets[slot], offsets[slot + 1]) 中所指向的元素下标,
+ * 子元素的顺序与其在元素列表中的顺序一致 (通过比较器排序各slot的子元素后为排序后的顺序)
+ * <p>
+ * 建立索引时各元素只获取一次id/pid并确定其类型(root/root的直接子元素),之后的处理只通过元素下标进行
+ */
+final class HierarchyChildrenIndex<T> {
+
+    /**
+     * 不存在时的值
+     */
+    static final int NONE = -1;
+
+    /**
+     * 元素类型: 其他
+     */
+    private static final byte KIND_OTHER = 0;
+
+    /**
+     * 元素类型: root
+     */
+    private static final byte KIND_ROOT = 1;
+
+    /**
+     * 元素类型: root的直接子元素(非root)
+     */
+    private static final byte KIND_ROOT_DIRECT_CHILD = 2;
+
+    /**
+     * 元素列表
+     */
+    private final List<T> elements;
+
+    /**
+     * 各slot子元素在children中的开始位置,长度为slot个数 + 1
+     */
+    private final int[] offsets;
+
+    /**
+     * 按slot分组的子元素下标
+     */
+    private final int[] children;
+
+    /**
+     * 各元素的子元素所在的slot,不存在子元素时为NONE
+     */
+    private final int[] childrenSlots;
+
+    /**
+     * 各元素的类型 (root/root的直接子元素/其他),建立索引时确定,之后不再获取id/pid及判断是否为root
+     */
+    private final byte[] kinds;
+
+    /**
+     * slot个数
+     */
+    private final int slotCount;
+
+    private HierarchyChildrenIndex(final List<T> elements, final int[] offsets, final int slotCount
+            , final int[] children, final int[] childrenSlots, final byte[] kinds) {
+        this.elements = elements;
+        this.offsets = offsets;
+        this.slotCount = slotCount;
+        this.children = children;
+        this.childrenSlots = childrenSlots;
+        this.kinds = kinds;
+    }
+
+    /**
+     * 获取元素的子元素索引(但不包含root)
+     *
+     * @param elements       元素列表
+     * @param getIdFunction  获取 id 函数
+     * @param getPidFunction 获取 pid 函数
+     * @param isRootFunction 是否为 root函数
+     * @param <T>
+     * @param <V>
+     * @return
+     */
+    static <T, V> HierarchyChildrenIndex<T> of(final List<T> elements
+            , final Function<T, V> getIdFunction
+            , final Function<T, V> getPidFunction
+            , final Function<V, Boolean> isRootFunction) {
+        return of(elements, getIdFunction, getPidFunction, isRootFunction, new HashMap<>());
+    }
+
+    /**
+     * 获取元素的子元素索引(但不包含root)
+     *
+     * @param elements       元素列表
+     * @param getIdFunction  获取 id 函数
+     * @param getPidFunction 获取 pid 函数
+     * @param isRootFunction 是否为 root函数
+     * @param slotMap        用于存放pid所对应slot的空map
+     * @param <T>
+     * @param <V>
+     * @return
+     */
+    static <T, V> HierarchyChildrenIndex<T> of(final List<T> elements
+            , final Function<T, V> getIdFunction
+            , final Function<T, V> getPidFunction
+            , final Function<V, Boolean> isRootFunction
+            , final Map<V, Integer> slotMap) {
+        return of(elements, getIds(elements, getIdFunction), getPidFunction, isRootFunction, slotMap, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 通过已获取的各元素id获取元素的子元素索引(但不包含root)
+     * <p>
+     * 各元素只获取一次pid,各不同的pid只判断一次是否为root
+     *
+     * @param elements       元素列表
+     * @param ids            各元素的id (与元素列表顺序一致)
+     * @param getPidFunction 获取 pid 函数
+     * @param isRootFunction 是否为 root函数
+     * @param slotMap        用于存放pid所对应slot的空map
+     * @param workspace      获取数组的缓冲区 (索引会使用其中的数组)
+     * @param <T>
+     * @param <V>
+     * @return
+     */
+    static <T, V> HierarchyChildrenIndex<T> of(final List<T> elements
+            , final Object[] ids
+            , final Function<T, V> getPidFunction
+            , final Function<V, Boolean> isRootFunction
+            , final Map<V, Integer> slotMap
+            , final HierarchyWorkspace workspace) {
+        int size = elements.size();
+        int[] parentSlots = workspace.getParentSlots(size);
+        //各slot所对应的pid是否为root
+        boolean[] rootSlots = workspace.getRootSlots(size);
+        for (int index = 0; index < size; index++) {
+            //ids为通过获取id函数得到的V类型的值
+            @SuppressWarnings("unchecked")
+            V id = (V) ids[index];
+            if (isRootFunction.apply(id)) {
+                //为root时跳过
+                parentSlots[index] = NONE;
+                continue;
+            }
+
+            //获取pid所对应的slot
+            V pid = getPidFunction.apply(elements.get(index));
+            Integer slot = slotMap.get(pid);
+            if (slot == null) {
+                slot = slotMap.size();
+                slotMap.put(pid, slot);
+                rootSlots[slot] = isRootFunction.apply(pid);
+            }
+            parentSlots[index] = slot;
+        }
+
+        int[] childrenSlots = workspace.getChildrenSlots(size);
+        for (int index = 0; index < size; index++) {
+            Integer slot = slotMap.get(ids[index]);
+            childrenSlots[index] = slot == null ? NONE : slot;
+        }
+        return of(elements, parentSlots, slotMap.size(), childrenSlots, rootSlots, workspace);
+    }
+
+    /**
+     * 获取各元素的id
+     *
+     * @param elements      元素列表
+     * @param getIdFunction 获取 id 函数
+     * @param <T>
+     * @param <V>
+     * @return 各元素的id (与元素列表顺序一致)
+     */
+    static <T, V> Object[] getIds(final List<T> elements, final Function<T, V> getIdFunction) {
+        return getIds(elements, getIdFunction, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 获取各元素的id
+     *
+     * @param elements      元素列表
+     * @param getIdFunction 获取 id 函数
+     * @param workspace     获取数组的缓冲区
+     * @param <T>
+     * @param <V>
+     * @return 各元素的id (与元素列表顺序一致,长度可能大于元素个数)
+     */
+    static <T, V> Object[] getIds(final List<T> elements, final Function<T, V> getIdFunction, final HierarchyWorkspace workspace) {
+        int size = elements.size();
+        Object[] ids = workspace.getIds(size);
+        for (int index = 0; index < size; index++) {
+            ids[index] = getIdFunction.apply(elements.get(index));
+        }
+        return ids;
+    }
+
+    /**
+     * 获取元素的子元素索引(但不包含root) -- long id
+     *
+     * @param elements       元素列表
+     * @param getIdFunction  获取 id 函数
+     * @param getPidFunction 获取 pid 函数
+     * @param isRootFunction 是否为 root函数
+     * @param <T>
+     * @return
+     */
+    static <T> HierarchyChildrenIndex<T> ofLongId(final List<T> elements
+            , final ToLongFunction<T> getIdFunction
+            , final ToLongFunction<T> getPidFunction
+            , final LongPredicate isRootFunction) {
+        return ofLongId(elements, getIdFunction, getPidFunction, isRootFunction, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 获取元素的子元素索引(但不包含root) -- long id
+     *
+     * @param elements       元素列表
+     * @param getIdFunction  获取 id 函数
+     * @param getPidFunction 获取 pid 函数
+     * @param isRootFunction 是否为 root函数
+     * @param workspace      获取数组的缓冲区 (索引会使用其中的数组)
+     * @param <T>
+     * @return
+     */
+    static <T> HierarchyChildrenIndex<T> ofLongId(final List<T> elements
+            , final ToLongFunction<T> getIdFunction
+            , final ToLongFunction<T> getPidFunction
+            , final LongPredicate isRootFunction
+            , final HierarchyWorkspace workspace) {
+        int size = elements.size();
+        long[] ids = workspace.getLongIds(size);
+        int[] parentSlots = workspace.getParentSlots(size);
+        HierarchyLongIntMap slotMap = workspace.getLongSlotMap(Math.max(size >>> 2, 16));
+        //各slot所对应的pid是否为root
+        boolean[] rootSlots = workspace.getRootSlots(size);
+        for (int index = 0; index < size; index++) {
+            T element = elements.get(index);
+            //获取id
+            long id = getIdFunction.applyAsLong(element);
+            ids[index] = id;
+            if (isRootFunction.test(id)) {
+                //为root时跳过
+                parentSlots[index] = NONE;
+                continue;
+            }
+
+            //获取pid所对应的slot
+            long pid = getPidFunction.applyAsLong(element);
+            int slot = slotMap.size();
+            int existSlot = slotMap.putIfAbsent(pid, slot);
+            if (existSlot == HierarchyLongIntMap.NOT_FOUND) {
+                rootSlots[slot] = isRootFunction.test(pid);
+                parentSlots[index] = slot;
+            } else {
+                parentSlots[index] = existSlot;
+            }
+        }
+
+        int[] childrenSlots = workspace.getChildrenSlots(size);
+        for (int index = 0; index < size; index++) {
+            childrenSlots[index] = slotMap.get(ids[index]);
+        }
+        return of(elements, parentSlots, slotMap.size(), childrenSlots, rootSlots, workspace);
+    }
+
+    /**
+     * 通过各元素的父级slot建立索引
+     *
+     * @param elements      元素列表
+     * @param parentSlots   各元素的父级slot,不存在时为NONE
+     * @param slotCount     slot个数
+     * @param childrenSlots 各元素的子元素所在的slot
+     * @param rootSlots     各slot所对应的pid是否为root
+     * @param workspace     获取数组的缓冲区
+     * @param <T>
+     * @return
+     */
+    private static <T> HierarchyChildrenIndex<T> of(final List<T> elements, final int[] parentSlots, final int slotCount
+            , final int[] childrenSlots, final boolean[] rootSlots, final HierarchyWorkspace workspace) {
+        //计算各slot的子元素个数及各元素的类型
+        int size = elements.size();
+        int[] offsets = workspace.getOffsets(slotCount + 1);
+        byte[] kinds = workspace.getKinds(size);
+        for (int index = 0; index < size; index++) {
+            int parentSlot = parentSlots[index];
+            if (parentSlot == NONE) {
+                kinds[index] = KIND_ROOT;
+            } else {
+                offsets[parentSlot + 1]++;
+                kinds[index] = rootSlots[parentSlot] ? KIND_ROOT_DIRECT_CHILD : KIND_OTHER;
+            }
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            offsets[slot + 1] += offsets[slot];
+        }
+
+        //按slot放入子元素下标
+        int[] positions = workspace.getPositions(slotCount);
+        System.arraycopy(offsets, 0, positions, 0, slotCount);
+        int[] children = workspace.getChildren(offsets[slotCount]);
+        for (int index = 0; index < size; index++) {
+            int parentSlot = parentSlots[index];
+            if (parentSlot != NONE) {
+                children[positions[parentSlot]++] = index;
+            }
+        }
+        return new HierarchyChildrenIndex<>(elements, offsets, slotCount, children, childrenSlots, kinds);
+    }
+
+    /**
+     * 获取各元素的子树元素个数(包含自身)
+     *
+     * @param indexes 开始元素下标
+     * @param count   开始元素下标个数
+     * @return 各元素的子树元素个数, 不可达的元素为0
+     */
+    int[] getSubtreeSizes(final int[] indexes, final int count) {
+        return getSubtreeSizes(indexes, count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 获取各元素不超过最大深度的子树元素个数(包含自身)
+     *
+     * @param indexes  开始元素下标
+     * @param count    开始元素下标个数
+     * @param maxDepth 最大深度(开始元素为0),超过该深度的元素不计算在内
+     * @return 各元素的子树元素个数, 不可达的元素为0
+     */
+    int[] getSubtreeSizes(final int[] indexes, final int count, final int maxDepth) {
+        final int[] subtreeSizes = new int[size()];
+        HierarchyTraversal.IndexVisitor visitor = new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void exit(int index, int depth) {
+                int subtreeSize = 1;
+                int end = depth < maxDepth ? getChildrenEnd(index) : 0;
+                for (int position = getChildrenStart(index); position < end; position++) {
+                    subtreeSize += subtreeSizes[children[position]];
+                }
+                subtreeSizes[index] = subtreeSize;
+            }
+        };
+        for (int i = 0; i < count; i++) {
+            HierarchyTraversal.each(this, indexes[i], maxDepth, visitor);
+        }
+        return subtreeSizes;
+    }
+
+    /**
+     * 获取全部元素的子树元素个数(包含自身)
+     * <p>
+     * 从不为其他元素子元素的各元素开始计算
+     *
+     * @return 各元素的子树元素个数
+     */
+    int[] getSubtreeSizes() {
+        int size = size();
+        boolean[] isChild = new boolean[size];
+        for (int index = 0; index < size; index++) {
+            int end = getChildrenEnd(index);
+            for (int position = getChildrenStart(index); position < end; position++) {
+                isChild[children[position]] = true;
+            }
+        }
+        int[] indexes = new int[size];
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            if (!isChild[index]) {
+                indexes[count++] = index;
+            }
+        }
+        return getSubtreeSizes(indexes, count);
+    }
+
+    /**
+     * 对各slot的子元素按比较器进行稳定排序
+     *
+     * @param comparator   比较器
+     * @param forkJoinPool 不为Null时通过ForkJoinPool并行排序
+     */
+    void sortChildren(final Comparator<? super T> comparator, final ForkJoinPool forkJoinPool) {
+        if (forkJoinPool == null) {
+            sortChildren(comparator, 0, slotCount);
+            return;
+        }
+        forkJoinPool.invoke(new SortChildrenTask(comparator, 0, slotCount));
+    }
+
+    /**
+     * 对slot范围内的子元素进行排序 (原地排序children,同一范围内复用排序所使用的数组)
+     *
+     * @param comparator 比较器
+     * @param fromSlot   开始slot
+     * @param toSlot     结束slot(不包含)
+     */
+    private void sortChildren(final Comparator<? super T> comparator, final int fromSlot, final int toSlot) {
+        IndexSorter sorter = null;
+        for (int slot = fromSlot; slot < toSlot; slot++) {
+            int start = offsets[slot];
+            int end = offsets[slot + 1];
+            if (end - start < 2) {
+                continue;
+            }
+            if (sorter == null) {
+                sorter = new IndexSorter(comparator);
+            }
+            sorter.sort(children, start, end);
+        }
+    }
+
+    /**
+     * 对元素下标按其元素进行稳定排序 (原地排序)
+     *
+     * @param indexes    元素下标
+     * @param count      元素下标个数
+     * @param comparator 比较器
+     */
+    void sortIndexes(final int[] indexes, final int count, final Comparator<? super T> comparator) {
+        if (count > 1) {
+            new IndexSorter(comparator).sort(indexes, 0, count);
+        }
+    }
+
+    /**
+     * 对元素下标按其元素进行稳定排序的排序器
+     * <p>
+     * 通过int元素下标进行归并排序(元素较少时插入排序),为排序键比较器时先获取各元素的排序键再按long比较,
+     * 排序所使用的数组按最大排序个数扩容并复用,非线程安全
+     */
+    private final class IndexSorter {
+
+        /**
+         * 少于该元素个数时使用插入排序
+         */
+        private static final int INSERTION_SORT_THRESHOLD = 16;
+
+        private final Comparator<? super T> comparator;
+
+        /**
+         * 排序键比较器,其他比较器时为Null
+         */
+        private final HierarchyKeyComparator<? super T> keyComparator;
+
+        private int[] indexes = new int[INSERTION_SORT_THRESHOLD];
+
+        private int[] tempIndexes = new int[INSERTION_SORT_THRESHOLD];
+
+        /**
+         * 各元素的排序键 (与indexes一一对应),非排序键比较器时为Null
+         */
+        private long[] keys;
+
+        private long[] tempKeys;
+
+        IndexSorter(final Comparator<? super T> comparator) {
+            this.comparator = comparator;
+            this.keyComparator = HierarchyKeyComparator.of(comparator);
+            if (keyComparator != null) {
+                keys = new long[INSERTION_SORT_THRESHOLD];
+                tempKeys = new long[INSERTION_SORT_THRESHOLD];
+            }
+        }
+
+        /**
+         * 对数组范围内的元素下标进行稳定排序
+         *
+         * @param target 元素下标数组
+         * @param from   开始位置
+         * @param to     结束位置(不包含)
+         */
+        void sort(final int[] target, final int from, final int to) {
+            int size = to - from;
+            if (size > indexes.length) {
+                int capacity = Math.max(size, indexes.length << 1);
+                indexes = new int[capacity];
+                tempIndexes = new int[capacity];
+                if (keys != null) {
+                    keys = new long[capacity];
+                    tempKeys = new long[capacity];
+                }
+            }
+            System.arraycopy(target, from, indexes, 0, size);
+            if (keys != null) {
+                for (int i = 0; i < size; i++) {
+                    keys[i] = keyComparator.getKey(elements.get(indexes[i]));
+                }
+            }
+            mergeSort(0, size);
+            System.arraycopy(indexes, 0, target, from, size);
+        }
+
+        private void mergeSort(final int from, final int to) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            mergeSort(from, middle);
+            mergeSort(middle, to);
+            if (compare(indexes[middle - 1], getKey(keys, middle - 1), indexes[middle], getKey(keys, middle)) <= 0) {
+                //已有序
+                return;
+            }
+
+            System.arraycopy(indexes, from, tempIndexes, from, to - from);
+            if (keys != null) {
+                System.arraycopy(keys, from, tempKeys, from, to - from);
+            }
+            int left = from;
+            int right = middle;
+            for (int i = from; i < to; i++) {
+                //相同时取左侧,保持稳定
+                int position = right >= to || (left < middle && compare(tempIndexes[left], getKey(tempKeys, left)
+                        , tempIndexes[right], getKey(tempKeys, right)) <= 0) ? left++ : right++;
+                indexes[i] = tempIndexes[position];
+                if (keys != null) {
+                    keys[i] = tempKeys[position];
+                }
+            }
+        }
+
+        private void insertionSort(final int from, final int to) {
+            for (int i = from + 1; i < to; i++) {
+                int index = indexes[i];
+                long key = getKey(keys, i);
+                int j = i - 1;
+                while (j >= from && compare(indexes[j], getKey(keys, j), index, key) > 0) {
+                    indexes[j + 1] = indexes[j];
+                    if (keys != null) {
+                        keys[j + 1] = keys[j];
+                    }
+                    j--;
+                }
+                indexes[j + 1] = index;
+                if (keys != null) {
+                    keys[j + 1] = key;
+                }
+            }
+        }
+
+        private int compare(final int index1, final long key1, final int index2, final long key2) {
+            if (keys != null) {
+                return Long.compare(key1, key2);
+            }
+            return comparator.compare(elements.get(index1), elements.get(index2));
+        }
+
+        private long getKey(final long[] source, final int position) {
+            return source == null ? 0 : source[position];
+        }
+    }
+
+    /**
+     * 并行排序各slot子元素的任务 (按子元素个数拆分)
+     */
+    private final class SortChildrenTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Comparator<? super T> comparator;
+
+        private final int fromSlot;
+
+        private final int toSlot;
+
+        SortChildrenTask(final Comparator<? super T> comparator, final int fromSlot, final int toSlot) {
+            this.comparator = comparator;
+            this.fromSlot = fromSlot;
+            this.toSlot = toSlot;
+        }
+
+        @Override
+        protected void compute() {
+            if (toSlot - fromSlot < 2 || offsets[toSlot] - offsets[fromSlot] <= HierarchyParallelBuilder.MIN_THRESHOLD) {
+                sortChildren(comparator, fromSlot, toSlot);
+                return;
+            }
+            //按子元素个数接近一半的位置拆分
+            int half = (offsets[fromSlot] + offsets[toSlot]) >>> 1;
+            int middle = Arrays.binarySearch(offsets, fromSlot + 1, toSlot, half);
+            middle = middle < 0 ? -middle - 1 : middle;
+            middle = Math.min(Math.max(middle, fromSlot + 1), toSlot - 1);
+            invokeAll(new SortChildrenTask(comparator, fromSlot, middle), new SortChildrenTask(comparator, middle, toSlot));
+        }
+    }
+
+    /**
+     * 元素个数
+     *
+     * @return
+     */
+    int size() {
+        return elements.size();
+    }
+
+    /**
+     * 获取元素
+     *
+     * @param index 元素下标
+     * @return
+     */
+    T getElement(final int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * 元素是否为root
+     *
+     * @param index 元素下标
+     * @return
+     */
+    boolean isRoot(final int index) {
+        return kinds[index] == KIND_ROOT;
+    }
+
+    /**
+     * 元素是否为root的直接子元素(非root)
+     *
+     * @param index 元素下标
+     * @return
+     */
+    boolean isRootDirectChild(final int index) {
+        return kinds[index] == KIND_ROOT_DIRECT_CHILD;
+    }
+
+    /**
+     * 获取元素的子元素在children中的开始位置
+     *
+     * @param index 元素下标
+     * @return
+     */
+    int getChildrenStart(final int index) {
+        int slot = childrenSlots[index];
+        return slot == NONE ? 0 : offsets[slot];
+    }
+
+    /**
+     * 获取元素的子元素在children中的结束位置(不包含)
+     *
+     * @param index 元素下标
+     * @return
+     */
+    int getChildrenEnd(final int index) {
+        int slot = childrenSlots[index];
+        return slot == NONE ? 0 : offsets[slot + 1];
+    }
+
+    /**
+     * 获取slot的子元素在children中的开始位置
+     *
+     * @param slot slot
+     * @return
+     */
+    int getSlotChildrenStart(final int slot) {
+        return offsets[slot];
+    }
+
+    /**
+     * 获取slot的子元素在children中的结束位置(不包含)
+     *
+     * @param slot slot
+     * @return
+     */
+    int getSlotChildrenEnd(final int slot) {
+        return offsets[slot + 1];
+    }
+
+    /**
+     * 获取children中对应位置的元素下标
+     *
+     * @param position 位置
+     * @return
+     */
+    int getChildIndex(final int position) {
+        return children[position];
+    }
+
+    /**
+     * 获取元素的子元素列表
+     *
+     * @param index 元素下标
+     * @return 子元素列表, 不存在时为Null
+     */
+    List<T> getChildren(final int index) {
+        int slot = childrenSlots[index];
+        if (slot == NONE) {
+            return null;
+        }
+        int start = offsets[slot];
+        int end = offsets[slot + 1];
+        List<T> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            results.add(elements.get(children[position]));
+        }
+        return results;
+    }
+
+}
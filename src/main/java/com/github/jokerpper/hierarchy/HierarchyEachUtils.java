@@ -17,10 +17,16 @@
  */
 package com.github.jokerpper.hierarchy;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author joker-pper 2024-07-07
@@ -36,6 +42,27 @@ public class HierarchyEachUtils {
     private HierarchyEachUtils() {
     }
 
+    /**
+     * 遍历元素后的处理方式
+     */
+    public enum EachResult {
+
+        /**
+         * 继续遍历
+         */
+        CONTINUE,
+
+        /**
+         * 不再遍历当前元素的子元素,继续遍历其他元素
+         */
+        SKIP_CHILDREN,
+
+        /**
+         * 终止遍历
+         */
+        TERMINATE
+    }
+
     /**
      * 递归遍历
      *
@@ -53,59 +80,414 @@ public class HierarchyEachUtils {
         callback.beforeEach(sourceList);
 
         boolean withParentList = callback.withParentList();
-        for (T source : sourceList) {
-            recursionEach(source, null, getChildrenFunction, null, FIRST_LEVEL, callback, withParentList);
-        }
+        HierarchyTraversal.each(sourceList, FIRST_LEVEL, new EachVisitor<>(getChildrenFunction, callback, withParentList));
     }
 
     /**
-     * 递归遍历处理
+     * 后序遍历,元素的子元素全部处理后才处理该元素,并可使用各子元素的处理结果 (用于自下而上计算,如子树元素个数)
      *
-     * @param source              源数据
-     * @param parent              父级元素
+     * @param sourceList          源数据列表，不能存在为Null的子元素
      * @param getChildrenFunction 获取子级函数
-     * @param parentList          父级列表
-     * @param level               层级
      * @param callback            回调函数
-     * @param withParentList      是否启用父级列表
      * @param <T>                 源数据类型
+     * @param <A>                 处理结果类型
+     * @return 源数据列表中各元素的处理结果 (与源数据列表的顺序一致)
      */
-    private static <T> void recursionEach(final T source, final T parent, final Function<T, List<T>> getChildrenFunction, final List<T> parentList, final int level, final EachCallback<T> callback, final boolean withParentList) {
-        List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
-        boolean hasExistChildren = children != null && !children.isEmpty();
+    public static <T, A> List<A> postOrderEach(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final AfterChildrenCallback<T, A> callback) {
+        Objects.requireNonNull(getChildrenFunction, "getChildrenFunction must be not null");
+        Objects.requireNonNull(callback, "callback must be not null");
+        if (sourceList == null || sourceList.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        //遍历执行自定义逻辑
-        callback.each(level, source, parent, parentList, children, hasExistChildren);
+        PostOrderVisitor<T, A> visitor = new PostOrderVisitor<>(getChildrenFunction, callback);
+        HierarchyTraversal.each(sourceList, FIRST_LEVEL, visitor);
+        return visitor.getResults();
+    }
 
-        if (!hasExistChildren) {
+    /**
+     * 按层级遍历 (广度优先),每个层级的全部元素只回调一次
+     * <p>
+     * 按层级从小到大依次回调,父级元素所在的层级一定先于子元素回调(如批量保存时先保存父级元素);
+     * 当前层级回调后才获取其子元素,因此可在回调中修改当前层级元素的子级列表
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取子级函数
+     * @param callback            回调函数
+     * @param <T>                 源数据类型
+     */
+    public static <T> void levelEach(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final LevelCallback<T> callback) {
+        Objects.requireNonNull(getChildrenFunction, "getChildrenFunction must be not null");
+        Objects.requireNonNull(callback, "callback must be not null");
+        if (sourceList == null || sourceList.isEmpty()) {
             return;
         }
 
-        //获取当前元素的子级所要用的父级列表
-        List<T> currentParentList = null;
-        try {
+        List<T> levelList = sourceList;
+        int level = FIRST_LEVEL;
+        while (true) {
+            callback.onLevel(level, levelList);
+
+            //获取下一层级的元素
+            int size = 0;
+            List<List<T>> childrenLists = new ArrayList<>(levelList.size());
+            for (T source : levelList) {
+                List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
+                if (children != null && !children.isEmpty()) {
+                    childrenLists.add(children);
+                    size += children.size();
+                }
+            }
+            if (size == 0) {
+                return;
+            }
+            List<T> nextLevelList = new ArrayList<>(size);
+            for (List<T> children : childrenLists) {
+                nextLevelList.addAll(children);
+            }
+            levelList = nextLevelList;
+            level++;
+        }
+    }
+
+    /**
+     * 获取按先序遍历元素及其子元素的流 (遍历时才获取子元素)
+     * <p>
+     * 并行时按子树进行分割,可将各元素的处理分配到多个线程执行; 遍历期间不能修改元素的子级列表
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取子级函数
+     * @param <T>                 源数据类型
+     * @return 流 (顺序流,可通过parallel()转换为并行流)
+     */
+    public static <T> Stream<T> stream(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction) {
+        Objects.requireNonNull(getChildrenFunction, "getChildrenFunction must be not null");
+        if (sourceList == null || sourceList.isEmpty()) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new HierarchySpliterator<T, T>(sourceList, FIRST_LEVEL, getChildrenFunction, (source, level) -> source), false);
+    }
+
+    /**
+     * 获取按先序遍历元素及其子元素的流,各元素包含其所在的层级 (遍历时才获取子元素)
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取子级函数
+     * @param <T>                 源数据类型
+     * @return 流 (顺序流,可通过parallel()转换为并行流)
+     * @see #stream(List, Function)
+     */
+    public static <T> Stream<LevelElement<T>> streamWithLevel(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction) {
+        Objects.requireNonNull(getChildrenFunction, "getChildrenFunction must be not null");
+        if (sourceList == null || sourceList.isEmpty()) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(new HierarchySpliterator<>(sourceList, FIRST_LEVEL, getChildrenFunction, LevelElement::new), false);
+    }
+
+    /**
+     * 后序遍历处理的回调
+     *
+     * @param <T> 源数据类型
+     * @param <A> 处理结果类型
+     */
+    private static class PostOrderVisitor<T, A> implements HierarchyTraversal.Visitor<T> {
+
+        private final Function<T, List<T>> getChildrenFunction;
+
+        private final AfterChildrenCallback<T, A> callback;
+
+        /**
+         * 各层级的当前元素
+         */
+        private Object[] levelElements = new Object[16];
+
+        /**
+         * 各层级的当前元素的子元素结果在结果栈中的开始位置
+         */
+        private int[] levelStarts = new int[16];
+
+        /**
+         * 结果栈 (已处理元素的结果,元素处理后其子元素的结果出栈)
+         */
+        private Object[] results = new Object[16];
+
+        private int resultSize;
+
+        /**
+         * 子元素结果列表 (复用的只读视图)
+         */
+        private final ChildrenResultList childrenResults = new ChildrenResultList();
+
+        PostOrderVisitor(final Function<T, List<T>> getChildrenFunction, final AfterChildrenCallback<T, A> callback) {
+            this.getChildrenFunction = getChildrenFunction;
+            this.callback = callback;
+        }
+
+        @Override
+        public List<T> enter(final T source, final T parent, final int level) {
+            if (level == levelElements.length) {
+                levelElements = Arrays.copyOf(levelElements, level << 1);
+                levelStarts = Arrays.copyOf(levelStarts, level << 1);
+            }
+            levelElements[level] = source;
+            levelStarts[level] = resultSize;
+            return HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
+        }
+
+        @Override
+        public void exit(final T source, final int level) {
+            int start = levelStarts[level];
+            childrenResults.start = start;
+            childrenResults.size = resultSize - start;
+            T parent = level == FIRST_LEVEL ? null : getLevelElement(level - 1);
+            A result = callback.afterChildren(level, source, parent, childrenResults);
+
+            //子元素的结果出栈,当前元素的结果入栈
+            Arrays.fill(results, start, resultSize, null);
+            levelElements[level] = null;
+            if (start == results.length) {
+                results = Arrays.copyOf(results, start << 1);
+            }
+            results[start] = result;
+            resultSize = start + 1;
+        }
+
+        List<A> getResults() {
+            List<A> resultList = new ArrayList<>(resultSize);
+            for (int i = 0; i < resultSize; i++) {
+                resultList.add(getResult(i));
+            }
+            return resultList;
+        }
+
+        /**
+         * 获取层级的当前元素 (只存放T类型的元素)
+         *
+         * @param level 层级
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private T getLevelElement(final int level) {
+            return (T) levelElements[level];
+        }
+
+        /**
+         * 获取结果栈中的结果 (只存放A类型的结果)
+         *
+         * @param position 结果栈位置
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private A getResult(final int position) {
+            return (A) results[position];
+        }
+
+        /**
+         * 只读的子元素结果列表视图
+         */
+        private final class ChildrenResultList extends AbstractList<A> implements RandomAccess {
+
+            private int start;
+
+            private int size;
+
+            @Override
+            public A get(final int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return getResult(start + index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+    }
+
+    /**
+     * 元素及其所在的层级
+     *
+     * @param <T> 源数据类型
+     */
+    public static final class LevelElement<T> {
+
+        private final T element;
+
+        private final int level;
+
+        LevelElement(final T element, final int level) {
+            this.element = element;
+            this.level = level;
+        }
+
+        /**
+         * 获取元素
+         *
+         * @return 元素 不为Null
+         */
+        public T getElement() {
+            return element;
+        }
+
+        /**
+         * 获取层级
+         *
+         * @return 层级 第一层级为 {@link HierarchyEachUtils#FIRST_LEVEL}
+         */
+        public int getLevel() {
+            return level;
+        }
+    }
+
+    /**
+     * 遍历处理的回调
+     *
+     * @param <T> 源数据类型
+     */
+    private static class EachVisitor<T> implements HierarchyTraversal.Visitor<T> {
+
+        private final Function<T, List<T>> getChildrenFunction;
+
+        private final EachCallback<T> callback;
+
+        private final boolean withParentList;
+
+        /**
+         * 是否为各父元素的子级创建父级列表的副本
+         */
+        private final boolean withParentListSnapshot;
+
+        /**
+         * 当前元素的各级父元素 (按层级复用)
+         */
+        private Object[] parents;
+
+        /**
+         * 各层级元素所使用的父级列表 (下标为层级,未启用副本时为按层级复用的只读视图)
+         */
+        private List<?>[] parentLists;
+
+        /**
+         * 是否已终止遍历
+         */
+        private boolean terminated;
+
+        EachVisitor(final Function<T, List<T>> getChildrenFunction, final EachCallback<T> callback, final boolean withParentList) {
+            this.getChildrenFunction = getChildrenFunction;
+            this.callback = callback;
+            this.withParentList = withParentList;
+            if (withParentList) {
+                this.withParentListSnapshot = callback.withParentListSnapshot();
+                this.parents = new Object[16];
+                this.parentLists = new List<?>[17];
+            } else {
+                this.withParentListSnapshot = false;
+            }
+        }
+
+        @Override
+        public List<T> enter(final T source, final T parent, final int level) {
+            List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
+            boolean hasExistChildren = children != null && !children.isEmpty();
+
+            //父级列表
+            List<T> parentList = withParentList && level != FIRST_LEVEL ? getParentList(level) : null;
+
+            //遍历执行自定义逻辑
+            EachResult result = callback.eachWithResult(level, source, parent, parentList, children, hasExistChildren);
+            Objects.requireNonNull(result, "each result must be not null");
+
+            if (result == EachResult.TERMINATE) {
+                terminated = true;
+                return null;
+            }
+
+            if (!hasExistChildren || result == EachResult.SKIP_CHILDREN) {
+                return null;
+            }
+
             if (withParentList) {
-                if (level == FIRST_LEVEL) {
-                    //第一层级时
-                    currentParentList = new ArrayList<>(1);
-                } else {
-                    currentParentList = new ArrayList<>(parentList.size() + 1);
-                    currentParentList.addAll(parentList);
+                //设置当前元素的子级所要用的父级列表
+                int size = level + 1;
+                if (size == parents.length) {
+                    parents = Arrays.copyOf(parents, size << 1);
+                    parentLists = Arrays.copyOf(parentLists, (size << 1) + 1);
                 }
-                currentParentList.add(source);
+                parents[level] = source;
+                if (withParentListSnapshot) {
+                    parentLists[size] = Collections.unmodifiableList(new ArrayList<>(new ParentList(size)));
+                } else if (parentLists[size] == null) {
+                    parentLists[size] = new ParentList(size);
+                }
+            }
+            return children;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return terminated;
+        }
+
+        /**
+         * 获取层级所对应的父级列表 (只存放List<T>)
+         *
+         * @param level 层级
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private List<T> getParentList(final int level) {
+            return (List<T>) parentLists[level];
+        }
+
+        /**
+         * 获取层级所对应的父元素 (只存放T类型的元素)
+         *
+         * @param level 层级
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private T getParent(final int level) {
+            return (T) parents[level];
+        }
+
+        /**
+         * 只读的父级列表视图 (按层级依次为各级父元素)
+         */
+        private final class ParentList extends AbstractList<T> implements RandomAccess {
+
+            private final int size;
+
+            ParentList(final int size) {
+                this.size = size;
             }
 
-            for (T child : children) {
-                recursionEach(child, source, getChildrenFunction, currentParentList, level + 1, callback, withParentList);
+            @Override
+            public T get(final int index) {
+                if (index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return getParent(index);
             }
-        } finally {
-            if (currentParentList != null) {
-                currentParentList.clear();
+
+            @Override
+            public int size() {
+                return size;
             }
         }
     }
 
-    interface EachCallback<T> {
+    /**
+     * 递归遍历的回调
+     * <p>
+     * 注：启用父级列表时，父级列表默认为复用的只读视图(之前版本为可修改的副本)，
+     * 修改会抛出UnsupportedOperationException且回调后不再有效；需要在回调后保留时开启{@link #withParentListSnapshot()}，需要修改时请自行复制
+     *
+     * @param <T> 源数据类型
+     */
+    public interface EachCallback<T> {
 
         /**
          * 是否启用父级列表，默认不启用，如有需要进行开启
@@ -116,6 +498,17 @@ public class HierarchyEachUtils {
             return false;
         }
 
+        /**
+         * 启用父级列表时是否使用父级列表的副本，默认不使用
+         * <p>
+         * 未使用时父级列表为复用的只读视图，只在当前元素及其子元素的回调期间有效；如需在回调后保留父级列表进行开启
+         *
+         * @return boolean值
+         */
+        default boolean withParentListSnapshot() {
+            return false;
+        }
+
         /**
          * 遍历前执行自定义逻辑
          * <p>
@@ -133,10 +526,83 @@ public class HierarchyEachUtils {
          * @param level            层级
          * @param current          当前元素 不为Null
          * @param parent           直属父级元素 非根元素时不为Null
-         * @param parentList       父级列表 启用父级列表后且非根元素时不为Null，反之一直为Null
+         * @param parentList       父级列表 启用父级列表后且非根元素时不为Null(只读)，反之一直为Null
          * @param children         当前子级列表 可能为Null，存在子级列表时一定是不为Null且个数大于0的列表
          * @param hasExistChildren 是否存在子级列表
          */
         void each(int level, T current, T parent, List<T> parentList, List<T> children, boolean hasExistChildren);
+
+        /**
+         * 遍历执行自定义逻辑并返回之后的处理方式，默认执行each并继续遍历
+         *
+         * @param level            层级
+         * @param current          当前元素 不为Null
+         * @param parent           直属父级元素 非根元素时不为Null
+         * @param parentList       父级列表 启用父级列表后且非根元素时不为Null(只读)，反之一直为Null
+         * @param children         当前子级列表 可能为Null，存在子级列表时一定是不为Null且个数大于0的列表
+         * @param hasExistChildren 是否存在子级列表
+         * @return 之后的处理方式 不能为Null
+         * @see EachResultCallback
+         */
+        default EachResult eachWithResult(int level, T current, T parent, List<T> parentList, List<T> children, boolean hasExistChildren) {
+            each(level, current, parent, parentList, children, hasExistChildren);
+            return EachResult.CONTINUE;
+        }
+    }
+
+    /**
+     * 后序遍历的回调
+     *
+     * @param <T> 源数据类型
+     * @param <A> 处理结果类型
+     */
+    @FunctionalInterface
+    public interface AfterChildrenCallback<T, A> {
+
+        /**
+         * 子元素全部处理后处理当前元素
+         *
+         * @param level           层级
+         * @param current         当前元素 不为Null
+         * @param parent          直属父级元素 非根元素时不为Null
+         * @param childrenResults 各子元素的处理结果 不为Null(只读)，与子级列表的顺序一致，不存在子元素时为空列表；只在当前回调期间有效
+         * @return 当前元素的处理结果
+         */
+        A afterChildren(int level, T current, T parent, List<A> childrenResults);
+    }
+
+    /**
+     * 按层级遍历的回调
+     *
+     * @param <T> 源数据类型
+     */
+    @FunctionalInterface
+    public interface LevelCallback<T> {
+
+        /**
+         * 处理同一层级的全部元素
+         *
+         * @param level 层级
+         * @param nodes 该层级的全部元素 不为Null且个数大于0的列表，按父级元素的顺序依次为各父级元素的子元素，第一层级时为源数据列表
+         */
+        void onLevel(int level, List<T> nodes);
+    }
+
+    /**
+     * 可控制遍历的回调 (可跳过子元素或提前终止遍历)
+     * <p>
+     * 跳过子元素时其子元素均不再遍历，终止时不再遍历剩余的全部元素
+     *
+     * @param <T> 源数据类型
+     */
+    public interface EachResultCallback<T> extends EachCallback<T> {
+
+        @Override
+        default void each(int level, T current, T parent, List<T> parentList, List<T> children, boolean hasExistChildren) {
+            eachWithResult(level, current, parent, parentList, children, hasExistChildren);
+        }
+
+        @Override
+        EachResult eachWithResult(int level, T current, T parent, List<T> parentList, List<T> children, boolean hasExistChildren);
     }
 }
@@ -0,0 +1,263 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 按先序依次返回打平数据的迭代器
+ * <p>
+ * 只在获取元素时进行遍历及转换,停止迭代后不再处理其余元素;
+ * 跳过元素时按子树元素个数整体跳过子树(首次跳过时计算子树元素个数),适用于分页获取打平的数据
+ * <p>
+ * 通过 HierarchyFlatUtils.getHierarchyFlatIterator 获取时每次都会重新建立子元素索引及计算子树元素个数,
+ * 多次分页时可通过 {@link HierarchyIndex#getDescendantIterator(Object)} 获取以复用
+ *
+ * @param <R> 结果类型
+ */
+public final class HierarchyFlatIterator<R> implements Iterator<R> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * 元素的子元素索引
+     */
+    private final HierarchyChildrenIndex<?> childrenIndex;
+
+    /**
+     * 开始元素下标 (第一层级的元素)
+     */
+    private final int[] startIndexes;
+
+    /**
+     * 通过元素下标获取结果的函数
+     */
+    private final IntFunction<R> resultFunction;
+
+    /**
+     * 最大层级(开始元素为1),为1时只返回开始元素
+     */
+    private final int maxDepth;
+
+    /**
+     * 接收最大层级中仍存在子元素的元素及其子元素个数的回调,可为Null
+     */
+    private final ObjIntConsumer<R> truncatedConsumer;
+
+    /**
+     * 获取各元素子树元素个数的函数
+     */
+    private final Supplier<int[]> subtreeSizesSupplier;
+
+    /**
+     * 各元素的子树元素个数,首次跳过时获取
+     */
+    private int[] subtreeSizes;
+
+    /**
+     * 首个结果 (root元素), 不存在或已返回时为Null
+     */
+    private R head;
+
+    /**
+     * 各深度的当前位置及结束位置,深度0为开始元素下标的位置,其余为子元素索引的位置
+     */
+    private int[] positions = new int[INITIAL_CAPACITY];
+
+    private int[] ends = new int[INITIAL_CAPACITY];
+
+    /**
+     * 当前深度
+     */
+    private int depth;
+
+    /**
+     * 剩余可返回的元素个数
+     */
+    private long remaining = Long.MAX_VALUE;
+
+    /**
+     * 最后返回元素的层级
+     */
+    private int level = -1;
+
+    HierarchyFlatIterator(final HierarchyChildrenIndex<?> childrenIndex, final int[] startIndexes, final int startCount
+            , final R head, final IntFunction<R> resultFunction
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer
+            , final Supplier<int[]> subtreeSizesSupplier) {
+        this.childrenIndex = childrenIndex;
+        this.startIndexes = startIndexes;
+        this.head = head;
+        this.resultFunction = resultFunction;
+        this.maxDepth = maxDepth;
+        this.truncatedConsumer = truncatedConsumer;
+        this.subtreeSizesSupplier = subtreeSizesSupplier;
+        this.ends[0] = startCount;
+    }
+
+    /**
+     * 跳过元素 (跳过子树时不进行遍历及转换)
+     *
+     * @param n 跳过的元素个数,不能为负数
+     * @return 当前迭代器
+     */
+    public HierarchyFlatIterator<R> skip(long n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("skip must be not negative");
+        }
+        if (n > 0 && head != null) {
+            head = null;
+            n--;
+        }
+        while (n > 0 && hasNextIndex()) {
+            int index = getIndex(depth, positions[depth]);
+            int subtreeSize = maxDepth > 1 ? getSubtreeSizes()[index] : 1;
+            if (subtreeSize <= n) {
+                //整体跳过子树
+                positions[depth]++;
+                n -= subtreeSize;
+            } else {
+                //跳过当前元素并进入其子元素(子树元素个数大于1时未超过最大层级)
+                positions[depth]++;
+                pushChildren(index);
+                n--;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 限制剩余可返回的元素个数
+     *
+     * @param maxSize 剩余可返回的元素个数,不能为负数
+     * @return 当前迭代器
+     */
+    public HierarchyFlatIterator<R> limit(final long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("limit must be not negative");
+        }
+        this.remaining = maxSize;
+        return this;
+    }
+
+    /**
+     * 将剩余的元素放入列表中返回
+     *
+     * @return
+     */
+    public List<R> toList() {
+        List<R> results = new ArrayList<>((int) Math.min(remaining, 64));
+        forEachRemaining(results::add);
+        return results;
+    }
+
+    /**
+     * 获取最后返回元素的层级
+     *
+     * @return root元素为0,第一层级的元素为1,未返回元素时为-1
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0 && (head != null || hasNextIndex());
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        if (head != null) {
+            R result = head;
+            head = null;
+            level = 0;
+            return result;
+        }
+        int index = getIndex(depth, positions[depth]++);
+        level = depth + 1;
+        R result = resultFunction.apply(index);
+        if (level < maxDepth) {
+            pushChildren(index);
+        } else if (truncatedConsumer != null) {
+            //最大层级的元素不再处理子元素
+            int size = childrenIndex.getChildrenEnd(index) - childrenIndex.getChildrenStart(index);
+            if (size > 0) {
+                truncatedConsumer.accept(result, size);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否存在下一个元素下标 (并退出已全部遍历的深度)
+     *
+     * @return
+     */
+    private boolean hasNextIndex() {
+        while (positions[depth] >= ends[depth]) {
+            if (depth == 0) {
+                return false;
+            }
+            depth--;
+        }
+        return true;
+    }
+
+    private int getIndex(final int depth, final int position) {
+        return depth == 0 ? startIndexes[position] : childrenIndex.getChildIndex(position);
+    }
+
+    /**
+     * 进入元素的子元素
+     *
+     * @param index 元素下标
+     */
+    private void pushChildren(final int index) {
+        int start = childrenIndex.getChildrenStart(index);
+        int end = childrenIndex.getChildrenEnd(index);
+        if (start == end) {
+            return;
+        }
+        if (++depth == positions.length) {
+            int capacity = positions.length << 1;
+            positions = Arrays.copyOf(positions, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        positions[depth] = start;
+        ends[depth] = end;
+    }
+
+    private int[] getSubtreeSizes() {
+        if (subtreeSizes == null) {
+            subtreeSizes = subtreeSizesSupplier.get();
+        }
+        return subtreeSizes;
+    }
+
+}
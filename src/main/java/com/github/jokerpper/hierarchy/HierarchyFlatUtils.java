@@ -18,7 +18,9 @@
 package com.github.jokerpper.hierarchy;
 
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -31,6 +33,22 @@ public class HierarchyFlatUtils {
     private HierarchyFlatUtils() {
     }
 
+    /**
+     * 返回全部子元素时的结果顺序
+     */
+    public enum FlatOrder {
+
+        /**
+         * 先序: 各元素之后紧跟其全部子元素
+         */
+        PRE_ORDER,
+
+        /**
+         * 层序: 按层级依次返回,同一层级按父元素的顺序
+         */
+        LEVEL_ORDER
+    }
+
     public static class HierarchyFlatFunctions<T, V, R> {
 
         /**
@@ -87,6 +105,43 @@ public class HierarchyFlatUtils {
          */
         private Supplier<Boolean> isWithRoot;
 
+        /**
+         * 是否只对同级元素进行排序
+         * 可选,默认false,开启且存在比较器时不再对筛选后的源数据列表整体排序,而是在建立子元素索引后分别对各父元素的子元素进行排序(结果一致)
+         */
+        private Supplier<Boolean> isSortSiblings;
+
+        /**
+         * 最大层级
+         * 可选,root的直接子元素为1,未指定时不限制,返回全部子元素时不再返回超过该层级的元素
+         */
+        private Supplier<Integer> maxDepth;
+
+        /**
+         * 接收最大层级中仍存在子元素的元素及其子元素个数的回调
+         * 可选,指定maxDepth时有效
+         */
+        private ObjIntConsumer<R> truncatedConsumer;
+
+        /**
+         * 是否直接使用源数据列表
+         * 可选,默认false,开启且未指定getChildrenFunction及filterPredicate时不再复制源数据列表,直接通过源数据列表进行处理:
+         * 存在比较器且未开启isSortSiblings时会对源数据列表原地排序(需支持set),处理期间不能修改源数据列表,处理后源数据列表不会被清空
+         */
+        private Supplier<Boolean> isUseSourceList;
+
+        /**
+         * 结果顺序
+         * 可选,未指定时为默认顺序(返回全部子元素时各子元素的子元素在其之前,root元素最后插入到开始位置)
+         */
+        private FlatOrder flatOrder;
+
+        /**
+         * 接收结果元素及其层级的回调
+         * 可选,指定flatOrder时有效,root元素为0,root的直接子元素为1,回调顺序与结果顺序一致
+         */
+        private ObjIntConsumer<R> levelConsumer;
+
         public Function<V, Boolean> getIsRootFunction() {
             return isRootFunction;
         }
@@ -158,13 +213,61 @@ public class HierarchyFlatUtils {
         public void setIsWithRoot(Supplier<Boolean> isWithRoot) {
             this.isWithRoot = isWithRoot;
         }
+
+        public Supplier<Boolean> getIsSortSiblings() {
+            return isSortSiblings;
+        }
+
+        public void setIsSortSiblings(Supplier<Boolean> isSortSiblings) {
+            this.isSortSiblings = isSortSiblings;
+        }
+
+        public Supplier<Integer> getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(Supplier<Integer> maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public ObjIntConsumer<R> getTruncatedConsumer() {
+            return truncatedConsumer;
+        }
+
+        public void setTruncatedConsumer(ObjIntConsumer<R> truncatedConsumer) {
+            this.truncatedConsumer = truncatedConsumer;
+        }
+
+        public Supplier<Boolean> getIsUseSourceList() {
+            return isUseSourceList;
+        }
+
+        public void setIsUseSourceList(Supplier<Boolean> isUseSourceList) {
+            this.isUseSourceList = isUseSourceList;
+        }
+
+        public FlatOrder getFlatOrder() {
+            return flatOrder;
+        }
+
+        public void setFlatOrder(FlatOrder flatOrder) {
+            this.flatOrder = flatOrder;
+        }
+
+        public ObjIntConsumer<R> getLevelConsumer() {
+            return levelConsumer;
+        }
+
+        public void setLevelConsumer(ObjIntConsumer<R> levelConsumer) {
+            this.levelConsumer = levelConsumer;
+        }
     }
 
     /**
      * 将源数据列表中相关符合的数据列表进行返回 (同时支持树形数据的元素)
      * <p>
      * 若开启返回root元素,则root元素默认为第一个元素
-     * 若有设置返回全部子元素时会导致结果乱序
+     * 若有设置返回全部子元素时会导致结果乱序 (可通过flatOrder指定为先序或层序)
      * <p>
      *
      * <p>
@@ -188,7 +291,7 @@ public class HierarchyFlatUtils {
      * 将源数据列表中相关符合的数据列表进行返回 (同时支持树形数据的元素)
      * <p>
      * 若开启返回root元素,则root元素默认为第一个元素
-     * 若有设置返回全部子元素时会导致结果乱序
+     * 若有设置返回全部子元素时会导致结果乱序 (可通过flatOrder指定为先序或层序)
      * <p>
      *
      * <p>
@@ -197,7 +300,7 @@ public class HierarchyFlatUtils {
      *
      * @param sourceList 源数据列表，不能存在为Null的子元素
      * @param functions  函数
-     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
      * @param <T>        源数据类型
      * @param <R>        转换结果类型
      * @param <V>        ID属性类型
@@ -207,107 +310,483 @@ public class HierarchyFlatUtils {
     public static <T, R, V> List<R> getHierarchyFlatResult(final List<T> sourceList,
                                                            final HierarchyFlatFunctions<T, V, R> functions,
                                                            final Comparator<T> comparator) {
+        return getHierarchyFlatResult(sourceList, functions, comparator, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 将源数据列表中相关符合的数据列表进行返回
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param workspace  构建时所使用的缓冲区
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 转换结果
+     * @see HierarchyBuilder
+     */
+    static <T, R, V> List<R> getHierarchyFlatResult(final List<T> sourceList, final HierarchyFlatFunctions<T, V, R> functions
+            , final Comparator<T> comparator, final HierarchyWorkspace workspace) {
+        return getHierarchyFlatPlan(functions, comparator).build(sourceList, workspace);
+    }
+
+    /**
+     * 获取返回打平数据的计划 (读取并检查函数,之后不再读取functions)
+     *
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 计划
+     * @see HierarchyPlan
+     */
+    static <T, R, V> HierarchyPlan<T, R> getHierarchyFlatPlan(final HierarchyFlatFunctions<T, V, R> functions, final Comparator<T> comparator) {
         //检查参数
         Objects.requireNonNull(functions, "functions must be not null");
-        Function<V, Boolean> isRootFunction = functions.getIsRootFunction();
-        Function<T, V> getPidFunction = functions.getGetPidFunction();
-        Function<T, V> getIdFunction = functions.getGetIdFunction();
-        Function<T, List<T>> getChildrenFunction = functions.getGetChildrenFunction();
-        Function<T, R> transferFunction = functions.getTransferFunction();
-        Predicate<T> filterPredicate = functions.getFilterPredicate();
+        return new HierarchyPlan<>(new FlatPlan<>(functions, comparator));
+    }
 
-        Objects.requireNonNull(isRootFunction, "is root function must be not null");
-        Objects.requireNonNull(getPidFunction, "get pid function must be not null");
-        Objects.requireNonNull(getIdFunction, "get id function must be not null");
 
-        //是否启用转换
-        boolean isEnableTransfer = HierarchyHelper.getBooleanValue(functions.getIsEnableTransfer(), transferFunction != null);
-        if (isEnableTransfer) {
-            Objects.requireNonNull(transferFunction, "when enable transfer, transfer function must be not null");
-        }
+    /**
+     * 返回打平数据的计划
+     * <p>
+     * 创建时读取并检查函数及各选项,构建时按确定的选项直接处理(不再读取functions),创建后不可变
+     *
+     * @param <T>
+     * @param <R>
+     * @param <V>
+     */
+    private static final class FlatPlan<T, R, V> implements BiFunction<List<T>, HierarchyWorkspace, List<R>> {
 
-        //是否返回全部的子元素(未设置时默认false)
-        boolean isWithAllChildren = HierarchyHelper.getBooleanValue(functions.getIsWithAllChildren(), false);
-        //是否返回root元素(未设置时默认false,开启时root元素必须存在)
-        boolean isWithRoot = HierarchyHelper.getBooleanValue(functions.getIsWithRoot(), false);
+        private final Function<V, Boolean> isRootFunction;
 
-        //检查数据是否为空
-        if (sourceList == null || sourceList.isEmpty()) {
-            return Collections.emptyList();
-        }
+        private final Function<T, V> getPidFunction;
 
-        List<T> toResolveSourceList = null;
-        Map<V, List<T>> toResolveSourceIdChildrenMap = null;
+        private final Function<T, V> getIdFunction;
 
-        try {
-            //获取当前要处理的元素列表
-            toResolveSourceList = HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate);
+        private final Function<T, List<T>> getChildrenFunction;
 
-            //进行排序数据列表
-            if (comparator != null && toResolveSourceList.size() > 1) {
-                Collections.sort(toResolveSourceList, comparator);
+        private final Predicate<T> filterPredicate;
+
+        private final boolean isUseSourceList;
+
+        /**
+         * 转换函数,不启用转换时为Null
+         */
+        private final Function<T, R> transferFunction;
+
+        private final boolean isWithAllChildren;
+
+        private final boolean isWithRoot;
+
+        private final Comparator<T> comparator;
+
+        private final boolean isSortSiblings;
+
+        private final FlatOrder flatOrder;
+
+        private final ObjIntConsumer<R> levelConsumer;
+
+        private final int maxDepth;
+
+        private final ObjIntConsumer<R> truncatedConsumer;
+
+        FlatPlan(final HierarchyFlatFunctions<T, V, R> functions, final Comparator<T> comparator) {
+            Function<T, R> transferFunction = functions.getTransferFunction();
+            this.isRootFunction = Objects.requireNonNull(functions.getIsRootFunction(), "is root function must be not null");
+            this.getPidFunction = Objects.requireNonNull(functions.getGetPidFunction(), "get pid function must be not null");
+            this.getIdFunction = Objects.requireNonNull(functions.getGetIdFunction(), "get id function must be not null");
+
+            //是否启用转换
+            boolean isEnableTransfer = HierarchyHelper.getBooleanValue(functions.getIsEnableTransfer(), transferFunction != null);
+            if (isEnableTransfer) {
+                Objects.requireNonNull(transferFunction, "when enable transfer, transfer function must be not null");
             }
 
-            //获取元素id所对应的子元素(但不包含root pid)
-            toResolveSourceIdChildrenMap = HierarchyHelper.initAndGetIdChildrenResultMap(toResolveSourceList, getIdFunction, getPidFunction, isRootFunction);
+            this.getChildrenFunction = functions.getGetChildrenFunction();
+            this.filterPredicate = functions.getFilterPredicate();
+            this.isUseSourceList = HierarchyHelper.getBooleanValue(functions.getIsUseSourceList(), false);
+            this.transferFunction = isEnableTransfer ? transferFunction : null;
+            //是否返回全部的子元素(未设置时默认false)
+            this.isWithAllChildren = HierarchyHelper.getBooleanValue(functions.getIsWithAllChildren(), false);
+            //是否返回root元素(未设置时默认false,开启时root元素必须存在)
+            this.isWithRoot = HierarchyHelper.getBooleanValue(functions.getIsWithRoot(), false);
+            this.comparator = comparator;
+            //是否只对同级元素进行排序(未设置时默认false)
+            this.isSortSiblings = comparator != null && HierarchyHelper.getBooleanValue(functions.getIsSortSiblings(), false);
+            //结果顺序(未设置时为默认顺序)
+            this.flatOrder = functions.getFlatOrder();
+            this.levelConsumer = functions.getLevelConsumer();
+            //最大层级(未设置时不限制)
+            this.maxDepth = HierarchyHelper.getMaxDepth(functions.getMaxDepth());
+            this.truncatedConsumer = functions.getTruncatedConsumer();
+        }
 
-            //处理数据
-            List<R> rootList = isWithRoot ? new ArrayList<>(2) : null;
-            List<R> results = new ArrayList<>(1024);
+        @Override
+        public List<R> apply(final List<T> sourceList, final HierarchyWorkspace workspace) {
+            //检查数据是否为空
+            if (sourceList == null || sourceList.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<T> toResolveSourceList = null;
 
-            if (!isEnableTransfer) {
-                for (T toResolveSource : toResolveSourceList) {
-                    resolveHierarchyWithoutEnableTransfer(results, toResolveSource
-                            , toResolveSourceIdChildrenMap, rootList
-                            , isRootFunction, getPidFunction
-                            , getIdFunction, isWithAllChildren);
+            try {
+                //获取当前要处理的元素列表
+                toResolveSourceList = HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate
+                        , isUseSourceList, workspace.getSourceList());
+
+                //进行排序数据列表
+                if (comparator != null && !isSortSiblings && toResolveSourceList.size() > 1) {
+                    HierarchySortUtils.sortList(toResolveSourceList, comparator);
                 }
-            } else {
-                for (T toResolveSource : toResolveSourceList) {
-                    R transferResult = HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
-                    resolveHierarchyWithEnableTransfer(results, toResolveSource, transferResult
-                            , toResolveSourceIdChildrenMap, rootList
-                            , isRootFunction, getPidFunction
-                            , getIdFunction, transferFunction
-                            , isWithAllChildren);
+
+                //获取元素所对应的子元素索引(但不包含root)
+                HierarchyChildrenIndex<T> childrenIndex = HierarchyChildrenIndex.of(toResolveSourceList
+                        , HierarchyChildrenIndex.getIds(toResolveSourceList, getIdFunction, workspace)
+                        , getPidFunction, isRootFunction, workspace.getSlotMap(), workspace);
+
+                //元素的处理顺序,为Null时按下标顺序
+                int[] order = null;
+                if (isSortSiblings) {
+                    //分别对各父元素的子元素进行排序,root的直接子元素按排序后的顺序处理
+                    childrenIndex.sortChildren(comparator, null);
+                    order = HierarchyHelper.getSortedResolveOrder(childrenIndex, childrenIndex::isRootDirectChild, comparator);
                 }
-            }
 
-            if (!isWithRoot) {
-                //不包含root时直接返回
+                if (flatOrder != null) {
+                    //按指定顺序处理(结果已包含root元素)
+                    List<R> results = resolveHierarchyWithOrder(childrenIndex, order
+                            , transferFunction
+                            , isWithAllChildren, isWithRoot
+                            , flatOrder, levelConsumer
+                            , maxDepth, truncatedConsumer);
+
+                    //记录结果个数,用于下次构建时的初始容量
+                    workspace.setResultSize(results.size());
+                    return results;
+                }
+
+                //处理数据
+                List<R> rootList = isWithRoot ? new ArrayList<>(2) : null;
+                List<R> results = new ArrayList<>(workspace.getResultCapacity(1024));
+                int size = childrenIndex.size();
+
+                if (transferFunction == null) {
+                    for (int i = 0; i < size; i++) {
+                        resolveHierarchyWithoutEnableTransfer(results, order == null ? i : order[i]
+                                , childrenIndex, rootList
+                                , isWithAllChildren
+                                , maxDepth, truncatedConsumer);
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        resolveHierarchyWithEnableTransfer(results, order == null ? i : order[i]
+                                , childrenIndex, rootList
+                                , transferFunction, isWithAllChildren
+                                , maxDepth, truncatedConsumer);
+                    }
+                }
+
+                //记录结果个数,用于下次构建时的初始容量
+                workspace.setResultSize(results.size() + 1);
+
+                if (!isWithRoot) {
+                    //不包含root时直接返回
+                    return results;
+                }
+
+                //检查rootList是否合法
+                HierarchyHelper.checkRootList(rootList);
+
+                //将root元素添加到开始位置
+                results.addAll(0, rootList);
+
                 return results;
+            } finally {
+
+                //直接使用源数据列表时不进行清空
+                if (toResolveSourceList != null && toResolveSourceList != sourceList) {
+                    toResolveSourceList.clear();
+                }
+                workspace.clear();
+
+            }
+        }
+
+        /**
+         * 获取按先序依次返回打平数据的迭代器 (不使用flatOrder及levelConsumer)
+         *
+         * @param sourceList 源数据列表，不能存在为Null的子元素
+         * @return 迭代器
+         */
+        HierarchyFlatIterator<R> iterator(final List<T> sourceList) {
+            //获取当前要处理的元素列表(数据为空时为空列表)
+            boolean isEmpty = sourceList == null || sourceList.isEmpty();
+            List<T> toResolveSourceList = isEmpty ? new ArrayList<>(0)
+                    : HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate, isUseSourceList);
+
+            //进行排序数据列表
+            if (comparator != null && !isSortSiblings && toResolveSourceList.size() > 1) {
+                HierarchySortUtils.sortList(toResolveSourceList, comparator);
+            }
+
+            //获取元素所对应的子元素索引(但不包含root)
+            HierarchyChildrenIndex<T> childrenIndex = HierarchyChildrenIndex.of(toResolveSourceList, getIdFunction, getPidFunction, isRootFunction);
+
+            int[] order = null;
+            if (isSortSiblings) {
+                //分别对各父元素的子元素进行排序,root的直接子元素按排序后的顺序处理
+                childrenIndex.sortChildren(comparator, null);
+                order = HierarchyHelper.getSortedResolveOrder(childrenIndex, childrenIndex::isRootDirectChild, comparator);
             }
 
+            //确定root及root的直接子元素
+            List<R> rootList = isWithRoot && !isEmpty ? new ArrayList<>(2) : null;
+            int[] directChildIndexes = new int[childrenIndex.size()];
+            int count = resolveRootAndDirectChildren(childrenIndex, order
+                    , transferFunction, rootList, directChildIndexes);
+            if (rootList != null) {
+                //检查rootList是否合法
+                HierarchyHelper.checkRootList(rootList);
+            }
+
+            //不返回全部的子元素时只返回root的直接子元素
+            int iteratorMaxDepth = isWithAllChildren ? maxDepth : 1;
+            return new HierarchyFlatIterator<>(childrenIndex, directChildIndexes, count
+                    , rootList == null ? null : rootList.get(0)
+                    , index -> getResult(transferFunction, childrenIndex.getElement(index))
+                    , iteratorMaxDepth, isWithAllChildren ? truncatedConsumer : null
+                    , () -> childrenIndex.getSubtreeSizes(directChildIndexes, count, iteratorMaxDepth - 1));
+        }
+    }
+
+    /**
+     * 获取按先序依次返回打平数据的迭代器 (同时支持树形数据的元素)
+     * <p>
+     * 结果顺序与指定flatOrder为PRE_ORDER时一致 (不使用flatOrder及levelConsumer,最大层级中仍存在子元素的元素只在返回时回调),
+     * 创建时建立元素的子元素索引,但只在迭代时进行遍历及转换,可通过skip及limit进行分页
+     * <p>
+     * 注: 每次调用都会重新建立子元素索引,且首次跳过时计算全部子树元素个数(每页均为O(n));
+     * 同一份数据多次分页时请通过 {@link HierarchyIndex#getDescendantIterator(Object)} 复用子元素索引及子树元素个数(不进行转换)
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 迭代器
+     * @see HierarchyFlatIterator
+     */
+    public static <T, R, V> HierarchyFlatIterator<R> getHierarchyFlatIterator(final List<T> sourceList,
+                                                                             final HierarchyFlatFunctions<T, V, R> functions) {
+        return getHierarchyFlatIterator(sourceList, functions, null);
+    }
+
+    /**
+     * 获取按先序依次返回打平数据的迭代器 (同时支持树形数据的元素)
+     * <p>
+     * 结果顺序与指定flatOrder为PRE_ORDER时一致 (不使用flatOrder及levelConsumer,最大层级中仍存在子元素的元素只在返回时回调),
+     * 创建时建立元素的子元素索引,但只在迭代时进行遍历及转换,可通过skip及limit进行分页
+     * <p>
+     * 注: 每次调用都会重新建立子元素索引,且首次跳过时计算全部子树元素个数(每页均为O(n));
+     * 同一份数据多次分页时请通过 {@link HierarchyIndex#getDescendantIterator(Object)} 复用子元素索引及子树元素个数(不进行转换)
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 迭代器
+     * @see HierarchyFlatIterator
+     */
+    public static <T, R, V> HierarchyFlatIterator<R> getHierarchyFlatIterator(final List<T> sourceList,
+                                                                             final HierarchyFlatFunctions<T, V, R> functions,
+                                                                             final Comparator<T> comparator) {
+        //检查参数
+        Objects.requireNonNull(functions, "functions must be not null");
+        return new FlatPlan<>(functions, comparator).iterator(sourceList);
+    }
+
+    /**
+     * 按指定顺序处理数据
+     * <p>
+     * 先确定root及root的直接子元素,root元素(启用root时)放入开始位置后再依次添加其余元素
+     *
+     * @param childrenIndex
+     * @param order             元素的处理顺序,为Null时按下标顺序
+     * @param transferFunction  转换函数,不启用转换时为Null
+     * @param isWithAllChildren
+     * @param isWithRoot
+     * @param flatOrder         结果顺序
+     * @param levelConsumer     接收结果元素及其层级的回调,可为Null
+     * @param maxDepth          最大层级(root的直接子元素为1)
+     * @param truncatedConsumer 接收最大层级中仍存在子元素的元素及其子元素个数的回调,可为Null
+     * @param <T>
+     * @param <R>
+     * @return
+     */
+    private static <T, R> List<R> resolveHierarchyWithOrder(final HierarchyChildrenIndex<T> childrenIndex, final int[] order
+            , final Function<T, R> transferFunction
+            , final boolean isWithAllChildren, final boolean isWithRoot
+            , final FlatOrder flatOrder, final ObjIntConsumer<R> levelConsumer
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer) {
+        int size = childrenIndex.size();
+        List<R> rootList = isWithRoot ? new ArrayList<>(2) : null;
+        int[] directChildIndexes = new int[size];
+        int count = resolveRootAndDirectChildren(childrenIndex, order
+                , transferFunction, rootList, directChildIndexes);
+
+        List<R> results = new ArrayList<>(isWithAllChildren ? size : count + 1);
+        if (isWithRoot) {
             //检查rootList是否合法
             HierarchyHelper.checkRootList(rootList);
+            //root元素作为第一个元素
+            addResult(results, rootList.get(0), 0, levelConsumer);
+        }
 
-            //将root元素添加到开始位置
-            results.addAll(0, rootList);
+        if (!isWithAllChildren) {
+            for (int i = 0; i < count; i++) {
+                addResult(results, getResult(transferFunction, childrenIndex.getElement(directChildIndexes[i])), 1, levelConsumer);
+            }
+            return results;
+        }
 
+        if (flatOrder == FlatOrder.PRE_ORDER) {
+            HierarchyTraversal.IndexVisitor visitor = new HierarchyTraversal.IndexVisitor() {
+                @Override
+                public void enter(int index, int depth) {
+                    R result = getResult(transferFunction, childrenIndex.getElement(index));
+                    addResult(results, result, depth + 1, levelConsumer);
+                    if (depth + 1 == maxDepth) {
+                        resolveTruncated(childrenIndex, index, result, truncatedConsumer);
+                    }
+                }
+            };
+            for (int i = 0; i < count; i++) {
+                HierarchyTraversal.each(childrenIndex, directChildIndexes[i], maxDepth - 1, visitor);
+            }
             return results;
-        } finally {
+        }
 
-            if (toResolveSourceList != null) {
-                toResolveSourceList.clear();
+        //层序: 依次处理当前层级的元素并获取下一层级的元素
+        int[] levelIndexes = directChildIndexes;
+        int[] nextLevelIndexes = new int[size];
+        for (int level = 1; count > 0; level++) {
+            int nextCount = 0;
+            for (int i = 0; i < count; i++) {
+                int index = levelIndexes[i];
+                R result = getResult(transferFunction, childrenIndex.getElement(index));
+                addResult(results, result, level, levelConsumer);
+                if (level == maxDepth) {
+                    //最大层级的元素不再处理子元素
+                    resolveTruncated(childrenIndex, index, result, truncatedConsumer);
+                    continue;
+                }
+                int end = childrenIndex.getChildrenEnd(index);
+                for (int position = childrenIndex.getChildrenStart(index); position < end; position++) {
+                    nextLevelIndexes[nextCount++] = childrenIndex.getChildIndex(position);
+                }
             }
+            int[] swapIndexes = levelIndexes;
+            levelIndexes = nextLevelIndexes;
+            nextLevelIndexes = swapIndexes;
+            count = nextCount;
+        }
+        return results;
+    }
 
-            if (toResolveSourceIdChildrenMap != null) {
-                toResolveSourceIdChildrenMap.clear();
+    /**
+     * 确定root(启用root时放入rootList)及root的直接子元素
+     *
+     * @param childrenIndex
+     * @param order              元素的处理顺序,为Null时按下标顺序
+     * @param transferFunction   转换函数,不启用转换时为Null
+     * @param rootList           不启用root时为Null
+     * @param directChildIndexes 用于存放root直接子元素下标的数组
+     * @param <T>
+     * @param <R>
+     * @return root直接子元素的个数
+     */
+    private static <T, R> int resolveRootAndDirectChildren(final HierarchyChildrenIndex<T> childrenIndex, final int[] order
+            , final Function<T, R> transferFunction
+            , final List<R> rootList, final int[] directChildIndexes) {
+        int size = childrenIndex.size();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            int index = order == null ? i : order[i];
+            if (childrenIndex.isRoot(index)) {
+                //启用root时且当前元素为root放入rootList
+                if (rootList != null) {
+                    HierarchyHelper.addRoot(rootList, getResult(transferFunction, childrenIndex.getElement(index)));
+                }
+                continue;
             }
+            if (childrenIndex.isRootDirectChild(index)) {
+                directChildIndexes[count++] = index;
+            }
+        }
+        return count;
+    }
 
+    /**
+     * 元素存在子元素时回调其子元素个数
+     *
+     * @param childrenIndex
+     * @param index             元素下标
+     * @param result            元素的结果
+     * @param truncatedConsumer 可为Null
+     * @param <R>
+     */
+    private static <R> void resolveTruncated(final HierarchyChildrenIndex<?> childrenIndex, final int index, final R result
+            , final ObjIntConsumer<R> truncatedConsumer) {
+        int size = childrenIndex.getChildrenEnd(index) - childrenIndex.getChildrenStart(index);
+        if (size > 0 && truncatedConsumer != null) {
+            truncatedConsumer.accept(result, size);
         }
     }
 
+    /**
+     * 获取结果元素
+     *
+     * @param transferFunction 转换函数,为Null时不进行转换(此时R与T为同一类型)
+     * @param source           源数据
+     * @param <T>
+     * @param <R>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, R> R getResult(final Function<T, R> transferFunction, final T source) {
+        return transferFunction == null ? (R) source : HierarchyHelper.getTransferResult(transferFunction, source);
+    }
+
+    /**
+     * 添加结果元素并回调其层级
+     *
+     * @param results
+     * @param result
+     * @param level
+     * @param levelConsumer 可为Null
+     * @param <R>
+     */
+    private static <R> void addResult(final List<R> results, final R result, final int level, final ObjIntConsumer<R> levelConsumer) {
+        results.add(result);
+        if (levelConsumer != null) {
+            levelConsumer.accept(result, level);
+        }
+    }
 
-    private static <T, R, V> void resolveHierarchyWithoutEnableTransfer(final List<R> results, final T toResolveSource
-            , final Map<V, List<T>> toResolveSourceIdChildrenMap, final List<R> rootList
-            , final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
-            , final Function<T, V> getIdFunction, final boolean isWithAllChildren) {
-        V id = getIdFunction.apply(toResolveSource);
-        V pid = getPidFunction.apply(toResolveSource);
-        R transferResult = (R) toResolveSource;
-        boolean isRoot = isRootFunction.apply(id);
-        if (isRoot) {
+    private static <T, R> void resolveHierarchyWithoutEnableTransfer(final List<R> results, final int index
+            , final HierarchyChildrenIndex<T> childrenIndex, final List<R> rootList
+            , final boolean isWithAllChildren
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer) {
+        //未转换时R与T为同一类型
+        @SuppressWarnings("unchecked")
+        R transferResult = (R) childrenIndex.getElement(index);
+        if (childrenIndex.isRoot(index)) {
             //启用root时且当前元素为root放入rootList
             if (rootList != null) {
                 HierarchyHelper.addRoot(rootList, transferResult);
@@ -315,79 +794,144 @@ public class HierarchyFlatUtils {
             return;
         }
 
-        boolean isRootDirectChild = isRootFunction.apply(pid);
-        if (isRootDirectChild) {
+        if (childrenIndex.isRootDirectChild(index)) {
             //是root直接子元素时
             results.add(transferResult);
             //处理相关children
             if (isWithAllChildren) {
-                resolveWithAllChildren(results, toResolveSourceIdChildrenMap, getIdFunction, id);
+                resolveWithAllChildren(results, childrenIndex, index, maxDepth, truncatedConsumer);
             }
         }
     }
 
-    private static <T, R, V> void resolveHierarchyWithEnableTransfer(final List<R> results, final T toResolveSource, final R transferResult
-            , final Map<V, List<T>> toResolveSourceIdChildrenMap, final List<R> rootList
-            , final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
-            , final Function<T, V> getIdFunction, Function<T, R> transferFunction
-            , final boolean isWithAllChildren) {
+    private static <T, R> void resolveHierarchyWithEnableTransfer(final List<R> results, final int index
+            , final HierarchyChildrenIndex<T> childrenIndex, final List<R> rootList
+            , Function<T, R> transferFunction
+            , final boolean isWithAllChildren
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer) {
 
-        V id = getIdFunction.apply(toResolveSource);
-        V pid = getPidFunction.apply(toResolveSource);
-        boolean isRoot = isRootFunction.apply(id);
-        if (isRoot) {
+        T toResolveSource = childrenIndex.getElement(index);
+        if (childrenIndex.isRoot(index)) {
             //启用root时且当前元素为root放入rootList
             if (rootList != null) {
-                HierarchyHelper.addRoot(rootList, transferResult);
+                HierarchyHelper.addRoot(rootList, HierarchyHelper.getTransferResult(transferFunction, toResolveSource));
             }
             return;
         }
 
-        boolean isRootDirectChild = isRootFunction.apply(pid);
-        if (isRootDirectChild) {
-            //是root直接子元素时
+        if (childrenIndex.isRootDirectChild(index)) {
+            //是root直接子元素时才进行转换(子元素在处理children时转换,不可达的元素不转换)
+            R transferResult = HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
             results.add(transferResult);
 
             //处理相关children
             if (isWithAllChildren) {
-                resolveWithAllChildren(results, toResolveSourceIdChildrenMap
-                        , getIdFunction, transferFunction
-                        , id);
+                resolveWithAllChildren(results, childrenIndex
+                        , transferFunction
+                        , index, transferResult
+                        , maxDepth, truncatedConsumer);
             }
         }
     }
 
-    private static <T, R, V> void resolveWithAllChildren(final List<R> results, final Map<V, List<T>> toResolveSourceIdChildrenMap
-            , final Function<T, V> getIdFunction, final V id) {
-        List<T> currentSourceChildrenList = toResolveSourceIdChildrenMap.get(id);
-        if (currentSourceChildrenList != null && !currentSourceChildrenList.isEmpty()) {
-            for (T currentSourceChild : currentSourceChildrenList) {
-                //添加各子元素的子元素到结果中
-                resolveWithAllChildren(results, toResolveSourceIdChildrenMap, getIdFunction, getIdFunction.apply(currentSourceChild));
-            }
-            results.addAll((List<R>) currentSourceChildrenList);
+    /**
+     * 添加元素的全部子元素到结果中 (各子元素的子元素在其之前)
+     *
+     * @param results
+     * @param childrenIndex
+     * @param index
+     * @param maxDepth          最大层级(root的直接子元素为1)
+     * @param truncatedConsumer 可为Null
+     * @param <T>
+     * @param <R>
+     */
+    private static <T, R> void resolveWithAllChildren(final List<R> results, final HierarchyChildrenIndex<T> childrenIndex
+            , final int index
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer) {
+        if (childrenIndex.getChildrenStart(index) == childrenIndex.getChildrenEnd(index)) {
+            return;
         }
+        HierarchyTraversal.each(childrenIndex, index, maxDepth - 1, new HierarchyTraversal.IndexVisitor() {
+            //未转换时R与T为同一类型
+            @SuppressWarnings("unchecked")
+            @Override
+            public void exit(int currentIndex, int depth) {
+                if (depth + 1 == maxDepth) {
+                    //最大层级的元素不再处理子元素
+                    resolveTruncated(childrenIndex, currentIndex, (R) childrenIndex.getElement(currentIndex), truncatedConsumer);
+                    return;
+                }
+                //各子元素的子元素已添加,添加当前元素的子元素到结果中
+                int end = childrenIndex.getChildrenEnd(currentIndex);
+                for (int position = childrenIndex.getChildrenStart(currentIndex); position < end; position++) {
+                    results.add((R) childrenIndex.getElement(childrenIndex.getChildIndex(position)));
+                }
+            }
+        });
     }
 
-
-    private static <T, R, V> void resolveWithAllChildren(final List<R> results, final Map<V, List<T>> toResolveSourceIdChildrenMap
-            , final Function<T, V> getIdFunction
+    /**
+     * 添加元素转换后的全部子元素到结果中 (各子元素的子元素在其之前)
+     *
+     * @param results
+     * @param childrenIndex
+     * @param transferFunction
+     * @param index
+     * @param transferResult    元素转换后的结果
+     * @param maxDepth          最大层级(root的直接子元素为1)
+     * @param truncatedConsumer 可为Null
+     * @param <T>
+     * @param <R>
+     */
+    private static <T, R> void resolveWithAllChildren(final List<R> results, final HierarchyChildrenIndex<T> childrenIndex
             , final Function<T, R> transferFunction
-            , final V id) {
-        List<T> currentSourceChildrenList = toResolveSourceIdChildrenMap.get(id);
-        if (currentSourceChildrenList != null && !currentSourceChildrenList.isEmpty()) {
-            List<R> transferChildrenList = new ArrayList<>(currentSourceChildrenList.size());
-            for (T currentSourceChild : currentSourceChildrenList) {
-                //添加各子元素的子元素到结果中
-                resolveWithAllChildren(results, toResolveSourceIdChildrenMap
-                        , getIdFunction, transferFunction
-                        , getIdFunction.apply(currentSourceChild));
-                R transferChildResult = HierarchyHelper.getTransferResult(transferFunction, currentSourceChild);
-                transferChildrenList.add(transferChildResult);
-            }
-            results.addAll(transferChildrenList);
+            , final int index, final R transferResult
+            , final int maxDepth, final ObjIntConsumer<R> truncatedConsumer) {
+        if (childrenIndex.getChildrenStart(index) == childrenIndex.getChildrenEnd(index)) {
+            return;
         }
+        HierarchyTraversal.each(childrenIndex, index, maxDepth - 1, new HierarchyTraversal.IndexVisitor() {
+
+            /**
+             * 各深度元素转换后的子元素列表
+             */
+            private List<?>[] transferChildrenLists = new List<?>[16];
+
+            @Override
+            public void enter(int currentIndex, int depth) {
+                if (depth == transferChildrenLists.length) {
+                    transferChildrenLists = Arrays.copyOf(transferChildrenLists, depth << 1);
+                }
+                int size = childrenIndex.getChildrenEnd(currentIndex) - childrenIndex.getChildrenStart(currentIndex);
+                transferChildrenLists[depth] = size == 0 || depth + 1 == maxDepth ? null : new ArrayList<>(size);
+            }
+
+            @Override
+            public void exit(int currentIndex, int depth) {
+                List<R> transferChildrenList = getTransferChildrenList(depth);
+                if (transferChildrenList != null) {
+                    results.addAll(transferChildrenList);
+                    transferChildrenLists[depth] = null;
+                }
+                //各子元素的子元素已添加,转换当前元素并放入父级的子元素列表
+                R currentResult = depth > 0 ? HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(currentIndex)) : transferResult;
+                if (depth + 1 == maxDepth) {
+                    //最大层级的元素不再处理子元素
+                    resolveTruncated(childrenIndex, currentIndex, currentResult, truncatedConsumer);
+                }
+                if (depth > 0) {
+                    getTransferChildrenList(depth - 1).add(currentResult);
+                }
+            }
+
+            /**
+             * 获取深度所对应的转换后的子元素列表 (只存放R类型元素的列表)
+             */
+            @SuppressWarnings("unchecked")
+            private List<R> getTransferChildrenList(int depth) {
+                return (List<R>) transferChildrenLists[depth];
+            }
+        });
     }
 
 }
-
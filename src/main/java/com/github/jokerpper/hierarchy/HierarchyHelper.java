@@ -20,6 +20,7 @@ package com.github.jokerpper.hierarchy;
 import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -54,6 +55,57 @@ public class HierarchyHelper {
      * @return
      */
     static <T> List<T> getApplySourceList(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final Predicate<T> filterPredicate) {
+        return getApplySourceList(sourceList, getChildrenFunction, filterPredicate, false);
+    }
+
+    /**
+     * 通过sourceList、获取children函数和过滤条件获取匹配的结果列表
+     *
+     * @param sourceList          源数据列表
+     * @param getChildrenFunction 获取children函数,可选
+     * @param filterPredicate     过滤条件,可选
+     * @param isUseSourceList     是否直接使用源数据列表 (未指定获取children函数及过滤条件时有效)
+     * @param <T>
+     * @return 直接使用源数据列表时为sourceList本身
+     */
+    static <T> List<T> getApplySourceList(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction
+            , final Predicate<T> filterPredicate, final boolean isUseSourceList) {
+        return getApplySourceList(sourceList, getChildrenFunction, filterPredicate, isUseSourceList, null);
+    }
+
+    /**
+     * 通过sourceList、获取children函数和过滤条件获取匹配的结果列表
+     *
+     * @param sourceList          源数据列表
+     * @param getChildrenFunction 获取children函数,可选
+     * @param filterPredicate     过滤条件,可选
+     * @param isUseSourceList     是否直接使用源数据列表 (未指定获取children函数及过滤条件时有效)
+     * @param resultList          用于存放匹配元素的空列表,为Null时创建新的列表
+     * @param <T>
+     * @return 直接使用源数据列表时为sourceList本身
+     */
+    static <T> List<T> getApplySourceList(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction
+            , final Predicate<T> filterPredicate, final boolean isUseSourceList, final List<T> resultList) {
+        if (resultList != null) {
+            if (getChildrenFunction != null) {
+                if (filterPredicate != null) {
+                    resolveSourceListWithPredicate(sourceList, resultList, getChildrenFunction, filterPredicate);
+                } else {
+                    resolveSourceList(sourceList, resultList, getChildrenFunction);
+                }
+                return resultList;
+            }
+            if (isUseSourceList && filterPredicate == null) {
+                return sourceList;
+            }
+            //逐个放入元素(避免addAll时复制为数组)
+            for (T source : sourceList) {
+                if (filterPredicate == null || filterPredicate.test(source)) {
+                    resultList.add(source);
+                }
+            }
+            return resultList;
+        }
         final List<T> applySourceList;
         boolean hasGetChildrenFunction = getChildrenFunction != null;
         if (hasGetChildrenFunction) {
@@ -66,7 +118,7 @@ public class HierarchyHelper {
             if (filterPredicate != null) {
                 applySourceList = getApplySourceListWithPredicate(sourceList, filterPredicate);
             } else {
-                applySourceList = getNewList(sourceList);
+                applySourceList = isUseSourceList ? sourceList : getNewList(sourceList);
             }
         }
         return applySourceList;
@@ -139,13 +191,10 @@ public class HierarchyHelper {
      */
     private static <T> void resolveSourceList(final List<T> sourceList, final List<T> resultList
             , final Function<T, List<T>> getChildrenFunction) {
-        for (T source : sourceList) {
+        HierarchyTraversal.each(sourceList, 0, (source, parent, level) -> {
             resultList.add(source);
-            List<T> sourceChildrenList = resolveAndGetChildren(getChildrenFunction, source);
-            if (sourceChildrenList != null && !sourceChildrenList.isEmpty()) {
-                resolveSourceList(sourceChildrenList, resultList, getChildrenFunction);
-            }
-        }
+            return resolveAndGetChildren(getChildrenFunction, source);
+        });
     }
 
     /**
@@ -159,15 +208,12 @@ public class HierarchyHelper {
      */
     private static <T> void resolveSourceListWithPredicate(final List<T> sourceList, final List<T> resultList
             , final Function<T, List<T>> getChildrenFunction, final Predicate<T> filterPredicate) {
-        for (T source : sourceList) {
+        HierarchyTraversal.each(sourceList, 0, (source, parent, level) -> {
             if (filterPredicate.test(source)) {
                 resultList.add(source);
             }
-            List<T> sourceChildrenList = resolveAndGetChildren(getChildrenFunction, source);
-            if (sourceChildrenList != null && !sourceChildrenList.isEmpty()) {
-                resolveSourceListWithPredicate(sourceChildrenList, resultList, getChildrenFunction, filterPredicate);
-            }
-        }
+            return resolveAndGetChildren(getChildrenFunction, source);
+        });
     }
 
     /**
@@ -194,6 +240,81 @@ public class HierarchyHelper {
         setChildrenFunction.accept(source, children);
     }
 
+    /**
+     * 获取按叶子元素的children及子元素列表函数进行设置的设置children函数
+     *
+     * @param setChildrenFunction  设置children函数
+     * @param leafChildren         叶子元素的children,为Null时不处理叶子元素
+     * @param childrenListFunction 子元素列表函数,可为Null
+     * @param <R>
+     * @return 均未指定时为原函数
+     */
+    static <R> BiConsumer<R, List<R>> getSetChildrenFunction(final BiConsumer<R, List<R>> setChildrenFunction
+            , final HierarchyUtils.LeafChildren leafChildren, final Function<List<R>, List<R>> childrenListFunction) {
+        if (leafChildren == null && childrenListFunction == null) {
+            return setChildrenFunction;
+        }
+        return new CompactSetChildrenFunction<>(setChildrenFunction, leafChildren, childrenListFunction);
+    }
+
+    /**
+     * 是否需要设置叶子元素的children
+     *
+     * @param setChildrenFunction 设置children函数
+     * @return
+     */
+    static boolean isSetLeafChildren(final BiConsumer<?, ?> setChildrenFunction) {
+        return setChildrenFunction instanceof CompactSetChildrenFunction
+                && ((CompactSetChildrenFunction<?>) setChildrenFunction).leafChildren != null;
+    }
+
+    /**
+     * 缩减列表容量为元素个数
+     *
+     * @param list
+     */
+    static void trimToSize(final List<?> list) {
+        if (list instanceof ArrayList) {
+            ((ArrayList<?>) list).trimToSize();
+        }
+    }
+
+    /**
+     * 按叶子元素的children及子元素列表函数进行设置的设置children函数
+     * <p>
+     * 子元素列表为Null或空时按叶子元素处理(未指定叶子元素的children时原样设置),反之通过子元素列表函数获取要设置的列表
+     *
+     * @param <R>
+     */
+    private static final class CompactSetChildrenFunction<R> implements BiConsumer<R, List<R>> {
+
+        private final BiConsumer<R, List<R>> setChildrenFunction;
+
+        private final HierarchyUtils.LeafChildren leafChildren;
+
+        private final Function<List<R>, List<R>> childrenListFunction;
+
+        CompactSetChildrenFunction(final BiConsumer<R, List<R>> setChildrenFunction
+                , final HierarchyUtils.LeafChildren leafChildren, final Function<List<R>, List<R>> childrenListFunction) {
+            this.setChildrenFunction = setChildrenFunction;
+            this.leafChildren = leafChildren;
+            this.childrenListFunction = childrenListFunction;
+        }
+
+        @Override
+        public void accept(final R source, final List<R> children) {
+            if (children == null || children.isEmpty()) {
+                if (leafChildren == null) {
+                    setChildrenFunction.accept(source, children);
+                } else {
+                    setChildrenFunction.accept(source, leafChildren == HierarchyUtils.LeafChildren.NULL ? null : Collections.emptyList());
+                }
+                return;
+            }
+            setChildrenFunction.accept(source, childrenListFunction == null ? children : childrenListFunction.apply(children));
+        }
+    }
+
     /**
      * 获取转换后的结果
      *
@@ -208,42 +329,22 @@ public class HierarchyHelper {
     }
 
     /**
-     * 获取元素id所对应的子元素(但不包含root)
+     * 获取最大层级
      *
-     * @param toResolveSourceList 待处理的数据元素列表
-     * @param getIdFunction       获取 id 函数
-     * @param getPidFunction      获取 pid 函数
-     * @param isRootFunction      是否为 root函数
-     * @param <T>
-     * @param <V>
-     * @return
+     * @param supplier
+     * @return 未指定时为Integer.MAX_VALUE
      */
-    static <T, V> Map<V, List<T>> initAndGetIdChildrenResultMap(
-            final List<T> toResolveSourceList,
-            Function<T, V> getIdFunction,
-            final Function<T, V> getPidFunction,
-            final Function<V, Boolean> isRootFunction) {
-
-        Map<V, List<T>> resultMap = new HashMap<>(toResolveSourceList.size());
-        for (T toResolveSource : toResolveSourceList) {
-            //获取id
-            V id = getIdFunction.apply(toResolveSource);
-            if (isRootFunction.apply(id)) {
-                //为root时跳过
-                continue;
-            }
-
-            //获取pid
-            V pid = getPidFunction.apply(toResolveSource);
-
-            //将pid对应的数据列表放入map中
-            List<T> pidSourceList = resultMap.computeIfAbsent(pid, k -> new ArrayList<>(32));
-            pidSourceList.add(toResolveSource);
+    static int getMaxDepth(Supplier<Integer> supplier) {
+        Integer maxDepth = supplier != null ? supplier.get() : null;
+        if (maxDepth == null) {
+            return Integer.MAX_VALUE;
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("max depth must be greater than 0");
         }
-        return resultMap;
+        return maxDepth;
     }
 
-
     /**
      * 获取boolean值
      *
@@ -283,6 +384,37 @@ public class HierarchyHelper {
         addRoot(rootList, data, true);
     }
 
+    /**
+     * 按同级元素排序时获取元素的处理顺序
+     * <p>
+     * root的直接子元素按比较器排序后依次放入其原有的位置,其余元素保持原有的顺序
+     *
+     * @param childrenIndex              元素的子元素索引
+     * @param isRootDirectChildPredicate 元素下标是否为root直接子元素(非root)的判断
+     * @param comparator                 比较器
+     * @param <T>
+     * @return 各位置所要处理的元素下标
+     */
+    static <T> int[] getSortedResolveOrder(final HierarchyChildrenIndex<T> childrenIndex
+            , final IntPredicate isRootDirectChildPredicate, final Comparator<? super T> comparator) {
+        int size = childrenIndex.size();
+        int[] order = new int[size];
+        int[] directChildIndexes = new int[size];
+        int count = 0;
+        for (int index = 0; index < size; index++) {
+            order[index] = index;
+            if (isRootDirectChildPredicate.test(index)) {
+                directChildIndexes[count++] = index;
+            }
+        }
+        int[] sortedIndexes = Arrays.copyOf(directChildIndexes, count);
+        childrenIndex.sortIndexes(sortedIndexes, count, comparator);
+        for (int i = 0; i < count; i++) {
+            order[directChildIndexes[i]] = sortedIndexes[i];
+        }
+        return order;
+    }
+
     /**
      * 检查rootList是否合法
      *
@@ -0,0 +1,366 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 层级索引,通过源数据列表建立一次后可进行多次查询 (不会重复建立id与children的关系)
+ * <p>
+ * 建立时默认复制源数据列表,建立后源数据元素的id/pid发生变化时需重新建立;
+ * isUseSourceList为true(且未指定获取children函数及过滤条件)时直接使用源数据列表而不进行复制,建立后不能再修改该列表(增删或调整顺序会导致查询结果错误)
+ * <p>
+ * 查询不会修改索引,可在多线程中共享使用(未转换的树形结构查询会设置源数据元素的children)
+ *
+ * @param <T> 源数据类型
+ * @param <V> ID属性类型
+ */
+public final class HierarchyIndex<T, V> {
+
+    /**
+     * 判断是否为root函数
+     */
+    private final Function<V, Boolean> isRootFunction;
+
+    /**
+     * 获取 pid函数
+     */
+    private final Function<T, V> getPidFunction;
+
+    /**
+     * 元素的子元素索引(但不包含root)
+     */
+    private final HierarchyChildrenIndex<T> childrenIndex;
+
+    /**
+     * pid所对应的slot
+     */
+    private final Map<V, Integer> slotMap;
+
+    /**
+     * id所对应的元素下标(id重复时为第一个元素)
+     */
+    private final Map<V, Integer> indexMap;
+
+    /**
+     * 各元素的子树元素个数,首次跳过元素时计算 (多线程同时计算时结果一致)
+     */
+    private volatile int[] subtreeSizes;
+
+    private HierarchyIndex(final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
+            , final HierarchyChildrenIndex<T> childrenIndex, final Map<V, Integer> slotMap, final Map<V, Integer> indexMap) {
+        this.isRootFunction = isRootFunction;
+        this.getPidFunction = getPidFunction;
+        this.childrenIndex = childrenIndex;
+        this.slotMap = slotMap;
+        this.indexMap = indexMap;
+    }
+
+    /**
+     * 通过源数据列表建立层级索引
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (只使用id/pid/root/children/过滤条件函数及是否只对同级元素进行排序/是否直接使用源数据列表)
+     * @param <T>        源数据类型
+     * @param <V>        ID属性类型
+     * @return 层级索引
+     */
+    public static <T, V> HierarchyIndex<T, V> of(final List<T> sourceList, final HierarchyUtils.HierarchyFunctions<T, V, ?> functions) {
+        return of(sourceList, functions, null);
+    }
+
+    /**
+     * 通过源数据列表建立层级索引
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (只使用id/pid/root/children/过滤条件函数及是否只对同级元素进行排序/是否直接使用源数据列表)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
+     * @param <T>        源数据类型
+     * @param <V>        ID属性类型
+     * @return 层级索引
+     */
+    public static <T, V> HierarchyIndex<T, V> of(final List<T> sourceList, final HierarchyUtils.HierarchyFunctions<T, V, ?> functions, final Comparator<? super T> comparator) {
+        //检查参数
+        Objects.requireNonNull(functions, "functions must be not null");
+        return of(sourceList, functions.getIsRootFunction()
+                , functions.getGetPidFunction(), functions.getGetIdFunction()
+                , functions.getGetChildrenFunction(), functions.getFilterPredicate()
+                , comparator, HierarchyHelper.getBooleanValue(functions.getIsSortSiblings(), false)
+                , HierarchyHelper.getBooleanValue(functions.getIsUseSourceList(), false));
+    }
+
+    /**
+     * 通过源数据列表建立层级索引
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (只使用id/pid/root/children/过滤条件函数及是否只对同级元素进行排序/是否直接使用源数据列表)
+     * @param <T>        源数据类型
+     * @param <V>        ID属性类型
+     * @return 层级索引
+     */
+    public static <T, V> HierarchyIndex<T, V> of(final List<T> sourceList, final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, ?> functions) {
+        return of(sourceList, functions, null);
+    }
+
+    /**
+     * 通过源数据列表建立层级索引
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (只使用id/pid/root/children/过滤条件函数及是否只对同级元素进行排序/是否直接使用源数据列表)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
+     * @param <T>        源数据类型
+     * @param <V>        ID属性类型
+     * @return 层级索引
+     */
+    public static <T, V> HierarchyIndex<T, V> of(final List<T> sourceList, final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, ?> functions, final Comparator<? super T> comparator) {
+        //检查参数
+        Objects.requireNonNull(functions, "functions must be not null");
+        return of(sourceList, functions.getIsRootFunction()
+                , functions.getGetPidFunction(), functions.getGetIdFunction()
+                , functions.getGetChildrenFunction(), functions.getFilterPredicate()
+                , comparator, HierarchyHelper.getBooleanValue(functions.getIsSortSiblings(), false)
+                , HierarchyHelper.getBooleanValue(functions.getIsUseSourceList(), false));
+    }
+
+    private static <T, V> HierarchyIndex<T, V> of(final List<T> sourceList
+            , final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
+            , final Function<T, V> getIdFunction, final Function<T, List<T>> getChildrenFunction
+            , final Predicate<T> filterPredicate, final Comparator<? super T> comparator
+            , final boolean isSortSiblings, final boolean isUseSourceList) {
+        Objects.requireNonNull(isRootFunction, "is root function must be not null");
+        Objects.requireNonNull(getPidFunction, "get pid function must be not null");
+        Objects.requireNonNull(getIdFunction, "get id function must be not null");
+
+        //获取当前要处理的元素列表
+        List<T> elements = sourceList == null || sourceList.isEmpty() ? new ArrayList<>(0)
+                : HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate, isUseSourceList);
+
+        //进行排序数据列表
+        if (comparator != null && !isSortSiblings && elements.size() > 1) {
+            HierarchySortUtils.sortList(elements, comparator);
+        }
+
+        //获取元素所对应的子元素索引(但不包含root),各元素只获取一次id
+        Object[] ids = HierarchyChildrenIndex.getIds(elements, getIdFunction);
+        Map<V, Integer> slotMap = new HashMap<>();
+        HierarchyChildrenIndex<T> childrenIndex = HierarchyChildrenIndex.of(elements, ids, getPidFunction, isRootFunction, slotMap, HierarchyWorkspace.NONE);
+        if (comparator != null && isSortSiblings) {
+            //分别对各父元素的子元素进行排序
+            childrenIndex.sortChildren(comparator, null);
+        }
+
+        //获取id所对应的元素下标
+        int size = elements.size();
+        Map<V, Integer> indexMap = new HashMap<>(Math.max((int) (size / .75f) + 1, 16));
+        for (int index = 0; index < size; index++) {
+            @SuppressWarnings("unchecked")
+            V id = (V) ids[index];
+            indexMap.putIfAbsent(id, index);
+        }
+        return new HierarchyIndex<>(isRootFunction, getPidFunction, childrenIndex, slotMap, indexMap);
+    }
+
+    /**
+     * 元素个数
+     *
+     * @return
+     */
+    public int size() {
+        return childrenIndex.size();
+    }
+
+    /**
+     * 通过id获取元素
+     *
+     * @param id id
+     * @return 元素, 不存在时为Null
+     */
+    public T getElement(final V id) {
+        Integer index = indexMap.get(id);
+        return index == null ? null : childrenIndex.getElement(index);
+    }
+
+    /**
+     * 通过id获取父元素
+     *
+     * @param id id
+     * @return 父元素, 元素不存在、为root或父元素不存在时为Null
+     */
+    public T getParent(final V id) {
+        Integer index = indexMap.get(id);
+        if (index == null || isRootFunction.apply(id)) {
+            return null;
+        }
+        return getElement(getPidFunction.apply(childrenIndex.getElement(index)));
+    }
+
+    /**
+     * 通过id获取直接子元素列表 (不包含root)
+     *
+     * @param id id (可以为不存在元素的root id)
+     * @return 直接子元素列表, 不存在时为空列表
+     */
+    public List<T> getChildren(final V id) {
+        Integer slot = slotMap.get(id);
+        if (slot == null) {
+            return new ArrayList<>(0);
+        }
+        int start = childrenIndex.getSlotChildrenStart(slot);
+        int end = childrenIndex.getSlotChildrenEnd(slot);
+        List<T> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            results.add(childrenIndex.getElement(childrenIndex.getChildIndex(position)));
+        }
+        return results;
+    }
+
+    /**
+     * 通过id获取全部的子元素列表 (不包含root)
+     * <p>
+     * 结果按先序排列,即每个元素之后紧跟其全部子元素
+     *
+     * @param id id (可以为不存在元素的root id)
+     * @return 全部的子元素列表, 不存在时为空列表
+     */
+    public List<T> getDescendants(final V id) {
+        Integer slot = slotMap.get(id);
+        if (slot == null) {
+            return new ArrayList<>(0);
+        }
+        List<T> results = new ArrayList<>();
+        int start = childrenIndex.getSlotChildrenStart(slot);
+        int end = childrenIndex.getSlotChildrenEnd(slot);
+        for (int position = start; position < end; position++) {
+            resolveWithDescendants(results, childrenIndex.getChildIndex(position));
+        }
+        return results;
+    }
+
+    /**
+     * 通过id获取按先序依次返回全部子元素的迭代器 (不包含root)
+     * <p>
+     * 与 getDescendants 的结果顺序一致,但只在迭代时进行遍历,可通过skip及limit进行分页,
+     * 跳过元素时按子树元素个数整体跳过子树(子树元素个数只计算一次)
+     *
+     * @param id id (可以为不存在元素的root id)
+     * @return 迭代器, 第一层级为id的直接子元素
+     */
+    public HierarchyFlatIterator<T> getDescendantIterator(final V id) {
+        Integer slot = slotMap.get(id);
+        int[] startIndexes;
+        if (slot == null) {
+            startIndexes = new int[0];
+        } else {
+            int start = childrenIndex.getSlotChildrenStart(slot);
+            startIndexes = new int[childrenIndex.getSlotChildrenEnd(slot) - start];
+            for (int i = 0; i < startIndexes.length; i++) {
+                startIndexes[i] = childrenIndex.getChildIndex(start + i);
+            }
+        }
+        return new HierarchyFlatIterator<>(childrenIndex, startIndexes, startIndexes.length
+                , null, childrenIndex::getElement, Integer.MAX_VALUE, null, this::getSubtreeSizes);
+    }
+
+    private int[] getSubtreeSizes() {
+        int[] result = subtreeSizes;
+        if (result == null) {
+            result = childrenIndex.getSubtreeSizes();
+            subtreeSizes = result;
+        }
+        return result;
+    }
+
+    /**
+     * 通过id获取以其为根的树形结构 (不进行转换,会设置源数据元素的children)
+     * <p>
+     * 与 HierarchyUtils 一致,会对可达的各元素设置children(无子元素时为Null)
+     *
+     * @param id                  id (可以为不存在元素的root id)
+     * @param setChildrenFunction 设置children函数
+     * @return 直接子元素列表(已设置children), 不存在时为空列表
+     */
+    public List<T> getHierarchyResult(final V id, final BiConsumer<T, List<T>> setChildrenFunction) {
+        Objects.requireNonNull(setChildrenFunction, "set children function must be not null");
+        Integer slot = slotMap.get(id);
+        if (slot == null) {
+            return new ArrayList<>(0);
+        }
+        int start = childrenIndex.getSlotChildrenStart(slot);
+        int end = childrenIndex.getSlotChildrenEnd(slot);
+        List<T> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            int childIndex = childrenIndex.getChildIndex(position);
+            resolveWithChildren(setChildrenFunction, childIndex);
+            results.add(childrenIndex.getElement(childIndex));
+        }
+        return results;
+    }
+
+    /**
+     * 通过id获取以其为根的树形结构 (进行转换,不会修改源数据元素)
+     * <p>
+     * 与 HierarchyUtils 一致,只对存在子元素的转换结果设置children
+     *
+     * @param id                  id (可以为不存在元素的root id)
+     * @param transferFunction    转换函数
+     * @param setChildrenFunction 设置children函数
+     * @param <R>                 转换结果类型
+     * @return 转换后的直接子元素列表(已设置children), 不存在时为空列表
+     */
+    public <R> List<R> getHierarchyResult(final V id, final Function<T, R> transferFunction, final BiConsumer<R, List<R>> setChildrenFunction) {
+        Objects.requireNonNull(transferFunction, "transfer function must be not null");
+        Objects.requireNonNull(setChildrenFunction, "set children function must be not null");
+        Integer slot = slotMap.get(id);
+        if (slot == null) {
+            return new ArrayList<>(0);
+        }
+        int start = childrenIndex.getSlotChildrenStart(slot);
+        int end = childrenIndex.getSlotChildrenEnd(slot);
+        List<R> results = new ArrayList<>(end - start);
+        for (int position = start; position < end; position++) {
+            int childIndex = childrenIndex.getChildIndex(position);
+            R transferResult = HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(childIndex));
+            HierarchyUtils.resolveWithChildren(childrenIndex, transferFunction, setChildrenFunction, transferResult, childIndex);
+            results.add(transferResult);
+        }
+        return results;
+    }
+
+    private void resolveWithDescendants(final List<T> results, final int index) {
+        HierarchyTraversal.each(childrenIndex, index, new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void enter(int currentIndex, int depth) {
+                results.add(childrenIndex.getElement(currentIndex));
+            }
+        });
+    }
+
+    private void resolveWithChildren(final BiConsumer<T, List<T>> setChildrenFunction, final int index) {
+        HierarchyTraversal.each(childrenIndex, index, new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void enter(int currentIndex, int depth) {
+                //处理children
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, childrenIndex.getElement(currentIndex), childrenIndex.getChildren(currentIndex));
+            }
+        });
+    }
+
+}
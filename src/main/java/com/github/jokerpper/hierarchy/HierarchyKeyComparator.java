@@ -0,0 +1,228 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 通过int/long排序键比较的比较器
+ * <p>
+ * 作为比较器排序时每个元素只获取一次排序键,并通过基本类型数组进行稳定排序:
+ * int排序键与下标合并为long后通过Arrays.sort排序,long排序键通过基数排序
+ *
+ * @param <T>
+ */
+final class HierarchyKeyComparator<T> implements Comparator<T> {
+
+    /**
+     * 少于该元素个数时使用插入排序
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 48;
+
+    private final ToIntFunction<? super T> intKeyFunction;
+
+    private final ToLongFunction<? super T> longKeyFunction;
+
+    private HierarchyKeyComparator(final ToIntFunction<? super T> intKeyFunction, final ToLongFunction<? super T> longKeyFunction) {
+        this.intKeyFunction = intKeyFunction;
+        this.longKeyFunction = longKeyFunction;
+    }
+
+    static <T> HierarchyKeyComparator<T> ofIntKey(final ToIntFunction<? super T> keyFunction) {
+        return new HierarchyKeyComparator<>(keyFunction, null);
+    }
+
+    static <T> HierarchyKeyComparator<T> ofLongKey(final ToLongFunction<? super T> keyFunction) {
+        return new HierarchyKeyComparator<>(null, keyFunction);
+    }
+
+    /**
+     * 获取排序键比较器
+     *
+     * @param comparator 比较器
+     * @param <T>
+     * @return 为排序键比较器时返回该比较器,反之为Null
+     */
+    static <T> HierarchyKeyComparator<? super T> of(final Comparator<? super T> comparator) {
+        return comparator instanceof HierarchyKeyComparator ? (HierarchyKeyComparator<? super T>) comparator : null;
+    }
+
+    /**
+     * 获取元素的排序键 (int排序键转换为long)
+     *
+     * @param element 元素
+     * @return 排序键
+     */
+    long getKey(final T element) {
+        return intKeyFunction != null ? intKeyFunction.applyAsInt(element) : longKeyFunction.applyAsLong(element);
+    }
+
+    @Override
+    public int compare(final T o1, final T o2) {
+        if (intKeyFunction != null) {
+            return Integer.compare(intKeyFunction.applyAsInt(o1), intKeyFunction.applyAsInt(o2));
+        }
+        return Long.compare(longKeyFunction.applyAsLong(o1), longKeyFunction.applyAsLong(o2));
+    }
+
+    /**
+     * 对列表进行稳定排序
+     *
+     * @param list 列表
+     * @param <E>
+     */
+    <E extends T> void sort(final List<E> list) {
+        int size = list.size();
+        if (size < 2) {
+            return;
+        }
+        List<E> elements = new ArrayList<>(list);
+        int[] indexes = getSortedIndexes(elements);
+
+        //按排序后的下标设置元素
+        ListIterator<E> iterator = list.listIterator();
+        for (int index : indexes) {
+            iterator.next();
+            iterator.set(elements.get(index));
+        }
+    }
+
+    /**
+     * 获取元素稳定排序后的下标
+     *
+     * @param elements 元素
+     * @return 排序后的下标
+     */
+    int[] getSortedIndexes(final List<? extends T> elements) {
+        return intKeyFunction != null ? sortByIntKey(elements) : sortByLongKey(elements);
+    }
+
+    /**
+     * 通过int排序键获取排序后的下标
+     *
+     * @param elements
+     * @return
+     */
+    private int[] sortByIntKey(final List<? extends T> elements) {
+        int size = elements.size();
+        //高32位为排序键,低32位为下标 (下标不为负数,相同排序键时按下标排序)
+        long[] packs = new long[size];
+        for (int i = 0; i < size; i++) {
+            packs[i] = ((long) intKeyFunction.applyAsInt(elements.get(i)) << 32) | i;
+        }
+        Arrays.sort(packs);
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = (int) packs[i];
+        }
+        return indexes;
+    }
+
+    /**
+     * 通过long排序键获取排序后的下标
+     *
+     * @param elements
+     * @return
+     */
+    private int[] sortByLongKey(final List<? extends T> elements) {
+        int size = elements.size();
+        long[] keys = new long[size];
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            //翻转符号位后按无符号比较
+            keys[i] = longKeyFunction.applyAsLong(elements.get(i)) ^ Long.MIN_VALUE;
+            indexes[i] = i;
+        }
+        if (size < INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, indexes);
+            return indexes;
+        }
+        return radixSort(keys, indexes);
+    }
+
+    /**
+     * 稳定的插入排序 (按无符号比较)
+     *
+     * @param keys
+     * @param indexes
+     */
+    private static void insertionSort(final long[] keys, final int[] indexes) {
+        for (int i = 1; i < keys.length; i++) {
+            long key = keys[i];
+            int index = indexes[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(keys[j], key) > 0) {
+                keys[j + 1] = keys[j];
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indexes[j + 1] = index;
+        }
+    }
+
+    /**
+     * 稳定的LSD基数排序 (每次8位,按无符号比较,跳过全部相同的字节)
+     *
+     * @param keys
+     * @param indexes
+     * @return 排序后的下标
+     */
+    private static int[] radixSort(long[] keys, int[] indexes) {
+        int size = keys.length;
+        long[] tempKeys = new long[size];
+        int[] tempIndexes = new int[size];
+        int[] counts = new int[256];
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[(int) (key >>> shift) & 0xFF]++;
+            }
+            if (counts[(int) (keys[0] >>> shift) & 0xFF] == size) {
+                //全部相同时跳过
+                continue;
+            }
+            int position = 0;
+            for (int i = 0; i < 256; i++) {
+                int count = counts[i];
+                counts[i] = position;
+                position += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int bucket = (int) (keys[i] >>> shift) & 0xFF;
+                int target = counts[bucket]++;
+                tempKeys[target] = keys[i];
+                tempIndexes[target] = indexes[i];
+            }
+            long[] swapKeys = keys;
+            keys = tempKeys;
+            tempKeys = swapKeys;
+            int[] swapIndexes = indexes;
+            indexes = tempIndexes;
+            tempIndexes = swapIndexes;
+        }
+        return indexes;
+    }
+
+}
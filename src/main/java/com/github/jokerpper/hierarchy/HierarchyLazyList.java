@@ -0,0 +1,191 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * 首次访问时才处理的子元素列表 (不可修改)
+ * <p>
+ * 创建时只记录元素下标,首次获取子元素时才转换子元素并为其设置子元素列表(同样在首次访问时处理),
+ * 获取元素个数时不进行处理; 处理时进行同步,可在多个线程间读取
+ *
+ * @param <T> 源数据类型
+ * @param <R> 转换结果类型
+ */
+final class HierarchyLazyList<T, R> extends AbstractList<R> implements RandomAccess {
+
+    private final Resolver<T, R> resolver;
+
+    /**
+     * 父元素下标
+     */
+    private final int index;
+
+    /**
+     * 父元素的层级(root的直接子元素为1)
+     */
+    private final int depth;
+
+    private final int size;
+
+    /**
+     * 处理后的子元素,未处理时为Null
+     */
+    private volatile Object[] elements;
+
+    private HierarchyLazyList(final Resolver<T, R> resolver, final int index, final int depth, final int size) {
+        this.resolver = resolver;
+        this.index = index;
+        this.depth = depth;
+        this.size = size;
+    }
+
+    //处理后的子元素均为R类型的结果
+    @SuppressWarnings("unchecked")
+    @Override
+    public R get(final int position) {
+        return (R) getElements()[position];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 是否已处理子元素
+     *
+     * @return
+     */
+    boolean isResolved() {
+        return elements != null;
+    }
+
+    private Object[] getElements() {
+        Object[] results = elements;
+        if (results == null) {
+            synchronized (this) {
+                results = elements;
+                if (results == null) {
+                    results = resolver.resolveChildren(index, depth, size);
+                    elements = results;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 转换元素并设置首次访问时才处理的子元素列表
+     *
+     * @param <T>
+     * @param <R>
+     */
+    static final class Resolver<T, R> {
+
+        private final HierarchyChildrenIndex<T> childrenIndex;
+
+        /**
+         * 转换函数,不启用转换时为Null
+         */
+        private final Function<T, R> transferFunction;
+
+        private final BiConsumer<R, List<R>> setChildrenFunction;
+
+        /**
+         * 最大层级(root的直接子元素为1),该层级的元素不设置子元素
+         */
+        private final int maxDepth;
+
+        /**
+         * 接收最大层级中仍存在子元素的元素及其子元素个数的回调,可为Null
+         */
+        private final ObjIntConsumer<R> truncatedConsumer;
+
+        /**
+         * 是否设置叶子元素的children
+         */
+        private final boolean isSetLeafChildren;
+
+        Resolver(final HierarchyChildrenIndex<T> childrenIndex
+                , final Function<T, R> transferFunction
+                , final BiConsumer<R, List<R>> setChildrenFunction
+                , final int maxDepth
+                , final ObjIntConsumer<R> truncatedConsumer) {
+            this.childrenIndex = childrenIndex;
+            this.transferFunction = transferFunction;
+            this.setChildrenFunction = setChildrenFunction;
+            this.maxDepth = maxDepth;
+            this.truncatedConsumer = truncatedConsumer;
+            //不转换时与其他处理方式一致,叶子元素的children设置为Null
+            this.isSetLeafChildren = transferFunction == null || HierarchyHelper.isSetLeafChildren(setChildrenFunction);
+        }
+
+        /**
+         * 转换元素并设置其子元素列表
+         *
+         * @param index 元素下标
+         * @param depth 元素的层级(root的直接子元素为1)
+         * @return 元素的结果
+         */
+        R resolve(final int index, final int depth) {
+            T toResolveSource = childrenIndex.getElement(index);
+            //未转换时R与T为同一类型
+            @SuppressWarnings("unchecked")
+            R result = transferFunction == null ? (R) toResolveSource : HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
+            int size = childrenIndex.getChildrenEnd(index) - childrenIndex.getChildrenStart(index);
+            if (size > 0 && depth >= maxDepth) {
+                //最大层级的元素不设置子元素
+                if (truncatedConsumer != null) {
+                    truncatedConsumer.accept(result, size);
+                }
+                size = 0;
+            }
+            if (size > 0) {
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, result, new HierarchyLazyList<>(this, index, depth, size));
+            } else if (isSetLeafChildren) {
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, result, null);
+            }
+            return result;
+        }
+
+        /**
+         * 处理元素的子元素
+         *
+         * @param index 元素下标
+         * @param depth 元素的层级
+         * @param size  子元素个数
+         * @return 子元素的结果
+         */
+        private Object[] resolveChildren(final int index, final int depth, final int size) {
+            Object[] results = new Object[size];
+            int start = childrenIndex.getChildrenStart(index);
+            for (int i = 0; i < size; i++) {
+                results[i] = resolve(childrenIndex.getChildIndex(start + i), depth + 1);
+            }
+            return results;
+        }
+    }
+
+}
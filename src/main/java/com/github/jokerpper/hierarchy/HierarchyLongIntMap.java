@@ -0,0 +1,144 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.Arrays;
+
+/**
+ * long -> int 的开放寻址(线性探测)map,用于避免id装箱
+ * <p>
+ * 值不能为负数,不支持删除
+ */
+final class HierarchyLongIntMap {
+
+    /**
+     * 不存在时的返回值
+     */
+    static final int NOT_FOUND = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    private int mask;
+
+    private int threshold;
+
+    HierarchyLongIntMap(final int expectedSize) {
+        //负载因子为0.5
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        init(capacity);
+    }
+
+    private void init(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NOT_FOUND);
+        mask = capacity - 1;
+        threshold = capacity >>> 1;
+    }
+
+    private static int hash(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 获取key对应的值
+     *
+     * @param key key
+     * @return 值, 不存在时返回 NOT_FOUND
+     */
+    int get(final long key) {
+        int index = hash(key) & mask;
+        int value;
+        while ((value = values[index]) != NOT_FOUND) {
+            if (keys[index] == key) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * 不存在时放入key对应的值
+     *
+     * @param key   key
+     * @param value 值,不能为负数
+     * @return 已存在的值, 不存在时返回 NOT_FOUND
+     */
+    int putIfAbsent(final long key, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must be not negative: " + value);
+        }
+        int index = hash(key) & mask;
+        int existValue;
+        while ((existValue = values[index]) != NOT_FOUND) {
+            if (keys[index] == key) {
+                return existValue;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > threshold) {
+            resize();
+        }
+        return NOT_FOUND;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        init(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int value = oldValues[i];
+            if (value == NOT_FOUND) {
+                continue;
+            }
+            long key = oldKeys[i];
+            int index = hash(key) & mask;
+            while (values[index] != NOT_FOUND) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            values[index] = value;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 清空全部的值 (不缩小容量)
+     */
+    void clear() {
+        Arrays.fill(values, NOT_FOUND);
+        size = 0;
+    }
+
+}
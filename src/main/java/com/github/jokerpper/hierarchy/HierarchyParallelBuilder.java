@@ -0,0 +1,317 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 通过ForkJoinPool并行构建树形结构
+ * <p>
+ * 按子树的元素个数进行拆分任务: 各元素沿其最大的子树继续处理,其余子树拆分为新的任务,
+ * 子树的元素个数不超过阈值时顺序处理,因此单个较大的子树也会被拆分
+ *
+ * @param <T> 源数据类型
+ * @param <R> 转换结果类型
+ */
+final class HierarchyParallelBuilder<T, R> {
+
+    /**
+     * 最小阈值
+     */
+    static final int MIN_THRESHOLD = 1024;
+
+    /**
+     * 元素的子元素索引
+     */
+    private final HierarchyChildrenIndex<T> childrenIndex;
+
+    /**
+     * 转换函数
+     */
+    private final Function<T, R> transferFunction;
+
+    /**
+     * 设置children函数
+     */
+    private final BiConsumer<R, List<R>> setChildrenFunction;
+
+    /**
+     * 顺序处理的元素个数阈值
+     */
+    private final int threshold;
+
+    HierarchyParallelBuilder(final HierarchyChildrenIndex<T> childrenIndex
+            , final Function<T, R> transferFunction
+            , final BiConsumer<R, List<R>> setChildrenFunction
+            , final int threshold) {
+        this.childrenIndex = childrenIndex;
+        this.transferFunction = transferFunction;
+        this.setChildrenFunction = setChildrenFunction;
+        this.threshold = threshold;
+    }
+
+    /**
+     * 获取顺序处理的元素个数阈值
+     *
+     * @param size         元素个数
+     * @param forkJoinPool ForkJoinPool
+     * @return
+     */
+    static int getThreshold(final int size, final ForkJoinPool forkJoinPool) {
+        return Math.max(size / (forkJoinPool.getParallelism() << 3), MIN_THRESHOLD);
+    }
+
+    /**
+     * 设置各元素的子元素 (不进行转换)
+     *
+     * @param forkJoinPool ForkJoinPool
+     * @param indexes      要设置子元素的元素下标
+     * @param count        元素下标个数
+     */
+    void resolveWithoutTransfer(final ForkJoinPool forkJoinPool, final int[] indexes, final int count) {
+        forkJoinPool.invoke(new SetChildrenTask(indexes, 0, count));
+    }
+
+    /**
+     * 转换并设置各元素的子元素(包含子元素的子元素)
+     *
+     * @param forkJoinPool ForkJoinPool
+     * @param indexes      要转换的元素下标
+     * @return 转换结果 (与indexes顺序一致)
+     */
+    List<R> resolveWithTransfer(final ForkJoinPool forkJoinPool, final int[] indexes) {
+        //获取各元素的子树元素个数
+        int[] subtreeSizes = childrenIndex.getSubtreeSizes(indexes, indexes.length);
+        Object[] transferResults = new Object[indexes.length];
+        forkJoinPool.invoke(new TransferTask(indexes, getPrefixWeights(indexes, subtreeSizes), transferResults, subtreeSizes, 0, indexes.length));
+        return toList(transferResults);
+    }
+
+    /**
+     * 获取元素子树元素个数的前缀和
+     *
+     * @param indexes      元素下标
+     * @param subtreeSizes 各元素的子树元素个数
+     * @return
+     */
+    private static long[] getPrefixWeights(final int[] indexes, final int[] subtreeSizes) {
+        long[] prefixWeights = new long[indexes.length + 1];
+        for (int i = 0; i < indexes.length; i++) {
+            prefixWeights[i + 1] = prefixWeights[i] + subtreeSizes[indexes[i]];
+        }
+        return prefixWeights;
+    }
+
+    /**
+     * 转换为结果列表
+     *
+     * @param transferResults 转换后的结果 (只存放R类型的元素)
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private List<R> toList(final Object[] transferResults) {
+        List<R> results = new ArrayList<>(transferResults.length);
+        for (Object transferResult : transferResults) {
+            results.add((R) transferResult);
+        }
+        return results;
+    }
+
+    /**
+     * 设置元素子元素的任务 (按元素个数拆分)
+     */
+    private final class SetChildrenTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] indexes;
+
+        private final int from;
+
+        private final int to;
+
+        SetChildrenTask(final int[] indexes, final int from, final int to) {
+            this.indexes = indexes;
+            this.from = from;
+            this.to = to;
+        }
+
+        //未转换时R与T为同一类型
+        @SuppressWarnings("unchecked")
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    int index = indexes[i];
+                    //处理children
+                    HierarchyHelper.resolveAndSetChildren(setChildrenFunction, (R) childrenIndex.getElement(index), (List<R>) childrenIndex.getChildren(index));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SetChildrenTask(indexes, from, middle), new SetChildrenTask(indexes, middle, to));
+        }
+    }
+
+    /**
+     * 转换并设置元素(包含子元素)的任务 (按子树元素个数拆分)
+     */
+    private final class TransferTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] indexes;
+
+        /**
+         * 子树元素个数的前缀和
+         */
+        private final long[] prefixWeights;
+
+        private final Object[] transferResults;
+
+        private final int[] subtreeSizes;
+
+        private final int from;
+
+        private final int to;
+
+        TransferTask(final int[] indexes, final long[] prefixWeights, final Object[] transferResults
+                , final int[] subtreeSizes, final int from, final int to) {
+            this.indexes = indexes;
+            this.prefixWeights = prefixWeights;
+            this.transferResults = transferResults;
+            this.subtreeSizes = subtreeSizes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                //只有一个元素时沿其子树进行处理
+                int index = indexes[from];
+                R transferResult = HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(index));
+                transferResults[from] = transferResult;
+                resolveWithSubtree(index, transferResult);
+                return;
+            }
+
+            if (prefixWeights[to] - prefixWeights[from] <= threshold) {
+                //顺序处理
+                for (int i = from; i < to; i++) {
+                    int index = indexes[i];
+                    R transferResult = HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(index));
+                    transferResults[i] = transferResult;
+                    HierarchyUtils.resolveWithChildren(childrenIndex, transferFunction, setChildrenFunction, transferResult, index);
+                }
+                return;
+            }
+
+            //按子树元素个数拆分为两个任务
+            int middle = getMiddle();
+            invokeAll(new TransferTask(indexes, prefixWeights, transferResults, subtreeSizes, from, middle)
+                    , new TransferTask(indexes, prefixWeights, transferResults, subtreeSizes, middle, to));
+        }
+
+        /**
+         * 获取子树元素个数接近一半的拆分位置
+         *
+         * @return
+         */
+        private int getMiddle() {
+            long half = (prefixWeights[from] + prefixWeights[to]) >>> 1;
+            int low = from + 1;
+            int high = to - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prefixWeights[middle] < half) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * 处理元素的子树
+         * <p>
+         * 沿最大的子元素依次向下处理,其余的子元素作为新的任务,全部完成后再依次设置children
+         *
+         * @param index          元素下标
+         * @param transferResult 元素转换后的结果
+         */
+        private void resolveWithSubtree(int index, R transferResult) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            List<R> parentResults = new ArrayList<>();
+            List<Object[]> childrenResults = new ArrayList<>();
+
+            while (subtreeSizes[index] > threshold) {
+                int start = childrenIndex.getChildrenStart(index);
+                int end = childrenIndex.getChildrenEnd(index);
+                int size = end - start;
+
+                //获取子元素下标及最大的子元素
+                int[] childIndexes = new int[size];
+                int heavy = 0;
+                for (int i = 0; i < size; i++) {
+                    childIndexes[i] = childrenIndex.getChildIndex(start + i);
+                    if (subtreeSizes[childIndexes[i]] > subtreeSizes[childIndexes[heavy]]) {
+                        heavy = i;
+                    }
+                }
+
+                //其余的子元素作为新的任务
+                Object[] childResults = new Object[size];
+                long[] childPrefixWeights = getPrefixWeights(childIndexes, subtreeSizes);
+                if (heavy > 0) {
+                    tasks.add(new TransferTask(childIndexes, childPrefixWeights, childResults, subtreeSizes, 0, heavy).fork());
+                }
+                if (heavy + 1 < size) {
+                    tasks.add(new TransferTask(childIndexes, childPrefixWeights, childResults, subtreeSizes, heavy + 1, size).fork());
+                }
+
+                //转换最大的子元素并继续处理
+                parentResults.add(transferResult);
+                childrenResults.add(childResults);
+                index = childIndexes[heavy];
+                transferResult = HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(index));
+                childResults[heavy] = transferResult;
+            }
+
+            //子树元素个数不超过阈值时顺序处理
+            HierarchyUtils.resolveWithChildren(childrenIndex, transferFunction, setChildrenFunction, transferResult, index);
+
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                tasks.get(i).join();
+            }
+
+            //设置children (子元素的children已设置)
+            for (int i = parentResults.size() - 1; i >= 0; i--) {
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, parentResults.get(i), toList(childrenResults.get(i)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 预先确定的构建计划
+ * <p>
+ * 创建时读取并检查函数(functions作为配置构建计划),并计算isEnableTransfer/isWithRoot/isWithAllChildren等选项的值,
+ * 之后每次构建直接进入所确定的处理方式,不再读取functions; 创建后不可变,可在多个线程间共享(所使用的函数需线程安全)
+ * <p>
+ * 创建后修改functions不会影响已创建的计划,结果与 HierarchyUtils / HierarchyFlatUtils 一致
+ *
+ * @param <T> 源数据类型
+ * @param <R> 转换结果类型
+ */
+public final class HierarchyPlan<T, R> {
+
+    /**
+     * 构建函数
+     */
+    private final BiFunction<List<T>, HierarchyWorkspace, List<R>> buildFunction;
+
+    HierarchyPlan(final BiFunction<List<T>, HierarchyWorkspace, List<R>> buildFunction) {
+        this.buildFunction = buildFunction;
+    }
+
+    /**
+     * 创建构建树形结构的计划
+     *
+     * @param functions 函数 (创建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @param <V>       ID属性类型
+     * @return 计划
+     * @see HierarchyUtils#getHierarchyResult(List, HierarchyUtils.HierarchyFunctions)
+     */
+    public static <T, R, V> HierarchyPlan<T, R> of(final HierarchyUtils.HierarchyFunctions<T, V, R> functions) {
+        return of(functions, null);
+    }
+
+    /**
+     * 创建构建树形结构的计划
+     *
+     * @param functions  函数 (创建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 计划
+     * @see HierarchyUtils#getHierarchyResult(List, HierarchyUtils.HierarchyFunctions, Comparator)
+     */
+    public static <T, R, V> HierarchyPlan<T, R> of(final HierarchyUtils.HierarchyFunctions<T, V, R> functions, final Comparator<? super T> comparator) {
+        return HierarchyUtils.getHierarchyPlan(functions, comparator);
+    }
+
+    /**
+     * 创建构建树形结构的计划 (id为long或int类型,id及pid不进行装箱)
+     *
+     * @param functions 函数 (创建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @return 计划
+     * @see HierarchyUtils#getHierarchyResultByLongId(List, HierarchyUtils.HierarchyLongFunctions)
+     */
+    public static <T, R> HierarchyPlan<T, R> ofLongId(final HierarchyUtils.HierarchyLongFunctions<T, R> functions) {
+        return ofLongId(functions, null);
+    }
+
+    /**
+     * 创建构建树形结构的计划 (id为long或int类型,id及pid不进行装箱)
+     *
+     * @param functions  函数 (创建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 计划
+     * @see HierarchyUtils#getHierarchyResultByLongId(List, HierarchyUtils.HierarchyLongFunctions, Comparator)
+     */
+    public static <T, R> HierarchyPlan<T, R> ofLongId(final HierarchyUtils.HierarchyLongFunctions<T, R> functions, final Comparator<? super T> comparator) {
+        return HierarchyUtils.getHierarchyPlanByLongId(functions, comparator);
+    }
+
+    /**
+     * 创建获取打平数据的计划
+     *
+     * @param functions 函数 (创建时读取)
+     * @param <T>       源数据类型
+     * @param <R>       转换结果类型
+     * @param <V>       ID属性类型
+     * @return 计划
+     * @see HierarchyFlatUtils#getHierarchyFlatResult(List, HierarchyFlatUtils.HierarchyFlatFunctions)
+     */
+    public static <T, R, V> HierarchyPlan<T, R> ofFlat(final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, R> functions) {
+        return ofFlat(functions, null);
+    }
+
+    /**
+     * 创建获取打平数据的计划
+     *
+     * @param functions  函数 (创建时读取)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 计划
+     * @see HierarchyFlatUtils#getHierarchyFlatResult(List, HierarchyFlatUtils.HierarchyFlatFunctions, Comparator)
+     */
+    public static <T, R, V> HierarchyPlan<T, R> ofFlat(final HierarchyFlatUtils.HierarchyFlatFunctions<T, V, R> functions, final Comparator<T> comparator) {
+        return HierarchyFlatUtils.getHierarchyFlatPlan(functions, comparator);
+    }
+
+    /**
+     * 构建结果 (线程安全)
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @return 转换结果
+     */
+    public List<R> build(final List<T> sourceList) {
+        return buildFunction.apply(sourceList, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 使用缓冲区构建结果
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param workspace  构建时所使用的缓冲区
+     * @return 转换结果
+     */
+    List<R> build(final List<T> sourceList, final HierarchyWorkspace workspace) {
+        return buildFunction.apply(sourceList, workspace);
+    }
+
+}
@@ -17,17 +17,29 @@
  */
 package com.github.jokerpper.hierarchy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * @author joker-pper 2021-12-26
  */
 public class HierarchySortUtils {
 
+    /**
+     * 并行排序时默认的元素个数阈值
+     */
+    public final static int DEFAULT_PARALLEL_THRESHOLD = 8192;
+
     //Suppresses default constructor, Don't let anyone instantiate this class.
     private HierarchySortUtils() {
     }
@@ -43,7 +55,7 @@ public class HierarchySortUtils {
         if (sourceList == null || sourceList.isEmpty()) {
             return;
         }
-        Collections.sort(sourceList, comparator);
+        sortList(sourceList, comparator);
     }
 
     /**
@@ -59,12 +71,200 @@ public class HierarchySortUtils {
         if (sourceList == null || sourceList.isEmpty()) {
             return;
         }
-        Collections.sort(sourceList, comparator);
-        for (T source : sourceList) {
-            resolveSortElement(source, getChildrenFunction, comparator);
+        sortList(sourceList, comparator);
+        HierarchyTraversal.each(sourceList, 0, (source, parent, level) -> resolveSortElement(source, getChildrenFunction, comparator));
+    }
+
+    /**
+     * 获取通过int排序键比较的比较器
+     * <p>
+     * 通过该比较器排序(包括作为构建树形数据时的comparator)时每个元素只获取一次排序键,并使用基本类型数组进行稳定排序
+     *
+     * @param keyFunction 获取排序键函数
+     * @param <T>
+     * @return 比较器
+     */
+    public static <T> Comparator<T> comparingIntKey(final ToIntFunction<? super T> keyFunction) {
+        Objects.requireNonNull(keyFunction, "keyFunction must be not null");
+        return HierarchyKeyComparator.ofIntKey(keyFunction);
+    }
+
+    /**
+     * 获取通过long排序键比较的比较器
+     * <p>
+     * 通过该比较器排序(包括作为构建树形数据时的comparator)时每个元素只获取一次排序键,并使用基数排序进行稳定排序
+     *
+     * @param keyFunction 获取排序键函数
+     * @param <T>
+     * @return 比较器
+     */
+    public static <T> Comparator<T> comparingLongKey(final ToLongFunction<? super T> keyFunction) {
+        Objects.requireNonNull(keyFunction, "keyFunction must be not null");
+        return HierarchyKeyComparator.ofLongKey(keyFunction);
+    }
+
+    /**
+     * 通过int排序键对数据列表进行排序
+     *
+     * @param sourceList  源数据列表，不能存在为Null的子元素
+     * @param keyFunction 获取排序键函数
+     * @param <T>
+     */
+    public static <T> void sortByIntKey(final List<T> sourceList, final ToIntFunction<? super T> keyFunction) {
+        sort(sourceList, comparingIntKey(keyFunction));
+    }
+
+    /**
+     * 通过long排序键对数据列表进行排序
+     *
+     * @param sourceList  源数据列表，不能存在为Null的子元素
+     * @param keyFunction 获取排序键函数
+     * @param <T>
+     */
+    public static <T> void sortByLongKey(final List<T> sourceList, final ToLongFunction<? super T> keyFunction) {
+        sort(sourceList, comparingLongKey(keyFunction));
+    }
+
+    /**
+     * 通过int排序键对数据列表及子数据列表进行排序
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取children函数，必传
+     * @param keyFunction         获取排序键函数
+     * @param <T>
+     */
+    public static <T> void sortWithChildrenByIntKey(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final ToIntFunction<? super T> keyFunction) {
+        sortWithChildren(sourceList, getChildrenFunction, comparingIntKey(keyFunction));
+    }
+
+    /**
+     * 通过long排序键对数据列表及子数据列表进行排序
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取children函数，必传
+     * @param keyFunction         获取排序键函数
+     * @param <T>
+     */
+    public static <T> void sortWithChildrenByLongKey(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final ToLongFunction<? super T> keyFunction) {
+        sortWithChildren(sourceList, getChildrenFunction, comparingLongKey(keyFunction));
+    }
+
+    /**
+     * 并行对数据列表及子数据列表进行排序 (使用ForkJoinPool.commonPool())
+     * <p>
+     * 元素个数不超过默认阈值时只会在单个任务中顺序排序
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取children函数，必传
+     * @param comparator          比较器，需支持多线程调用
+     * @param <T>
+     */
+    public static <T> void parallelSortWithChildren(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final Comparator<T> comparator) {
+        parallelSortWithChildren(sourceList, getChildrenFunction, comparator, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 并行对数据列表及子数据列表进行排序
+     * <p>
+     * 各任务每处理threshold个元素后将剩余未处理元素的一半拆分为新的任务,因此元素个数不超过阈值时只会顺序排序
+     * <p>
+     * 注: 各元素的children不能为同一个列表
+     *
+     * @param sourceList          源数据列表，不能存在为Null的子元素
+     * @param getChildrenFunction 获取children函数，必传
+     * @param comparator          比较器，需支持多线程调用
+     * @param forkJoinPool        ForkJoinPool，必传
+     * @param threshold           元素个数阈值，必须大于0
+     * @param <T>
+     */
+    public static <T> void parallelSortWithChildren(final List<T> sourceList, final Function<T, List<T>> getChildrenFunction, final Comparator<T> comparator
+            , final ForkJoinPool forkJoinPool, final int threshold) {
+        Objects.requireNonNull(getChildrenFunction, "getChildrenFunction must be not null");
+        Objects.requireNonNull(forkJoinPool, "forkJoinPool must be not null");
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("threshold must be greater than 0");
+        }
+        if (sourceList == null || sourceList.isEmpty()) {
+            return;
+        }
+        sortList(sourceList, comparator);
+        forkJoinPool.invoke(new SortTask<>(new ArrayList<>(sourceList), getChildrenFunction, comparator, threshold));
+    }
+
+    /**
+     * 并行排序的任务
+     *
+     * @param <T>
+     */
+    private static class SortTask<T> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 待处理的元素
+         */
+        private final List<T> pendingList;
+
+        private final Function<T, List<T>> getChildrenFunction;
+
+        private final Comparator<T> comparator;
+
+        private final int threshold;
+
+        SortTask(final List<T> pendingList, final Function<T, List<T>> getChildrenFunction, final Comparator<T> comparator, final int threshold) {
+            this.pendingList = pendingList;
+            this.getChildrenFunction = getChildrenFunction;
+            this.comparator = comparator;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            List<ForkJoinTask<?>> tasks = null;
+            int count = 0;
+            while (!pendingList.isEmpty()) {
+                T source = pendingList.remove(pendingList.size() - 1);
+                List<T> children = resolveSortElement(source, getChildrenFunction, comparator);
+                if (children != null) {
+                    pendingList.addAll(children);
+                }
+
+                if (++count >= threshold && pendingList.size() > 1) {
+                    //将剩余未处理元素的一半拆分为新的任务
+                    List<T> subList = pendingList.subList(0, pendingList.size() >>> 1);
+                    if (tasks == null) {
+                        tasks = new ArrayList<>();
+                    }
+                    tasks.add(new SortTask<>(new ArrayList<>(subList), getChildrenFunction, comparator, threshold).fork());
+                    subList.clear();
+                    count = 0;
+                }
+            }
+
+            if (tasks != null) {
+                for (int i = tasks.size() - 1; i >= 0; i--) {
+                    tasks.get(i).join();
+                }
+            }
         }
     }
 
+    /**
+     * 对列表进行排序 (为排序键比较器时通过排序键排序)
+     *
+     * @param list       列表
+     * @param comparator 比较器
+     * @param <T>
+     */
+    static <T> void sortList(final List<T> list, final Comparator<? super T> comparator) {
+        HierarchyKeyComparator<? super T> keyComparator = HierarchyKeyComparator.of(comparator);
+        if (keyComparator != null) {
+            keyComparator.sort(list);
+            return;
+        }
+        Collections.sort(list, comparator);
+    }
+
     /**
      * 进行排序当前数据的子数据列表
      *
@@ -72,16 +272,15 @@ public class HierarchySortUtils {
      * @param getChildrenFunction 获取children函数，必传
      * @param comparator          比较器
      * @param <T>
+     * @return 排序后的子数据列表
      */
-    private static <T> void resolveSortElement(final T source, final Function<T, List<T>> getChildrenFunction, Comparator<T> comparator) {
+    private static <T> List<T> resolveSortElement(final T source, final Function<T, List<T>> getChildrenFunction, Comparator<T> comparator) {
         List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
         if (children == null || children.isEmpty()) {
-            return;
-        }
-        Collections.sort(children, comparator);
-        for (T child : children) {
-            resolveSortElement(child, getChildrenFunction, comparator);
+            return null;
         }
+        sortList(children, comparator);
+        return children;
     }
 
 }
@@ -0,0 +1,232 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按先序遍历元素及其子元素的Spliterator (遍历时才获取子元素)
+ * <p>
+ * 使用显式栈记录各层级的子元素列表及位置,分割时按子树进行分割:
+ * 将最低层级中剩余的后半部分兄弟元素(及其子树)留给当前Spliterator,其余部分交给新的Spliterator,保持遍历顺序不变;
+ * 只剩一个元素时将该元素与其子元素分开,因此只有一个根元素时同样可以分割
+ *
+ * @param <T> 源数据类型
+ * @param <R> 结果类型
+ */
+final class HierarchySpliterator<T, R> implements Spliterator<R> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Function<T, List<T>> getChildrenFunction;
+
+    private final LevelFunction<T, R> resultFunction;
+
+    /**
+     * 各层级的列表 (栈底为下标0)
+     */
+    private List<?>[] lists;
+
+    /**
+     * 各层级列表的下一个位置
+     */
+    private int[] positions;
+
+    /**
+     * 各层级列表的结束位置 (不包含)
+     */
+    private int[] ends;
+
+    /**
+     * 栈顶下标,为-1时已遍历完成
+     */
+    private int top;
+
+    /**
+     * 栈底列表所在的层级
+     */
+    private int level;
+
+    /**
+     * 预估的元素个数,每次分割后减半
+     */
+    private long estimateSize;
+
+    HierarchySpliterator(final List<T> sourceList, final int level, final Function<T, List<T>> getChildrenFunction, final LevelFunction<T, R> resultFunction) {
+        this(getChildrenFunction, resultFunction, level, Long.MAX_VALUE);
+        push(sourceList, 0, sourceList.size());
+    }
+
+    private HierarchySpliterator(final Function<T, List<T>> getChildrenFunction, final LevelFunction<T, R> resultFunction, final int level, final long estimateSize) {
+        this.getChildrenFunction = getChildrenFunction;
+        this.resultFunction = resultFunction;
+        this.lists = new List<?>[INITIAL_CAPACITY];
+        this.positions = new int[INITIAL_CAPACITY];
+        this.ends = new int[INITIAL_CAPACITY];
+        this.top = -1;
+        this.level = level;
+        this.estimateSize = estimateSize;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super R> action) {
+        while (top >= 0) {
+            if (positions[top] < ends[top]) {
+                T source = getList(top).get(positions[top]++);
+                int currentLevel = level + top;
+                List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
+                if (children != null && !children.isEmpty()) {
+                    push(children, 0, children.size());
+                }
+                action.accept(resultFunction.apply(source, currentLevel));
+                return true;
+            }
+            lists[top--] = null;
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+        //最低层级中存在剩余元素的列表
+        int bottom = 0;
+        while (bottom <= top && positions[bottom] == ends[bottom]) {
+            bottom++;
+        }
+        if (bottom > top) {
+            return null;
+        }
+
+        HierarchySpliterator<T, R> prefix;
+        int remaining = ends[bottom] - positions[bottom];
+        if (remaining > 1 || bottom < top) {
+            //之前的元素作为新的Spliterator,当前保留该层级剩余的后半部分
+            int middle = remaining > 1 ? positions[bottom] + (remaining >>> 1) : positions[bottom];
+            estimateSize >>>= 1;
+            prefix = new HierarchySpliterator<>(getChildrenFunction, resultFunction, level + bottom, estimateSize);
+            for (int i = bottom; i <= top; i++) {
+                prefix.push(getList(i), positions[i], i == bottom ? middle : ends[i]);
+            }
+            reset(bottom, middle);
+            return prefix;
+        }
+
+        //只剩一个元素时,该元素作为新的Spliterator,当前保留其子元素
+        List<T> list = getList(bottom);
+        T source = list.get(positions[bottom]);
+        List<T> children = HierarchyHelper.resolveAndGetChildren(getChildrenFunction, source);
+        if (children == null || children.isEmpty()) {
+            return null;
+        }
+        estimateSize >>>= 1;
+        prefix = new HierarchySpliterator<>(getNoneChildrenFunction(), resultFunction, level + bottom, estimateSize);
+        prefix.push(list, positions[bottom], positions[bottom] + 1);
+        lists[0] = children;
+        positions[0] = 0;
+        ends[0] = children.size();
+        clear(1);
+        level += bottom + 1;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimateSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * 分割后只保留指定层级列表从指定位置开始的剩余部分
+     *
+     * @param index    所保留列表的栈下标
+     * @param position 开始位置
+     */
+    private void reset(final int index, final int position) {
+        lists[0] = lists[index];
+        positions[0] = position;
+        ends[0] = ends[index];
+        clear(1);
+        level += index;
+    }
+
+    private void clear(final int fromIndex) {
+        Arrays.fill(lists, fromIndex, top + 1, null);
+        top = 0;
+    }
+
+    /**
+     * 获取栈中指定下标的列表 (栈中只存放List<T>)
+     *
+     * @param index 栈下标
+     * @return 列表
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> getList(final int index) {
+        return (List<T>) lists[index];
+    }
+
+    private void push(final List<T> list, final int position, final int end) {
+        if (++top == lists.length) {
+            int capacity = lists.length << 1;
+            lists = Arrays.copyOf(lists, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        lists[top] = list;
+        positions[top] = position;
+        ends[top] = end;
+    }
+
+    /**
+     * 获取不获取子元素的函数 (分割出的单个元素使用)
+     *
+     * @param <T> 源数据类型
+     * @return 函数
+     */
+    private static <T> Function<T, List<T>> getNoneChildrenFunction() {
+        return source -> null;
+    }
+
+    /**
+     * 通过元素及其层级获取结果的函数
+     *
+     * @param <T> 源数据类型
+     * @param <R> 结果类型
+     */
+    @FunctionalInterface
+    interface LevelFunction<T, R> {
+
+        /**
+         * 获取结果
+         *
+         * @param source 元素
+         * @param level  元素所在的层级
+         * @return 结果
+         */
+        R apply(T source, int level);
+    }
+
+}
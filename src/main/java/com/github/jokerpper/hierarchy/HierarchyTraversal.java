@@ -0,0 +1,217 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 深度优先遍历 (使用显式栈,不会因层级过深导致栈溢出)
+ * <p>
+ * 回调顺序与递归遍历一致: 先进入当前元素,再依次遍历各子元素,最后退出当前元素
+ */
+final class HierarchyTraversal {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    //Suppresses default constructor, Don't let anyone instantiate this class.
+    private HierarchyTraversal() {
+    }
+
+    /**
+     * 遍历元素及其子元素的回调
+     *
+     * @param <T>
+     */
+    interface Visitor<T> {
+
+        /**
+         * 进入元素
+         *
+         * @param current 当前元素
+         * @param parent  父级元素 第一层级时为Null
+         * @param level   层级
+         * @return 要继续遍历的子元素列表, 为Null或空列表时不再遍历
+         */
+        List<T> enter(T current, T parent, int level);
+
+        /**
+         * 退出元素 (其子元素已全部遍历)
+         *
+         * @param current 当前元素
+         * @param level   层级
+         */
+        default void exit(T current, int level) {
+
+        }
+
+        /**
+         * 是否终止遍历 (每次进入元素后检查,终止时不再遍历剩余元素且不再退出元素)
+         *
+         * @return boolean值
+         */
+        default boolean isTerminated() {
+            return false;
+        }
+    }
+
+    /**
+     * 遍历元素下标及其子元素下标的回调
+     */
+    interface IndexVisitor {
+
+        /**
+         * 进入元素
+         *
+         * @param index 元素下标
+         * @param depth 相对于开始元素的深度,开始元素为0
+         */
+        default void enter(int index, int depth) {
+
+        }
+
+        /**
+         * 退出元素 (其子元素已全部遍历)
+         *
+         * @param index 元素下标
+         * @param depth 相对于开始元素的深度,开始元素为0
+         */
+        default void exit(int index, int depth) {
+
+        }
+    }
+
+    /**
+     * 依次遍历列表中的元素及其子元素
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param level      列表元素所在的层级
+     * @param visitor    回调
+     * @param <T>
+     */
+    static <T> void each(final List<T> sourceList, final int level, final Visitor<T> visitor) {
+        Object[] nodes = new Object[INITIAL_CAPACITY];
+        //各层级子元素列表的迭代器 (非RandomAccess的列表通过下标获取时较慢)
+        Iterator<?>[] iterators = new Iterator<?>[INITIAL_CAPACITY];
+
+        for (T source : sourceList) {
+            nodes[0] = source;
+            iterators[0] = getIterator(visitor.enter(source, null, level));
+            if (visitor.isTerminated()) {
+                return;
+            }
+            int depth = 0;
+
+            while (depth >= 0) {
+                Iterator<?> iterator = iterators[depth];
+                if (iterator != null && iterator.hasNext()) {
+                    //进入下一个子元素 (迭代器均来自visitor返回的List<T>)
+                    @SuppressWarnings("unchecked")
+                    T child = (T) iterator.next();
+                    @SuppressWarnings("unchecked")
+                    T parent = (T) nodes[depth];
+                    if (++depth == nodes.length) {
+                        int capacity = nodes.length << 1;
+                        nodes = Arrays.copyOf(nodes, capacity);
+                        iterators = Arrays.copyOf(iterators, capacity);
+                    }
+                    nodes[depth] = child;
+                    iterators[depth] = getIterator(visitor.enter(child, parent, level + depth));
+                    if (visitor.isTerminated()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                //子元素已全部遍历时退出
+                @SuppressWarnings("unchecked")
+                T current = (T) nodes[depth];
+                visitor.exit(current, level + depth);
+                nodes[depth] = null;
+                iterators[depth] = null;
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * 获取子元素列表的迭代器
+     *
+     * @param children 子元素列表
+     * @param <T>
+     * @return 为Null或空列表时返回Null
+     */
+    private static <T> Iterator<T> getIterator(final List<T> children) {
+        return children == null || children.isEmpty() ? null : children.iterator();
+    }
+
+    /**
+     * 遍历开始元素及其全部子元素 (通过子元素索引)
+     *
+     * @param childrenIndex 元素的子元素索引
+     * @param index         开始元素下标
+     * @param visitor       回调
+     */
+    static void each(final HierarchyChildrenIndex<?> childrenIndex, final int index, final IndexVisitor visitor) {
+        each(childrenIndex, index, Integer.MAX_VALUE, visitor);
+    }
+
+    /**
+     * 遍历开始元素及其不超过最大深度的子元素 (通过子元素索引)
+     *
+     * @param childrenIndex 元素的子元素索引
+     * @param index         开始元素下标
+     * @param maxDepth      最大深度(开始元素为0),该深度元素的子元素不再遍历
+     * @param visitor       回调
+     */
+    static void each(final HierarchyChildrenIndex<?> childrenIndex, final int index, final int maxDepth, final IndexVisitor visitor) {
+        int[] indexes = new int[INITIAL_CAPACITY];
+        int[] positions = new int[INITIAL_CAPACITY];
+        int[] ends = new int[INITIAL_CAPACITY];
+
+        indexes[0] = index;
+        positions[0] = childrenIndex.getChildrenStart(index);
+        ends[0] = maxDepth > 0 ? childrenIndex.getChildrenEnd(index) : positions[0];
+        visitor.enter(index, 0);
+        int depth = 0;
+
+        while (depth >= 0) {
+            if (positions[depth] < ends[depth]) {
+                //进入下一个子元素
+                int childIndex = childrenIndex.getChildIndex(positions[depth]++);
+                if (++depth == indexes.length) {
+                    int capacity = indexes.length << 1;
+                    indexes = Arrays.copyOf(indexes, capacity);
+                    positions = Arrays.copyOf(positions, capacity);
+                    ends = Arrays.copyOf(ends, capacity);
+                }
+                indexes[depth] = childIndex;
+                positions[depth] = childrenIndex.getChildrenStart(childIndex);
+                ends[depth] = depth < maxDepth ? childrenIndex.getChildrenEnd(childIndex) : positions[depth];
+                visitor.enter(childIndex, depth);
+                continue;
+            }
+
+            //子元素已全部遍历时退出
+            visitor.exit(indexes[depth], depth);
+            depth--;
+        }
+    }
+
+}
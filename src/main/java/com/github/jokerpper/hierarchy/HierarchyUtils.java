@@ -18,10 +18,15 @@
 package com.github.jokerpper.hierarchy;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.ObjIntConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * @author joker-pper 2020-12-23
@@ -32,25 +37,29 @@ public class HierarchyUtils {
     private HierarchyUtils() {
     }
 
-    public static class HierarchyFunctions<T, V, R> {
+    /**
+     * 叶子元素的children
+     */
+    public enum LeafChildren {
 
         /**
-         * 判断是否为root函数
-         * 必选
+         * 设置为Null
          */
-        private Function<V, Boolean> isRootFunction;
+        NULL,
 
         /**
-         * 获取 pid函数
-         * 必选
+         * 设置为共享的不可变空列表
          */
-        private Function<T, V> getPidFunction;
+        EMPTY
+    }
 
-        /**
-         * 获取 id函数
-         * 必选
-         */
-        private Function<T, V> getIdFunction;
+    /**
+     * 转换为树形结构时各函数共用的选项 (不包含id相关的函数)
+     *
+     * @param <T> 源数据类型
+     * @param <R> 转换结果类型
+     */
+    public abstract static class AbstractHierarchyFunctions<T, R> {
 
         /**
          * 获取children函数
@@ -90,29 +99,66 @@ public class HierarchyUtils {
          */
         private Supplier<Boolean> isWithRoot;
 
-        public Function<V, Boolean> getIsRootFunction() {
-            return isRootFunction;
-        }
+        /**
+         * 是否只对同级元素进行排序
+         * 可选,默认false,开启且存在比较器时不再对筛选后的源数据列表整体排序,而是在建立子元素索引后分别对各父元素的子元素进行排序(结果一致),
+         * 并行处理时会并行排序各父元素的子元素
+         */
+        private Supplier<Boolean> isSortSiblings;
 
-        public void setIsRootFunction(Function<V, Boolean> isRootFunction) {
-            this.isRootFunction = isRootFunction;
-        }
+        /**
+         * 最大层级
+         * 可选,root的直接子元素为1,未指定时不限制,超过该层级的元素不再转换及设置children(不转换时该层级元素的children设置为Null),
+         * 此时不会处理不可达的元素
+         */
+        private Supplier<Integer> maxDepth;
 
-        public Function<T, V> getGetPidFunction() {
-            return getPidFunction;
-        }
+        /**
+         * 接收最大层级中仍存在子元素的元素及其子元素个数的回调
+         * 可选,指定maxDepth时有效
+         */
+        private ObjIntConsumer<R> truncatedConsumer;
 
-        public void setGetPidFunction(Function<T, V> getPidFunction) {
-            this.getPidFunction = getPidFunction;
-        }
+        /**
+         * 是否直接使用源数据列表
+         * 可选,默认false,开启且未指定getChildrenFunction及filterPredicate时不再复制源数据列表,直接通过源数据列表进行处理:
+         * 存在比较器且未开启isSortSiblings时会对源数据列表原地排序(需支持set),处理期间不能修改源数据列表,处理后源数据列表不会被清空
+         */
+        private Supplier<Boolean> isUseSourceList;
 
-        public Function<T, V> getGetIdFunction() {
-            return getIdFunction;
-        }
+        /**
+         * 叶子元素(不存在子元素的元素,包含超过最大层级不再设置children的元素)的children
+         * 可选,未指定时保持原有处理(不转换时设置为Null,转换时不进行设置),指定后各处理方式均按该值进行设置
+         */
+        private LeafChildren leafChildren;
 
-        public void setGetIdFunction(Function<T, V> getIdFunction) {
-            this.getIdFunction = getIdFunction;
-        }
+        /**
+         * 子元素列表函数
+         * 可选,接收按子元素个数创建的子元素列表,返回要设置的子元素列表(如转换为不可变或自定义的列表),不作用于叶子元素
+         * <p>
+         * 开启isLazyChildren时接收的为延迟处理的子元素列表,该函数在设置children时执行,读取其中的元素(如children.get(0))会立即处理该子元素列表
+         */
+        private Function<List<R>, List<R>> childrenListFunction;
+
+        /**
+         * 是否延迟处理子元素
+         * 可选,默认false,开启时只建立子元素索引及处理root的直接子元素,各元素的子元素在首次访问其子元素列表时才进行转换及设置
+         * (子元素列表不可修改,获取元素个数时不进行处理),此时不使用isParallel且不会处理不可达的元素,处理结果会持有子元素索引及要处理的元素列表
+         */
+        private Supplier<Boolean> isLazyChildren;
+
+        /**
+         * 是否并行处理
+         * 可选,默认false,开启且元素较多时会通过forkJoinPool并行转换及设置children(按子树大小拆分任务),
+         * 此时转换函数及设置children函数需支持多线程调用
+         */
+        private Supplier<Boolean> isParallel;
+
+        /**
+         * 并行处理时所使用的ForkJoinPool
+         * 可选,未指定时使用ForkJoinPool.commonPool()
+         */
+        private ForkJoinPool forkJoinPool;
 
         public Function<T, List<T>> getGetChildrenFunction() {
             return getChildrenFunction;
@@ -161,6 +207,187 @@ public class HierarchyUtils {
         public void setIsWithRoot(Supplier<Boolean> isWithRoot) {
             this.isWithRoot = isWithRoot;
         }
+
+        public Supplier<Boolean> getIsSortSiblings() {
+            return isSortSiblings;
+        }
+
+        public void setIsSortSiblings(Supplier<Boolean> isSortSiblings) {
+            this.isSortSiblings = isSortSiblings;
+        }
+
+        public Supplier<Integer> getMaxDepth() {
+            return maxDepth;
+        }
+
+        public void setMaxDepth(Supplier<Integer> maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+
+        public ObjIntConsumer<R> getTruncatedConsumer() {
+            return truncatedConsumer;
+        }
+
+        public void setTruncatedConsumer(ObjIntConsumer<R> truncatedConsumer) {
+            this.truncatedConsumer = truncatedConsumer;
+        }
+
+        public Supplier<Boolean> getIsUseSourceList() {
+            return isUseSourceList;
+        }
+
+        public void setIsUseSourceList(Supplier<Boolean> isUseSourceList) {
+            this.isUseSourceList = isUseSourceList;
+        }
+
+        public LeafChildren getLeafChildren() {
+            return leafChildren;
+        }
+
+        public void setLeafChildren(LeafChildren leafChildren) {
+            this.leafChildren = leafChildren;
+        }
+
+        public Function<List<R>, List<R>> getChildrenListFunction() {
+            return childrenListFunction;
+        }
+
+        public void setChildrenListFunction(Function<List<R>, List<R>> childrenListFunction) {
+            this.childrenListFunction = childrenListFunction;
+        }
+
+        public Supplier<Boolean> getIsLazyChildren() {
+            return isLazyChildren;
+        }
+
+        public void setIsLazyChildren(Supplier<Boolean> isLazyChildren) {
+            this.isLazyChildren = isLazyChildren;
+        }
+
+        public Supplier<Boolean> getIsParallel() {
+            return isParallel;
+        }
+
+        public void setIsParallel(Supplier<Boolean> isParallel) {
+            this.isParallel = isParallel;
+        }
+
+        public ForkJoinPool getForkJoinPool() {
+            return forkJoinPool;
+        }
+
+        public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+        }
+    }
+
+    public static class HierarchyFunctions<T, V, R> extends AbstractHierarchyFunctions<T, R> {
+
+        /**
+         * 判断是否为root函数
+         * 必选
+         */
+        private Function<V, Boolean> isRootFunction;
+
+        /**
+         * 获取 pid函数
+         * 必选
+         */
+        private Function<T, V> getPidFunction;
+
+        /**
+         * 获取 id函数
+         * 必选
+         */
+        private Function<T, V> getIdFunction;
+
+        public Function<V, Boolean> getIsRootFunction() {
+            return isRootFunction;
+        }
+
+        public void setIsRootFunction(Function<V, Boolean> isRootFunction) {
+            this.isRootFunction = isRootFunction;
+        }
+
+        public Function<T, V> getGetPidFunction() {
+            return getPidFunction;
+        }
+
+        public void setGetPidFunction(Function<T, V> getPidFunction) {
+            this.getPidFunction = getPidFunction;
+        }
+
+        public Function<T, V> getGetIdFunction() {
+            return getIdFunction;
+        }
+
+        public void setGetIdFunction(Function<T, V> getIdFunction) {
+            this.getIdFunction = getIdFunction;
+        }
+    }
+
+    /**
+     * id为long(或int)类型时所使用的函数,id及pid不进行装箱
+     * <p>
+     * int类型的id可直接使用,如: Menu::getId (属性为Integer/Long时仍会拆箱,不再装箱为map的key)
+     * <p>
+     * 注: id及pid不支持null,拆箱时会抛出NullPointerException,
+     * 当root元素的pid为null时需转换为isRootFunction所判断的值,如: {@code menu -> menu.getPid() == null ? -1L : menu.getPid()}
+     */
+    public static class HierarchyLongFunctions<T, R> extends AbstractHierarchyFunctions<T, R> {
+
+        /**
+         * 判断是否为root函数
+         * 必选
+         */
+        private LongPredicate isRootFunction;
+
+        /**
+         * 获取 pid函数
+         * 必选 (pid为null时需转换为root值,否则抛出NullPointerException)
+         */
+        private ToLongFunction<T> getPidFunction;
+
+        /**
+         * 获取 id函数
+         * 必选 (id不支持null)
+         */
+        private ToLongFunction<T> getIdFunction;
+
+        public LongPredicate getIsRootFunction() {
+            return isRootFunction;
+        }
+
+        public void setIsRootFunction(LongPredicate isRootFunction) {
+            this.isRootFunction = isRootFunction;
+        }
+
+        public ToLongFunction<T> getGetPidFunction() {
+            return getPidFunction;
+        }
+
+        /**
+         * 设置获取pid函数
+         *
+         * @param getPidFunction 不支持返回null (如Menu::getPid在pid为null时拆箱会抛出NullPointerException),
+         *                       缺少pid时需转换为isRootFunction所判断的值,如: {@code menu -> menu.getPid() == null ? -1L : menu.getPid()}
+         */
+        public void setGetPidFunction(ToLongFunction<T> getPidFunction) {
+            this.getPidFunction = getPidFunction;
+        }
+
+        public ToLongFunction<T> getGetIdFunction() {
+            return getIdFunction;
+        }
+
+        /**
+         * 设置获取id函数
+         *
+         * @param getIdFunction 不支持返回null (如Menu::getId在id为null时拆箱会抛出NullPointerException)
+         */
+        public void setGetIdFunction(ToLongFunction<T> getIdFunction) {
+            this.getIdFunction = getIdFunction;
+        }
     }
 
     /**
@@ -189,7 +416,7 @@ public class HierarchyUtils {
      *
      * @param sourceList 源数据列表，不能存在为Null的子元素
      * @param functions  函数
-     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
      * @param <T>        源数据类型
      * @param <R>        转换结果类型
      * @param <V>        ID属性类型
@@ -197,121 +424,315 @@ public class HierarchyUtils {
      * @see HierarchySortUtils
      */
     public static <T, R, V> List<R> getHierarchyResult(final List<T> sourceList, final HierarchyFunctions<T, V, R> functions, final Comparator<? super T> comparator) {
+        return getHierarchyResult(sourceList, functions, comparator, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 将源数据列表转换为树形结构
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param workspace  构建时所使用的缓冲区
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 转换结果
+     * @see HierarchyBuilder
+     */
+    static <T, R, V> List<R> getHierarchyResult(final List<T> sourceList, final HierarchyFunctions<T, V, R> functions
+            , final Comparator<? super T> comparator, final HierarchyWorkspace workspace) {
+        return getHierarchyPlan(functions, comparator).build(sourceList, workspace);
+    }
+
+    /**
+     * 获取将源数据列表转换为树形结构的计划 (读取并检查函数,之后不再读取functions)
+     *
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 计划
+     * @see HierarchyPlan
+     */
+    static <T, R, V> HierarchyPlan<T, R> getHierarchyPlan(final HierarchyFunctions<T, V, R> functions, final Comparator<? super T> comparator) {
         //检查参数
         Objects.requireNonNull(functions, "functions must be not null");
 
         Function<V, Boolean> isRootFunction = functions.getIsRootFunction();
         Function<T, V> getPidFunction = functions.getGetPidFunction();
         Function<T, V> getIdFunction = functions.getGetIdFunction();
-        Function<T, List<T>> getChildrenFunction = functions.getGetChildrenFunction();
-        Function<T, R> transferFunction = functions.getTransferFunction();
-        BiConsumer<R, List<R>> setChildrenFunction = functions.getSetChildrenFunction();
-        Predicate<T> filterPredicate = functions.getFilterPredicate();
 
         Objects.requireNonNull(isRootFunction, "is root function must be not null");
         Objects.requireNonNull(getPidFunction, "get pid function must be not null");
         Objects.requireNonNull(getIdFunction, "get id function must be not null");
-        Objects.requireNonNull(setChildrenFunction, "set children function must be not null");
 
-        //是否启用转换
-        boolean isEnableTransfer = HierarchyHelper.getBooleanValue(functions.getIsEnableTransfer(), transferFunction != null);
-        if (isEnableTransfer) {
-            Objects.requireNonNull(transferFunction, "when enable transfer, transfer function must be not null");
-        }
+        return new HierarchyPlan<>(new TreePlan<>(getChildrenIndexFunction(getIdFunction, getPidFunction, isRootFunction)
+                , functions, comparator, false));
+    }
 
-        boolean isWithRoot = HierarchyHelper.getBooleanValue(functions.getIsWithRoot(), false);
+    /**
+     * 获取元素所对应的子元素索引(但不包含root)的函数
+     *
+     * @param getIdFunction  获取 id函数
+     * @param getPidFunction 获取 pid函数
+     * @param isRootFunction 是否为 root函数
+     * @param <T>
+     * @param <V>
+     * @return
+     */
+    private static <T, V> BiFunction<List<T>, HierarchyWorkspace, HierarchyChildrenIndex<T>> getChildrenIndexFunction(final Function<T, V> getIdFunction
+            , final Function<T, V> getPidFunction, final Function<V, Boolean> isRootFunction) {
+        return (toResolveSourceList, workspace) -> HierarchyChildrenIndex.of(toResolveSourceList
+                , HierarchyChildrenIndex.getIds(toResolveSourceList, getIdFunction, workspace)
+                , getPidFunction, isRootFunction, workspace.getSlotMap(), workspace);
+    }
 
-        //检查数据是否为空
-        if (sourceList == null || sourceList.isEmpty()) {
-            return Collections.emptyList();
-        }
 
-        List<T> toResolveSourceList = null;
-        Map<V, List<T>> toResolveSourceIdChildrenMap = null;
-        try {
-            //获取当前要处理的元素列表
-            toResolveSourceList = HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate);
+    /**
+     * 将源数据列表中以指定id为根的子树转换为树形结构
+     * <p>
+     * 以id作为root建立一次元素的子元素索引,之后按与 getHierarchyResult 相同的选项只转换及设置该id的子元素(包含子元素的子元素),
+     * 不会处理子树以外的元素;同一份数据需多次查询时可使用 HierarchyIndex
+     * <p>
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (不使用isRootFunction,maxDepth以id的直接子元素为1)
+     * @param id         开始的id (可以为不存在元素的root id)
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 转换结果, 开启isWithRoot时为id所对应的元素(必须存在且只允许存在一个),反之为id的直接子元素列表
+     * @see HierarchyIndex
+     */
+    public static <T, R, V> List<R> getHierarchyResultById(final List<T> sourceList, final HierarchyFunctions<T, V, R> functions, final V id) {
+        return getHierarchyResultById(sourceList, functions, id, null);
+    }
 
-            //进行排序数据列表
-            if (comparator != null && toResolveSourceList.size() > 1) {
-                Collections.sort(toResolveSourceList, comparator);
-            }
+    /**
+     * 将源数据列表中以指定id为根的子树转换为树形结构
+     * <p>
+     * 以id作为root建立一次元素的子元素索引,之后按与 getHierarchyResult 相同的选项只转换及设置该id的子元素(包含子元素的子元素),
+     * 不会处理子树以外的元素;同一份数据需多次查询时可使用 HierarchyIndex
+     * <p>
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数 (不使用isRootFunction,maxDepth以id的直接子元素为1)
+     * @param id         开始的id (可以为不存在元素的root id)
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (开启isSortSiblings时只对各元素的子元素进行排序)
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @param <V>        ID属性类型
+     * @return 转换结果, 开启isWithRoot时为id所对应的元素(必须存在且只允许存在一个),反之为id的直接子元素列表
+     * @see HierarchyIndex
+     */
+    public static <T, R, V> List<R> getHierarchyResultById(final List<T> sourceList, final HierarchyFunctions<T, V, R> functions, final V id, final Comparator<? super T> comparator) {
+        //检查参数
+        Objects.requireNonNull(functions, "functions must be not null");
 
-            //获取元素id所对应的子元素(但不包含root pid)
-            toResolveSourceIdChildrenMap = HierarchyHelper.initAndGetIdChildrenResultMap(toResolveSourceList, getIdFunction, getPidFunction, isRootFunction);
+        Function<T, V> getPidFunction = functions.getGetPidFunction();
+        Function<T, V> getIdFunction = functions.getGetIdFunction();
 
-            //处理数据
-            List<R> rootList = isWithRoot ? new ArrayList<>(2) : null;
-            List<R> results = new ArrayList<>(512);
+        Objects.requireNonNull(getPidFunction, "get pid function must be not null");
+        Objects.requireNonNull(getIdFunction, "get id function must be not null");
 
-            if (!isEnableTransfer) {
-                for (T toResolveSource : toResolveSourceList) {
-                    resolveHierarchyWithoutEnableTransfer(results, toResolveSource
-                            , toResolveSourceIdChildrenMap, rootList
-                            , isRootFunction, getPidFunction
-                            , getIdFunction, setChildrenFunction);
-                }
-            } else {
-                for (T toResolveSource : toResolveSourceList) {
-                    R transferResult = HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
-                    resolveHierarchyWithEnableTransfer(results, toResolveSource, transferResult
-                            , toResolveSourceIdChildrenMap, rootList
-                            , isRootFunction, getPidFunction
-                            , getIdFunction, transferFunction
-                            , setChildrenFunction);
-                }
-            }
+        //以id作为root,只处理id的子元素可达的元素
+        Function<V, Boolean> isRootFunction = value -> Objects.equals(id, value);
+        return new TreePlan<>(getChildrenIndexFunction(getIdFunction, getPidFunction, isRootFunction)
+                , functions, comparator, true).apply(sourceList, HierarchyWorkspace.NONE);
+    }
 
-            if (!isWithRoot) {
-                //不包含root时直接返回
-                return results;
-            }
+    /**
+     * 将源数据列表转换为树形结构 (id为long或int类型,id及pid不进行装箱)
+     * <p>
+     * 若对结果有排序需要,可通过 HierarchySortUtils 进行排序
+     * <p>
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 转换结果
+     * @see HierarchySortUtils
+     */
+    public static <T, R> List<R> getHierarchyResultByLongId(final List<T> sourceList, final HierarchyLongFunctions<T, R> functions) {
+        return getHierarchyResultByLongId(sourceList, functions, null);
+    }
+
+    /**
+     * 将源数据列表转换为树形结构 (id为long或int类型,id及pid不进行装箱)
+     * <p>
+     * 若对结果有排序需要,可通过 HierarchySortUtils 进行排序
+     * <p>
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序 (可通过 HierarchySortUtils.comparingIntKey 等获取按排序键排序的比较器)
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 转换结果
+     * @see HierarchySortUtils
+     */
+    public static <T, R> List<R> getHierarchyResultByLongId(final List<T> sourceList, final HierarchyLongFunctions<T, R> functions, final Comparator<? super T> comparator) {
+        return getHierarchyResultByLongId(sourceList, functions, comparator, HierarchyWorkspace.NONE);
+    }
+
+    /**
+     * 将源数据列表转换为树形结构 (id为long或int类型,id及pid不进行装箱)
+     *
+     * @param sourceList 源数据列表，不能存在为Null的子元素
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param workspace  构建时所使用的缓冲区
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 转换结果
+     * @see HierarchyBuilder
+     */
+    static <T, R> List<R> getHierarchyResultByLongId(final List<T> sourceList, final HierarchyLongFunctions<T, R> functions
+            , final Comparator<? super T> comparator, final HierarchyWorkspace workspace) {
+        return getHierarchyPlanByLongId(functions, comparator).build(sourceList, workspace);
+    }
 
-            //检查rootList是否合法
-            HierarchyHelper.checkRootList(rootList);
+    /**
+     * 获取将源数据列表转换为树形结构的计划 (id为long或int类型,读取并检查函数,之后不再读取functions)
+     *
+     * @param functions  函数
+     * @param comparator 可选 存在时会对筛选后的源数据列表进行排序
+     * @param <T>        源数据类型
+     * @param <R>        转换结果类型
+     * @return 计划
+     * @see HierarchyPlan
+     */
+    static <T, R> HierarchyPlan<T, R> getHierarchyPlanByLongId(final HierarchyLongFunctions<T, R> functions, final Comparator<? super T> comparator) {
+        //检查参数
+        Objects.requireNonNull(functions, "functions must be not null");
+
+        LongPredicate isRootFunction = functions.getIsRootFunction();
+        ToLongFunction<T> getPidFunction = functions.getGetPidFunction();
+        ToLongFunction<T> getIdFunction = functions.getGetIdFunction();
+
+        Objects.requireNonNull(isRootFunction, "is root function must be not null");
+        Objects.requireNonNull(getPidFunction, "get pid function must be not null");
+        Objects.requireNonNull(getIdFunction, "get id function must be not null");
 
-            //设置root子元素
-            HierarchyHelper.resolveAndSetChildren(setChildrenFunction, rootList.get(0), results);
+        return new HierarchyPlan<>(new TreePlan<>(
+                //获取元素所对应的子元素索引(但不包含root)
+                (toResolveSourceList, workspace) -> HierarchyChildrenIndex.ofLongId(toResolveSourceList, getIdFunction, getPidFunction, isRootFunction, workspace)
+                , functions, comparator, false));
+    }
 
-            return rootList;
-        } finally {
 
-            if (toResolveSourceList != null) {
-                toResolveSourceList.clear();
+    /**
+     * 并行处理数据
+     * <p>
+     * 顺序确定root及root的直接子元素后,通过ForkJoinPool并行转换及设置children
+     *
+     * @param childrenIndex
+     * @param order               元素的处理顺序,为Null时按下标顺序
+     * @param rootList
+     * @param transferFunction    转换函数,不启用转换时为Null
+     * @param setChildrenFunction
+     * @param forkJoinPool
+     * @param threshold           顺序处理的元素个数阈值
+     * @param isOnlyReachable     是否只处理root的直接子元素可达的元素
+     * @param <T>
+     * @param <R>
+     * @return root的直接子元素列表
+     */
+    private static <T, R> List<R> resolveHierarchyWithParallel(final HierarchyChildrenIndex<T> childrenIndex, final int[] order, final List<R> rootList
+            , final Function<T, R> transferFunction
+            , final BiConsumer<R, List<R>> setChildrenFunction
+            , final ForkJoinPool forkJoinPool, final int threshold, final boolean isOnlyReachable) {
+        int size = childrenIndex.size();
+        //启用转换时为root的直接子元素下标,反之为全部非root的元素下标
+        int[] indexes = new int[size];
+        int count = 0;
+        List<R> results = new ArrayList<>(512);
+        for (int i = 0; i < size; i++) {
+            int index = order == null ? i : order[i];
+            if (childrenIndex.isRoot(index)) {
+                //启用root时且当前元素为root放入rootList
+                if (rootList != null) {
+                    T toResolveSource = childrenIndex.getElement(index);
+                    @SuppressWarnings("unchecked")
+                    R rootResult = transferFunction == null ? (R) toResolveSource
+                            : HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
+                    HierarchyHelper.addRoot(rootList, rootResult);
+                }
+                continue;
             }
 
-            if (toResolveSourceIdChildrenMap != null) {
-                toResolveSourceIdChildrenMap.clear();
+            boolean isRootDirectChild = childrenIndex.isRootDirectChild(index);
+            if (transferFunction == null) {
+                if (isRootDirectChild) {
+                    @SuppressWarnings("unchecked")
+                    R result = (R) childrenIndex.getElement(index);
+                    results.add(result);
+                }
+                if (!isOnlyReachable) {
+                    indexes[count++] = index;
+                }
+            } else if (isRootDirectChild) {
+                indexes[count++] = index;
             }
+        }
 
+        HierarchyParallelBuilder<T, R> builder = new HierarchyParallelBuilder<>(childrenIndex, transferFunction, setChildrenFunction, threshold);
+        if (transferFunction == null) {
+            if (isOnlyReachable) {
+                //只设置root的直接子元素可达的元素的子元素
+                count = getReachableIndexes(childrenIndex, indexes);
+            }
+            builder.resolveWithoutTransfer(forkJoinPool, indexes, count);
+            return results;
         }
+        return builder.resolveWithTransfer(forkJoinPool, Arrays.copyOf(indexes, count));
     }
 
+    /**
+     * 获取root的直接子元素及其可达的子元素的下标
+     *
+     * @param childrenIndex 元素的子元素索引
+     * @param indexes       用于存放下标的数组
+     * @return 下标个数
+     */
+    private static int getReachableIndexes(final HierarchyChildrenIndex<?> childrenIndex, final int[] indexes) {
+        int[] count = new int[1];
+        HierarchyTraversal.IndexVisitor visitor = new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void enter(int index, int depth) {
+                indexes[count[0]++] = index;
+            }
+        };
+        int size = childrenIndex.size();
+        for (int index = 0; index < size; index++) {
+            if (childrenIndex.isRootDirectChild(index)) {
+                HierarchyTraversal.each(childrenIndex, index, visitor);
+            }
+        }
+        return count[0];
+    }
 
     /**
      * 处理未转换的数据
      *
      * @param results
-     * @param toResolveSource
-     * @param toResolveSourceIdChildrenMap
+     * @param index
+     * @param childrenIndex
      * @param rootList
-     * @param isRootFunction
-     * @param getPidFunction
-     * @param getIdFunction
      * @param setChildrenFunction
      * @param <T>
      * @param <R>
-     * @param <V>
      */
-    private static <T, R, V> void resolveHierarchyWithoutEnableTransfer(final List<R> results, final T toResolveSource
-            , final Map<V, List<T>> toResolveSourceIdChildrenMap, final List<R> rootList
-            , final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
-            , final Function<T, V> getIdFunction, final BiConsumer<R, List<R>> setChildrenFunction) {
-        V id = getIdFunction.apply(toResolveSource);
-        V pid = getPidFunction.apply(toResolveSource);
-        R transferResult = (R) toResolveSource;
-        boolean isRoot = isRootFunction.apply(id);
-        if (isRoot) {
+    private static <T, R> void resolveHierarchyWithoutEnableTransfer(final List<R> results, final int index
+            , final HierarchyChildrenIndex<T> childrenIndex, final List<R> rootList
+            , final BiConsumer<R, List<R>> setChildrenFunction) {
+        //未转换时R与T为同一类型
+        @SuppressWarnings("unchecked")
+        R transferResult = (R) childrenIndex.getElement(index);
+        if (childrenIndex.isRoot(index)) {
             //启用root时且当前元素为root放入rootList
             if (rootList != null) {
                 HierarchyHelper.addRoot(rootList, transferResult);
@@ -319,14 +740,14 @@ public class HierarchyUtils {
             return;
         }
 
-        boolean isRootDirectChild = isRootFunction.apply(pid);
-        if (isRootDirectChild) {
+        if (childrenIndex.isRootDirectChild(index)) {
             //是root直接子元素时
             results.add(transferResult);
         }
 
-        //获取当前元素的子元素列表
-        List<R> transferChildrenList = (List<R>) toResolveSourceIdChildrenMap.get(id);
+        //获取当前元素的子元素列表 (未转换时R与T为同一类型)
+        @SuppressWarnings("unchecked")
+        List<R> transferChildrenList = (List<R>) childrenIndex.getChildren(index);
         //处理children
         HierarchyHelper.resolveAndSetChildren(setChildrenFunction, transferResult, transferChildrenList);
 
@@ -334,76 +755,430 @@ public class HierarchyUtils {
 
     /**
      * 处理启用转换的数据
+     * <p>
+     * 只转换root元素(启用root时)及root的直接子元素,其余可达的子元素在处理children时进行转换,不可达的元素不进行转换
      *
      * @param results
-     * @param toResolveSource
-     * @param transferResult
-     * @param toResolveSourceIdChildrenMap
+     * @param index
+     * @param childrenIndex
      * @param rootList
-     * @param isRootFunction
-     * @param getPidFunction
-     * @param getIdFunction
      * @param transferFunction
      * @param setChildrenFunction
      * @param <T>
      * @param <R>
-     * @param <V>
      */
-    private static <T, R, V> void resolveHierarchyWithEnableTransfer(final List<R> results, final T toResolveSource, final R transferResult
-            , final Map<V, List<T>> toResolveSourceIdChildrenMap, final List<R> rootList
-            , final Function<V, Boolean> isRootFunction, final Function<T, V> getPidFunction
-            , final Function<T, V> getIdFunction, Function<T, R> transferFunction
+    private static <T, R> void resolveHierarchyWithEnableTransfer(final List<R> results, final int index
+            , final HierarchyChildrenIndex<T> childrenIndex, final List<R> rootList
+            , Function<T, R> transferFunction
             , final BiConsumer<R, List<R>> setChildrenFunction) {
 
-        V id = getIdFunction.apply(toResolveSource);
-        V pid = getPidFunction.apply(toResolveSource);
-        boolean isRoot = isRootFunction.apply(id);
-        if (isRoot) {
+        T toResolveSource = childrenIndex.getElement(index);
+        if (childrenIndex.isRoot(index)) {
             //启用root时且当前元素为root放入rootList
             if (rootList != null) {
-                HierarchyHelper.addRoot(rootList, transferResult);
+                HierarchyHelper.addRoot(rootList, HierarchyHelper.getTransferResult(transferFunction, toResolveSource));
             }
             return;
         }
 
-        boolean isRootDirectChild = isRootFunction.apply(pid);
-        if (isRootDirectChild) {
+        if (childrenIndex.isRootDirectChild(index)) {
             //是root直接子元素时
+            R transferResult = HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
             results.add(transferResult);
 
             //处理当前元素的子元素列表
-            resolveWithChildren(toResolveSourceIdChildrenMap
-                    , getIdFunction, transferFunction
+            resolveWithChildren(childrenIndex
+                    , transferFunction
                     , setChildrenFunction
-                    , transferResult, id);
+                    , transferResult, index);
         }
     }
 
+    /**
+     * 转换并设置元素的子元素(包含子元素的子元素)
+     *
+     * @param childrenIndex       元素的子元素索引
+     * @param transferFunction    转换函数
+     * @param setChildrenFunction 设置children函数
+     * @param transferResult      当前元素转换后的结果
+     * @param index               当前元素下标
+     * @param <T>
+     * @param <R>
+     */
+    static <T, R> void resolveWithChildren(final HierarchyChildrenIndex<T> childrenIndex
+            , final Function<T, R> transferFunction
+            , final BiConsumer<R, List<R>> setChildrenFunction
+            , final R transferResult, final int index) {
+        if (childrenIndex.getChildrenStart(index) == childrenIndex.getChildrenEnd(index)) {
+            if (HierarchyHelper.isSetLeafChildren(setChildrenFunction)) {
+                //设置叶子元素的children
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, transferResult, null);
+            }
+            return;
+        }
+        HierarchyTraversal.each(childrenIndex, index, new TransferChildrenVisitor<>(childrenIndex
+                , transferFunction, setChildrenFunction, transferResult, Integer.MAX_VALUE, null));
+    }
 
-    private static <T, R, V> void resolveWithChildren(final Map<V, List<T>> toResolveSourceIdChildrenMap
-            , final Function<T, V> getIdFunction
+    /**
+     * 处理root的直接子元素及其不超过最大层级的子元素
+     *
+     * @param childrenIndex       元素的子元素索引
+     * @param transferFunction    转换函数,不启用转换时为Null
+     * @param setChildrenFunction 设置children函数
+     * @param index               root直接子元素的下标
+     * @param maxDepth            最大层级(root的直接子元素为1)
+     * @param truncatedConsumer   接收最大层级中仍存在子元素的元素及其子元素个数的回调,可为Null
+     * @param <T>
+     * @param <R>
+     * @return root直接子元素的结果
+     */
+    @SuppressWarnings("unchecked")
+    private static <T, R> R resolveWithMaxDepth(final HierarchyChildrenIndex<T> childrenIndex
             , final Function<T, R> transferFunction
             , final BiConsumer<R, List<R>> setChildrenFunction
-            , final R transferResult, final V id) {
-        List<T> currentSourceChildrenList = toResolveSourceIdChildrenMap.get(id);
+            , final int index, final int maxDepth
+            , final ObjIntConsumer<R> truncatedConsumer) {
+        T toResolveSource = childrenIndex.getElement(index);
+        if (transferFunction != null) {
+            R transferResult = HierarchyHelper.getTransferResult(transferFunction, toResolveSource);
+            HierarchyTraversal.each(childrenIndex, index, maxDepth - 1, new TransferChildrenVisitor<>(childrenIndex
+                    , transferFunction, setChildrenFunction, transferResult, maxDepth - 1, truncatedConsumer));
+            return transferResult;
+        }
 
-        if (currentSourceChildrenList == null || currentSourceChildrenList.isEmpty()) {
-            return;
+        //未转换时R与T为同一类型
+        HierarchyTraversal.each(childrenIndex, index, maxDepth - 1, new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void enter(int currentIndex, int depth) {
+                R current = (R) childrenIndex.getElement(currentIndex);
+                List<R> children = (List<R>) childrenIndex.getChildren(currentIndex);
+                if (depth == maxDepth - 1 && children != null) {
+                    //最大层级的元素不设置子元素
+                    if (truncatedConsumer != null) {
+                        truncatedConsumer.accept(current, children.size());
+                    }
+                    children = null;
+                }
+                //处理children
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, current, children);
+            }
+        });
+        return (R) toResolveSource;
+    }
+
+    /**
+     * 转换为树形结构的计划
+     * <p>
+     * 创建时读取并检查函数及各选项,构建时按确定的选项直接处理(不再读取functions),创建后不可变
+     *
+     * @param <T>
+     * @param <R>
+     */
+    private static final class TreePlan<T, R> implements BiFunction<List<T>, HierarchyWorkspace, List<R>> {
+
+        /**
+         * 获取元素的子元素索引的函数
+         */
+        private final BiFunction<List<T>, HierarchyWorkspace, HierarchyChildrenIndex<T>> childrenIndexFunction;
+
+        private final Function<T, List<T>> getChildrenFunction;
+
+        private final Predicate<T> filterPredicate;
+
+        private final boolean isUseSourceList;
+
+        /**
+         * 转换函数,不启用转换时为Null
+         */
+        private final Function<T, R> transferFunction;
+
+        /**
+         * 设置children函数(已按叶子元素的children及子元素列表函数处理)
+         */
+        private final BiConsumer<R, List<R>> setChildrenFunction;
+
+        /**
+         * 是否缩减结果列表的容量(指定叶子元素的children或子元素列表函数时)
+         */
+        private final boolean isCompact;
+
+        /**
+         * 是否延迟处理子元素
+         */
+        private final boolean isLazyChildren;
+
+        private final boolean isWithRoot;
+
+        private final Comparator<? super T> comparator;
+
+        private final boolean isSortSiblings;
+
+        private final int maxDepth;
+
+        private final ObjIntConsumer<R> truncatedConsumer;
+
+        private final boolean isParallel;
+
+        private final ForkJoinPool forkJoinPool;
+
+        /**
+         * 是否只处理root的直接子元素可达的元素(获取指定id的子树时)
+         */
+        private final boolean isOnlyReachable;
+
+        TreePlan(final BiFunction<List<T>, HierarchyWorkspace, HierarchyChildrenIndex<T>> childrenIndexFunction
+                , final AbstractHierarchyFunctions<T, R> functions, final Comparator<? super T> comparator
+                , final boolean isOnlyReachable) {
+            Function<T, R> transferFunction = functions.getTransferFunction();
+            Objects.requireNonNull(functions.getSetChildrenFunction(), "set children function must be not null");
+
+            //是否启用转换
+            boolean isEnableTransfer = HierarchyHelper.getBooleanValue(functions.getIsEnableTransfer(), transferFunction != null);
+            if (isEnableTransfer) {
+                Objects.requireNonNull(transferFunction, "when enable transfer, transfer function must be not null");
+            }
+
+            this.childrenIndexFunction = childrenIndexFunction;
+            this.getChildrenFunction = functions.getGetChildrenFunction();
+            this.filterPredicate = functions.getFilterPredicate();
+            this.isUseSourceList = HierarchyHelper.getBooleanValue(functions.getIsUseSourceList(), false);
+            this.transferFunction = isEnableTransfer ? transferFunction : null;
+            this.setChildrenFunction = HierarchyHelper.getSetChildrenFunction(functions.getSetChildrenFunction()
+                    , functions.getLeafChildren(), functions.getChildrenListFunction());
+            this.isCompact = functions.getLeafChildren() != null || functions.getChildrenListFunction() != null;
+            this.isLazyChildren = HierarchyHelper.getBooleanValue(functions.getIsLazyChildren(), false);
+            this.isWithRoot = HierarchyHelper.getBooleanValue(functions.getIsWithRoot(), false);
+            this.comparator = comparator;
+            //是否只对同级元素进行排序
+            this.isSortSiblings = comparator != null && HierarchyHelper.getBooleanValue(functions.getIsSortSiblings(), false);
+            //最大层级(未设置时不限制)
+            this.maxDepth = HierarchyHelper.getMaxDepth(functions.getMaxDepth());
+            this.truncatedConsumer = functions.getTruncatedConsumer();
+            //是否并行处理
+            this.isParallel = HierarchyHelper.getBooleanValue(functions.getIsParallel(), false);
+            this.forkJoinPool = functions.getForkJoinPool() != null ? functions.getForkJoinPool() : ForkJoinPool.commonPool();
+            this.isOnlyReachable = isOnlyReachable;
         }
 
-        List<R> transferChildrenList = new ArrayList<>(currentSourceChildrenList.size());
-        for (T currentSourceChild : currentSourceChildrenList) {
-            R transferChildResult = HierarchyHelper.getTransferResult(transferFunction, currentSourceChild);
-            //处理各子元素的子元素
-            resolveWithChildren(toResolveSourceIdChildrenMap
-                    , getIdFunction, transferFunction
-                    , setChildrenFunction
-                    , transferChildResult, getIdFunction.apply(currentSourceChild));
+        @Override
+        public List<R> apply(final List<T> sourceList, final HierarchyWorkspace buildWorkspace) {
+            //检查数据是否为空
+            if (sourceList == null || sourceList.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            //延迟处理子元素时结果会持有子元素索引及要处理的元素列表,不使用缓冲区
+            HierarchyWorkspace workspace = isLazyChildren ? HierarchyWorkspace.NONE : buildWorkspace;
+            List<T> toResolveSourceList = null;
+            try {
+                //获取当前要处理的元素列表
+                toResolveSourceList = HierarchyHelper.getApplySourceList(sourceList, getChildrenFunction, filterPredicate
+                        , isUseSourceList, workspace.getSourceList());
+
+                //进行排序数据列表
+                if (comparator != null && !isSortSiblings && toResolveSourceList.size() > 1) {
+                    HierarchySortUtils.sortList(toResolveSourceList, comparator);
+                }
+
+                //获取元素所对应的子元素索引(但不包含root)
+                HierarchyChildrenIndex<T> childrenIndex = childrenIndexFunction.apply(toResolveSourceList, workspace);
+
+                //处理数据
+                List<R> rootList = isWithRoot ? new ArrayList<>(2) : null;
+                List<R> results = new ArrayList<>(workspace.getResultCapacity(512));
+                int size = childrenIndex.size();
+                int threshold = isParallel ? HierarchyParallelBuilder.getThreshold(size, forkJoinPool) : 0;
+                boolean isResolveWithParallel = isParallel && size > threshold && maxDepth == Integer.MAX_VALUE && !isLazyChildren;
+
+                //元素的处理顺序,为Null时按下标顺序
+                int[] order = null;
+                if (isSortSiblings) {
+                    //分别对各父元素的子元素进行排序,root的直接子元素按排序后的顺序处理
+                    childrenIndex.sortChildren(comparator, isResolveWithParallel ? forkJoinPool : null);
+                    order = HierarchyHelper.getSortedResolveOrder(childrenIndex, childrenIndex::isRootDirectChild, comparator);
+                }
+
+                if (isResolveWithParallel) {
+                    //并行处理
+                    results = resolveHierarchyWithParallel(childrenIndex, order, rootList
+                            , transferFunction, setChildrenFunction, forkJoinPool, threshold, isOnlyReachable);
+                } else if (maxDepth != Integer.MAX_VALUE || isLazyChildren || isOnlyReachable) {
+                    //限制层级、延迟处理子元素或只处理可达的元素时只处理root及root的直接子元素(包含不超过最大层级的子元素或首次访问时才处理的子元素列表)
+                    HierarchyLazyList.Resolver<T, R> lazyResolver = isLazyChildren ? new HierarchyLazyList.Resolver<>(childrenIndex
+                            , transferFunction, setChildrenFunction, maxDepth, truncatedConsumer) : null;
+                    for (int i = 0; i < size; i++) {
+                        int index = order == null ? i : order[i];
+                        if (childrenIndex.isRoot(index)) {
+                            //启用root时且当前元素为root放入rootList
+                            if (rootList != null) {
+                                T toResolveSource = childrenIndex.getElement(index);
+                                @SuppressWarnings("unchecked")
+                                R rootResult = transferFunction != null ? HierarchyHelper.getTransferResult(transferFunction, toResolveSource) : (R) toResolveSource;
+                                HierarchyHelper.addRoot(rootList, rootResult);
+                            }
+                            continue;
+                        }
+                        if (childrenIndex.isRootDirectChild(index)) {
+                            results.add(lazyResolver != null ? lazyResolver.resolve(index, 1) : resolveWithMaxDepth(childrenIndex, transferFunction
+                                    , setChildrenFunction, index, maxDepth, truncatedConsumer));
+                        }
+                    }
+                } else if (transferFunction == null) {
+                    for (int i = 0; i < size; i++) {
+                        resolveHierarchyWithoutEnableTransfer(results, order == null ? i : order[i]
+                                , childrenIndex, rootList, setChildrenFunction);
+                    }
+                } else {
+                    for (int i = 0; i < size; i++) {
+                        resolveHierarchyWithEnableTransfer(results, order == null ? i : order[i]
+                                , childrenIndex, rootList
+                                , transferFunction, setChildrenFunction);
+                    }
+                }
+
+                //记录结果个数,用于下次构建时的初始容量
+                workspace.setResultSize(results.size());
+                if (isCompact) {
+                    HierarchyHelper.trimToSize(results);
+                }
+
+                if (!isWithRoot) {
+                    //不包含root时直接返回
+                    return results;
+                }
 
-            transferChildrenList.add(transferChildResult);
+                //检查rootList是否合法
+                HierarchyHelper.checkRootList(rootList);
+
+                //设置root子元素
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, rootList.get(0), results);
+
+                return rootList;
+            } finally {
+
+                //直接使用源数据列表或延迟处理子元素时不进行清空
+                if (toResolveSourceList != null && toResolveSourceList != sourceList && !isLazyChildren) {
+                    toResolveSourceList.clear();
+                }
+                workspace.clear();
+
+            }
+        }
+    }
+
+    /**
+     * 转换并设置子元素的回调
+     * <p>
+     * 子元素在进入时进行转换,退出时设置其children并放入父级的children中
+     *
+     * @param <T>
+     * @param <R>
+     */
+    private static class TransferChildrenVisitor<T, R> implements HierarchyTraversal.IndexVisitor {
+
+        private final HierarchyChildrenIndex<T> childrenIndex;
+
+        private final Function<T, R> transferFunction;
+
+        private final BiConsumer<R, List<R>> setChildrenFunction;
+
+        /**
+         * 最大深度(开始元素为0),该深度的元素不设置子元素
+         */
+        private final int maxDepth;
+
+        /**
+         * 接收最大深度中仍存在子元素的元素及其子元素个数的回调,可为Null
+         */
+        private final ObjIntConsumer<R> truncatedConsumer;
+
+        /**
+         * 是否设置叶子元素的children
+         */
+        private final boolean isSetLeafChildren;
+
+        /**
+         * 各深度元素转换后的结果
+         */
+        private Object[] transferResults = new Object[16];
+
+        /**
+         * 各深度元素转换后的子元素列表
+         */
+        private List<?>[] transferChildrenLists = new List<?>[16];
+
+        TransferChildrenVisitor(final HierarchyChildrenIndex<T> childrenIndex
+                , final Function<T, R> transferFunction
+                , final BiConsumer<R, List<R>> setChildrenFunction
+                , final R transferResult
+                , final int maxDepth
+                , final ObjIntConsumer<R> truncatedConsumer) {
+            this.childrenIndex = childrenIndex;
+            this.transferFunction = transferFunction;
+            this.setChildrenFunction = setChildrenFunction;
+            this.maxDepth = maxDepth;
+            this.truncatedConsumer = truncatedConsumer;
+            this.isSetLeafChildren = HierarchyHelper.isSetLeafChildren(setChildrenFunction);
+            this.transferResults[0] = transferResult;
+        }
+
+        @Override
+        public void enter(final int index, final int depth) {
+            if (depth == transferResults.length) {
+                transferResults = Arrays.copyOf(transferResults, depth << 1);
+                transferChildrenLists = Arrays.copyOf(transferChildrenLists, depth << 1);
+            }
+            if (depth > 0) {
+                transferResults[depth] = HierarchyHelper.getTransferResult(transferFunction, childrenIndex.getElement(index));
+            }
+            int size = childrenIndex.getChildrenEnd(index) - childrenIndex.getChildrenStart(index);
+            if (depth == maxDepth && size > 0) {
+                //最大深度的元素不设置子元素
+                if (truncatedConsumer != null) {
+                    truncatedConsumer.accept(getTransferResult(depth), size);
+                }
+                size = 0;
+            }
+            transferChildrenLists[depth] = size == 0 ? null : new ArrayList<>(size);
+        }
+
+        @Override
+        public void exit(final int index, final int depth) {
+            R transferResult = getTransferResult(depth);
+            List<R> transferChildrenList = getTransferChildrenList(depth);
+            if (transferChildrenList != null || isSetLeafChildren) {
+                //处理children
+                HierarchyHelper.resolveAndSetChildren(setChildrenFunction, transferResult, transferChildrenList);
+            }
+            if (depth > 0) {
+                getTransferChildrenList(depth - 1).add(transferResult);
+            }
+            transferResults[depth] = null;
+            transferChildrenLists[depth] = null;
+        }
+
+        /**
+         * 获取深度所对应的转换后的结果 (只存放R类型的元素)
+         *
+         * @param depth 深度
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private R getTransferResult(final int depth) {
+            return (R) transferResults[depth];
+        }
+
+        /**
+         * 获取深度所对应的转换后的子元素列表 (只存放R类型元素的列表)
+         *
+         * @param depth 深度
+         * @return
+         */
+        @SuppressWarnings("unchecked")
+        private List<R> getTransferChildrenList(final int depth) {
+            return (List<R>) transferChildrenLists[depth];
         }
-        //处理children
-        HierarchyHelper.resolveAndSetChildren(setChildrenFunction, transferResult, transferChildrenList);
     }
 
 }
@@ -0,0 +1,253 @@
+/*
+ *
+ * Copyright (c) 2021-2xxx, joker-pper (https://github.com/joker-pper).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.github.jokerpper.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 构建时所使用的可复用缓冲区
+ * <p>
+ * 保留要处理的元素列表、pid所对应slot的map及建立子元素索引所需的数组,按处理过的最大元素个数扩容且不缩小;
+ * 同一时间只能用于一次构建 (非线程安全), 构建结束后需调用 {@link #clear()}
+ */
+final class HierarchyWorkspace {
+
+    /**
+     * 结果列表的默认初始容量
+     */
+    private static final int DEFAULT_RESULT_CAPACITY = 16;
+
+    /**
+     * 不保留缓冲区的实例,每次获取数组时均创建新的数组
+     */
+    static final HierarchyWorkspace NONE = new HierarchyWorkspace(false);
+
+    private static final int PARENT_SLOTS = 0;
+
+    private static final int CHILDREN_SLOTS = 1;
+
+    private static final int OFFSETS = 2;
+
+    private static final int POSITIONS = 3;
+
+    private static final int CHILDREN = 4;
+
+    /**
+     * 是否保留缓冲区
+     */
+    private final boolean isRetain;
+
+    private final List<Object> sourceList;
+
+    private final Map<Object, Integer> slotMap;
+
+    private HierarchyLongIntMap longSlotMap;
+
+    private final int[][] intArrays = new int[5][];
+
+    private boolean[] rootSlots;
+
+    private byte[] kinds;
+
+    private Object[] ids;
+
+    private long[] longIds;
+
+    /**
+     * 本次构建所使用的id个数
+     */
+    private int idCount;
+
+    /**
+     * 上次构建时的结果个数
+     */
+    private int resultCapacity = DEFAULT_RESULT_CAPACITY;
+
+    HierarchyWorkspace() {
+        this(true);
+    }
+
+    private HierarchyWorkspace(final boolean isRetain) {
+        this.isRetain = isRetain;
+        this.sourceList = isRetain ? new ArrayList<>() : null;
+        this.slotMap = isRetain ? new HashMap<>() : null;
+    }
+
+    /**
+     * 获取用于存放要处理元素的空列表 (构建结束时已清空,不会残留其他类型的元素)
+     *
+     * @param <T>
+     * @return 不保留缓冲区时为Null
+     */
+    @SuppressWarnings("unchecked")
+    <T> List<T> getSourceList() {
+        return (List<T>) sourceList;
+    }
+
+    /**
+     * 获取用于存放pid所对应slot的空map (构建结束时已清空,不会残留其他类型的key)
+     *
+     * @param <V>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    <V> Map<V, Integer> getSlotMap() {
+        return isRetain ? (Map<V, Integer>) slotMap : new HashMap<>();
+    }
+
+    /**
+     * 获取用于存放long pid所对应slot的空map
+     *
+     * @param expectedSize 预计的元素个数
+     * @return
+     */
+    HierarchyLongIntMap getLongSlotMap(final int expectedSize) {
+        if (!isRetain) {
+            return new HierarchyLongIntMap(expectedSize);
+        }
+        if (longSlotMap == null) {
+            longSlotMap = new HierarchyLongIntMap(expectedSize);
+        }
+        return longSlotMap;
+    }
+
+    int[] getParentSlots(final int size) {
+        return getIntArray(PARENT_SLOTS, size);
+    }
+
+    int[] getChildrenSlots(final int size) {
+        return getIntArray(CHILDREN_SLOTS, size);
+    }
+
+    /**
+     * 获取各slot子元素的开始位置数组 (前size个值为0)
+     *
+     * @param size
+     * @return
+     */
+    int[] getOffsets(final int size) {
+        int[] offsets = getIntArray(OFFSETS, size);
+        Arrays.fill(offsets, 0, size, 0);
+        return offsets;
+    }
+
+    int[] getPositions(final int size) {
+        return getIntArray(POSITIONS, size);
+    }
+
+    int[] getChildren(final int size) {
+        return getIntArray(CHILDREN, size);
+    }
+
+    boolean[] getRootSlots(final int size) {
+        if (!isRetain) {
+            return new boolean[size];
+        }
+        if (rootSlots == null || rootSlots.length < size) {
+            rootSlots = new boolean[size];
+        }
+        return rootSlots;
+    }
+
+    byte[] getKinds(final int size) {
+        if (!isRetain) {
+            return new byte[size];
+        }
+        if (kinds == null || kinds.length < size) {
+            kinds = new byte[size];
+        }
+        return kinds;
+    }
+
+    Object[] getIds(final int size) {
+        if (!isRetain) {
+            return new Object[size];
+        }
+        if (ids == null || ids.length < size) {
+            ids = new Object[size];
+        }
+        idCount = size;
+        return ids;
+    }
+
+    long[] getLongIds(final int size) {
+        if (!isRetain) {
+            return new long[size];
+        }
+        if (longIds == null || longIds.length < size) {
+            longIds = new long[size];
+        }
+        return longIds;
+    }
+
+    private int[] getIntArray(final int type, final int size) {
+        if (!isRetain) {
+            return new int[size];
+        }
+        int[] array = intArrays[type];
+        if (array == null || array.length < size) {
+            array = new int[size];
+            intArrays[type] = array;
+        }
+        return array;
+    }
+
+    /**
+     * 获取结果列表的初始容量 (上次构建时的结果个数)
+     *
+     * @param defaultCapacity 不保留缓冲区时的初始容量
+     * @return
+     */
+    int getResultCapacity(final int defaultCapacity) {
+        return isRetain ? resultCapacity : defaultCapacity;
+    }
+
+    /**
+     * 记录本次构建的结果个数
+     *
+     * @param resultSize 结果个数
+     */
+    void setResultSize(final int resultSize) {
+        if (isRetain) {
+            this.resultCapacity = Math.max(resultSize, DEFAULT_RESULT_CAPACITY);
+        }
+    }
+
+    /**
+     * 清空本次构建所使用的元素及id (不释放缓冲区)
+     */
+    void clear() {
+        if (!isRetain) {
+            return;
+        }
+        sourceList.clear();
+        slotMap.clear();
+        if (longSlotMap != null) {
+            longSlotMap.clear();
+        }
+        if (idCount > 0) {
+            Arrays.fill(ids, 0, idCount, null);
+            idCount = 0;
+        }
+    }
+
+}
@@ -50,6 +50,32 @@ public abstract class HierarchyBaseTest {
             return baseFunctions;
         }
 
+        /**
+         * 获取menu base long functions
+         *
+         * @param rootId
+         * @return
+         */
+        static HierarchyUtils.HierarchyLongFunctions<Menu, Menu> getLongFunctions(long rootId) {
+            HierarchyUtils.HierarchyLongFunctions<Menu, Menu> baseFunctions = new HierarchyUtils.HierarchyLongFunctions<>();
+
+            //获取pid
+            baseFunctions.setGetPidFunction(Menu::getPid);
+
+            //获取id
+            baseFunctions.setGetIdFunction(Menu::getId);
+
+            //验证是否为root
+            baseFunctions.setIsRootFunction(id -> id == rootId);
+
+            //设置children
+            baseFunctions.setSetChildrenFunction((parent, children) -> {
+                parent.setChildren(children);
+            });
+
+            return baseFunctions;
+        }
+
         /**
          * 获取menu base flat functions
          *
@@ -0,0 +1,147 @@
+package com.github.jokerpper.hierarchy;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HierarchyBuilderTest extends HierarchyBaseTest {
+
+    /**
+     * 生成数据 (root id为0,包含root元素)
+     *
+     * @param size
+     * @param seed
+     * @return
+     */
+    private static List<Menu> generate(int size, long seed) {
+        Random random = new Random(seed);
+        List<Menu> menuList = new ArrayList<>(size + 1);
+        Menu root = new Menu();
+        root.setId(0);
+        root.setPid(-1);
+        root.setSort(0);
+        menuList.add(root);
+        for (int id = 1; id <= size; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setPid(random.nextInt(id));
+            menu.setSort(id % 7);
+            menuList.add(menu);
+        }
+        Collections.shuffle(menuList, random);
+        return menuList;
+    }
+
+    @Test
+    public void testWithSameResult() {
+        Integer rootId = 0;
+        //先构建较多的元素再构建较少的元素,确保复用的缓冲区不影响结果
+        int[] sizes = new int[]{200, 3, 50, 0, 120, 1};
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            for (boolean isWithRoot : new boolean[]{false, true}) {
+                for (boolean isSortSiblings : new boolean[]{false, true}) {
+                    HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                    functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                    functions.setIsEnableTransfer(() -> isEnableTransfer);
+                    functions.setIsWithRoot(() -> isWithRoot);
+                    functions.setIsSortSiblings(() -> isSortSiblings);
+                    HierarchyBuilder<Menu, Menu> builder = HierarchyBuilder.of(functions, MenuResolver.getComparator());
+
+                    HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                    longFunctions.setTransferFunction(functions.getTransferFunction());
+                    longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                    longFunctions.setIsWithRoot(() -> isWithRoot);
+                    longFunctions.setIsSortSiblings(() -> isSortSiblings);
+                    HierarchyBuilder<Menu, Menu> longBuilder = HierarchyBuilder.ofLongId(longFunctions, MenuResolver.getComparator());
+
+                    HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+                    flatFunctions.setTransferFunction(functions.getTransferFunction());
+                    flatFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                    flatFunctions.setIsWithRoot(() -> isWithRoot);
+                    flatFunctions.setIsSortSiblings(() -> isSortSiblings);
+                    flatFunctions.setIsWithAllChildren(() -> true);
+                    HierarchyBuilder<Menu, Menu> flatBuilder = HierarchyBuilder.ofFlat(flatFunctions, MenuResolver.getComparator());
+
+                    for (int size : sizes) {
+                        if (isWithRoot && size == 0) {
+                            continue;
+                        }
+                        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(generate(size, size), functions, MenuResolver.getComparator()));
+                        Assert.assertEquals(expected, JSONObject.toJSONString(builder.build(generate(size, size))));
+                        Assert.assertEquals(expected, JSONObject.toJSONString(longBuilder.build(generate(size, size))));
+
+                        String expectedFlat = JSONObject.toJSONString(HierarchyFlatUtils.getHierarchyFlatResult(generate(size, size), flatFunctions, MenuResolver.getComparator()));
+                        Assert.assertEquals(expectedFlat, JSONObject.toJSONString(flatBuilder.build(generate(size, size))));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithFilterAndChildren() {
+        Integer rootId = 1;
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setFilterPredicate(menu -> menu.getId() != 3);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+        HierarchyBuilder<Menu, Menu> builder = HierarchyBuilder.of(functions, MenuResolver.getComparator());
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(expected, JSONObject.toJSONString(builder.build(HierarchyMetadata.getDefaultMenuList())));
+        }
+
+        //获取children函数(通过树形数据构建)
+        functions.setGetChildrenFunction(Menu::getChildren);
+        expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(MenuResolver.getResolvedWithChildrenMenuList(rootId), functions, MenuResolver.getComparator()));
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(expected, JSONObject.toJSONString(builder.build(MenuResolver.getResolvedWithChildrenMenuList(rootId))));
+        }
+        functions.setFilterPredicate(null);
+        expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(MenuResolver.getResolvedWithChildrenMenuList(rootId), functions, MenuResolver.getComparator()));
+        Assert.assertEquals(expected, JSONObject.toJSONString(builder.build(MenuResolver.getResolvedWithChildrenMenuList(rootId))));
+
+        //直接使用源数据列表时不清空源数据列表
+        functions.setGetChildrenFunction(null);
+        functions.setIsUseSourceList(() -> true);
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        int size = menuList.size();
+        builder.build(menuList);
+        Assert.assertEquals(size, menuList.size());
+    }
+
+    @Test
+    public void testWithReentrant() {
+        //构建期间再次调用同一构建器
+        Integer rootId = 1;
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+        AtomicReference<HierarchyBuilder<Menu, Menu>> builderReference = new AtomicReference<>();
+        List<String> innerResults = new ArrayList<>();
+        boolean[] isCalled = new boolean[1];
+        functions.setTransferFunction(menu -> {
+            if (!isCalled[0]) {
+                isCalled[0] = true;
+                innerResults.add(JSONObject.toJSONString(builderReference.get().build(HierarchyMetadata.getDefaultMenuList())));
+            }
+            return menu;
+        });
+        builderReference.set(HierarchyBuilder.of(functions, MenuResolver.getComparator()));
+        Assert.assertEquals(expected, JSONObject.toJSONString(builderReference.get().build(HierarchyMetadata.getDefaultMenuList())));
+        Assert.assertEquals(Collections.singletonList(expected), innerResults);
+    }
+
+    @Test
+    public void testEmptyAndIllegalArgument() {
+        HierarchyBuilder<Menu, Menu> builder = HierarchyBuilder.of(MenuResolver.getFunctions(1));
+        Assert.assertEquals(Collections.emptyList(), builder.build(null));
+        Assert.assertEquals(Collections.emptyList(), HierarchyBuilder.ofLongId(MenuResolver.getLongFunctions(1)).build(new ArrayList<>()));
+        Assert.assertEquals(Collections.emptyList(), HierarchyBuilder.ofFlat(MenuResolver.getFlatFunctions(1)).build(null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyBuilder.of((HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyBuilder.ofLongId((HierarchyUtils.HierarchyLongFunctions<Menu, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyBuilder.ofFlat((HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu>) null));
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.github.jokerpper.hierarchy;
+
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class HierarchyChildrenIndexTest {
+
+    @Test
+    public void childrenWithSourceOrder() {
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        Collections.shuffle(menuList, new Random(1));
+
+        //期望结果: pid所对应的子元素(不包含root,顺序与源数据一致)
+        Integer rootId = 1;
+        Map<Integer, List<Menu>> expectedMap = menuList.stream()
+                .filter(menu -> !Objects.equals(rootId, menu.getId()))
+                .collect(Collectors.groupingBy(Menu::getPid));
+
+        HierarchyChildrenIndex<Menu> childrenIndex = HierarchyChildrenIndex.of(menuList, Menu::getId, Menu::getPid, (Integer id) -> Objects.equals(rootId, id));
+        HierarchyChildrenIndex<Menu> longChildrenIndex = HierarchyChildrenIndex.ofLongId(menuList, Menu::getId, Menu::getPid, id -> id == rootId);
+
+        Assert.assertEquals(menuList.size(), childrenIndex.size());
+        for (int index = 0; index < menuList.size(); index++) {
+            Menu menu = menuList.get(index);
+            List<Menu> expectedChildren = expectedMap.get(menu.getId());
+            Assert.assertSame(menu, childrenIndex.getElement(index));
+            Assert.assertEquals(expectedChildren, childrenIndex.getChildren(index));
+            Assert.assertEquals(expectedChildren, longChildrenIndex.getChildren(index));
+
+            //元素类型
+            boolean isRoot = Objects.equals(rootId, menu.getId());
+            boolean isRootDirectChild = !isRoot && Objects.equals(rootId, menu.getPid());
+            Assert.assertEquals(isRoot, childrenIndex.isRoot(index));
+            Assert.assertEquals(isRoot, longChildrenIndex.isRoot(index));
+            Assert.assertEquals(isRootDirectChild, childrenIndex.isRootDirectChild(index));
+            Assert.assertEquals(isRootDirectChild, longChildrenIndex.isRootDirectChild(index));
+
+            int size = expectedChildren == null ? 0 : expectedChildren.size();
+            Assert.assertEquals(size, childrenIndex.getChildrenEnd(index) - childrenIndex.getChildrenStart(index));
+            for (int position = childrenIndex.getChildrenStart(index); position < childrenIndex.getChildrenEnd(index); position++) {
+                Assert.assertEquals(menu.getId(), menuList.get(childrenIndex.getChildIndex(position)).getPid());
+            }
+        }
+    }
+
+    @Test
+    public void extractOnce() {
+        //各元素只获取一次id/pid,各不同的pid只判断一次是否为root
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        Integer rootId = 1;
+        long pidSize = menuList.stream().filter(menu -> !Objects.equals(rootId, menu.getId())).map(Menu::getPid).distinct().count();
+        int[] counts = new int[3];
+        HierarchyChildrenIndex.of(menuList, (Menu menu) -> {
+            counts[0]++;
+            return menu.getId();
+        }, menu -> {
+            counts[1]++;
+            return menu.getPid();
+        }, (Integer id) -> {
+            counts[2]++;
+            return Objects.equals(rootId, id);
+        });
+        Assert.assertEquals(menuList.size(), counts[0]);
+        Assert.assertEquals(menuList.size() - 1, counts[1]);
+        Assert.assertEquals(menuList.size() + pidSize, counts[2]);
+
+        Arrays.fill(counts, 0);
+        HierarchyChildrenIndex.ofLongId(menuList, menu -> {
+            counts[0]++;
+            return menu.getId();
+        }, menu -> {
+            counts[1]++;
+            return menu.getPid();
+        }, id -> {
+            counts[2]++;
+            return id == rootId;
+        });
+        Assert.assertEquals(menuList.size(), counts[0]);
+        Assert.assertEquals(menuList.size() - 1, counts[1]);
+        Assert.assertEquals(menuList.size() + pidSize, counts[2]);
+    }
+
+    @Test
+    public void sortChildren() {
+        //各父元素的子元素个数不同(包含插入排序及归并排序),排序键存在重复
+        Random random = new Random(3);
+        List<Menu> menuList = new ArrayList<>();
+        int id = 0;
+        for (int pid = 1; pid <= 12; pid++) {
+            int size = pid * pid * 3;
+            for (int i = 0; i < size; i++) {
+                Menu menu = new Menu();
+                menu.setId(1000 + id++);
+                menu.setPid(pid);
+                menu.setSort(random.nextInt(size / 2 + 1) - size / 4);
+                menuList.add(menu);
+            }
+        }
+        Collections.shuffle(menuList, random);
+        Map<Integer, List<Menu>> expectedMap = menuList.stream()
+                .sorted(Comparator.comparingInt(Menu::getSort))
+                .collect(Collectors.groupingBy(Menu::getPid));
+
+        List<Comparator<Menu>> comparators = Arrays.asList(Comparator.comparingInt(Menu::getSort)
+                , HierarchySortUtils.comparingIntKey(Menu::getSort), HierarchySortUtils.comparingLongKey(Menu::getSort));
+        for (Comparator<Menu> comparator : comparators) {
+            HierarchyChildrenIndex<Menu> childrenIndex = HierarchyChildrenIndex.of(menuList, Menu::getId, Menu::getPid, (Integer value) -> Objects.equals(0, value));
+            childrenIndex.sortChildren(comparator, null);
+            for (Map.Entry<Integer, List<Menu>> entry : expectedMap.entrySet()) {
+                Assert.assertEquals(entry.getValue(), getChildrenOfPid(childrenIndex, entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * 获取pid所对应的子元素 (不存在pid所对应的元素时通过子元素的位置获取)
+     */
+    private static List<Menu> getChildrenOfPid(HierarchyChildrenIndex<Menu> childrenIndex, Integer pid) {
+        List<Menu> results = new ArrayList<>();
+        for (int position = 0; position < childrenIndex.size(); position++) {
+            Menu menu = childrenIndex.getElement(childrenIndex.getChildIndex(position));
+            if (Objects.equals(pid, menu.getPid())) {
+                results.add(menu);
+            }
+        }
+        return results;
+    }
+
+    @Test
+    public void emptyList() {
+        HierarchyChildrenIndex<Menu> childrenIndex = HierarchyChildrenIndex.of(Collections.<Menu>emptyList(), Menu::getId, Menu::getPid, (Integer id) -> false);
+        Assert.assertEquals(0, childrenIndex.size());
+    }
+
+}
@@ -4,10 +4,7 @@ import com.github.jokerpper.hierarchy.model.Menu;
 import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -194,5 +191,280 @@ public class HierarchyEachUtilsTest extends HierarchyBaseTest {
         });
     }
 
+    /**
+     * 检查父级列表 (超过初始容量的层级)
+     */
+    @Test
+    public void recursionEachWithParentList() {
+        //各层级均存在两个元素,第一个元素存在子元素
+        List<Menu> treeResults = new ArrayList<>();
+        List<Menu> currentList = treeResults;
+        int id = 0;
+        for (int level = 0; level < 40; level++) {
+            Menu first = new Menu();
+            first.setId(++id);
+            Menu second = new Menu();
+            second.setId(++id);
+            currentList.add(first);
+            currentList.add(second);
+            first.setChildren(new ArrayList<>());
+            currentList = first.getChildren();
+        }
+
+        for (boolean isSnapshot : new boolean[]{false, true}) {
+            Map<Integer, List<Integer>> expectedParentIds = new HashMap<>();
+            Map<Integer, List<Menu>> snapshots = new HashMap<>();
+            HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, new HierarchyEachUtils.EachCallback<Menu>() {
+
+                @Override
+                public boolean withParentList() {
+                    return true;
+                }
+
+                @Override
+                public boolean withParentListSnapshot() {
+                    return isSnapshot;
+                }
+
+                @Override
+                public void each(int level, Menu current, Menu parent, List<Menu> parentList, List<Menu> children, boolean hasExistChildren) {
+                    List<Integer> parentIds = level == HierarchyEachUtils.FIRST_LEVEL ? new ArrayList<>()
+                            : new ArrayList<>(expectedParentIds.get(parent.getId()));
+                    if (parent != null) {
+                        parentIds.add(parent.getId());
+                        Assert.assertEquals(level, parentList.size());
+                        Assert.assertSame(parent, parentList.get(level - 1));
+                        Assert.assertEquals(parentIds, parentList.stream().map(Menu::getId).collect(Collectors.toList()));
+                        //父级列表只读
+                        Assert.assertThrows(UnsupportedOperationException.class, () -> parentList.add(current));
+                        Assert.assertThrows(IndexOutOfBoundsException.class, () -> parentList.get(level));
+                        Assert.assertThrows(IndexOutOfBoundsException.class, () -> parentList.get(-1));
+                        snapshots.put(current.getId(), parentList);
+                    }
+                    expectedParentIds.put(current.getId(), parentIds);
+                }
+            });
+
+            //使用副本时回调后仍可使用
+            for (Map.Entry<Integer, List<Menu>> entry : snapshots.entrySet()) {
+                List<Integer> parentIds = entry.getValue().stream().map(Menu::getId).collect(Collectors.toList());
+                if (isSnapshot) {
+                    Assert.assertEquals(expectedParentIds.get(entry.getKey()), parentIds);
+                }
+                Assert.assertEquals(expectedParentIds.get(entry.getKey()).size(), parentIds.size());
+            }
+        }
+    }
+
+    /**
+     * 检查跳过子元素及终止遍历
+     */
+    @Test
+    public void recursionEachWithResult() {
+        Integer rootId = -1;
+        List<Menu> treeResults = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+        List<Integer> allIds = new ArrayList<>();
+        HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> allIds.add(current.getId()));
+        Assert.assertTrue(allIds.size() > 3);
+
+        for (boolean withParentList : new boolean[]{false, true}) {
+            //终止时不再遍历剩余元素
+            for (int size = 1; size <= allIds.size(); size++) {
+                int terminateSize = size;
+                List<Integer> ids = new ArrayList<>();
+                HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, new HierarchyEachUtils.EachResultCallback<Menu>() {
+
+                    @Override
+                    public boolean withParentList() {
+                        return withParentList;
+                    }
+
+                    @Override
+                    public HierarchyEachUtils.EachResult eachWithResult(int level, Menu current, Menu parent, List<Menu> parentList, List<Menu> children, boolean hasExistChildren) {
+                        ids.add(current.getId());
+                        return ids.size() == terminateSize ? HierarchyEachUtils.EachResult.TERMINATE : HierarchyEachUtils.EachResult.CONTINUE;
+                    }
+                });
+                Assert.assertEquals(allIds.subList(0, terminateSize), ids);
+            }
+
+            //跳过id为偶数的元素的子元素
+            List<Integer> expectedIds = new ArrayList<>();
+            Deque<Menu> stack = new ArrayDeque<>();
+            for (int i = treeResults.size() - 1; i >= 0; i--) {
+                stack.push(treeResults.get(i));
+            }
+            while (!stack.isEmpty()) {
+                Menu menu = stack.pop();
+                expectedIds.add(menu.getId());
+                if (menu.getChildren() != null && menu.getId() % 2 != 0) {
+                    for (int i = menu.getChildren().size() - 1; i >= 0; i--) {
+                        stack.push(menu.getChildren().get(i));
+                    }
+                }
+            }
+            Assert.assertTrue(expectedIds.size() < allIds.size());
+
+            List<Integer> ids = new ArrayList<>();
+            HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, new HierarchyEachUtils.EachResultCallback<Menu>() {
+
+                @Override
+                public boolean withParentList() {
+                    return withParentList;
+                }
+
+                @Override
+                public HierarchyEachUtils.EachResult eachWithResult(int level, Menu current, Menu parent, List<Menu> parentList, List<Menu> children, boolean hasExistChildren) {
+                    ids.add(current.getId());
+                    if (withParentList && parent != null) {
+                        Assert.assertSame(parent, parentList.get(level - 1));
+                    }
+                    return current.getId() % 2 == 0 ? HierarchyEachUtils.EachResult.SKIP_CHILDREN : HierarchyEachUtils.EachResult.CONTINUE;
+                }
+            });
+            Assert.assertEquals(expectedIds, ids);
+        }
+
+        //结果不能为Null
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren,
+                (HierarchyEachUtils.EachResultCallback<Menu>) (level, current, parent, parentList, children, hasExistChildren) -> null));
+
+        //通过each调用时同样处理
+        List<Integer> ids = new ArrayList<>();
+        HierarchyEachUtils.EachResultCallback<Menu> callback = (level, current, parent, parentList, children, hasExistChildren) -> {
+            ids.add(current.getId());
+            return HierarchyEachUtils.EachResult.CONTINUE;
+        };
+        callback.each(HierarchyEachUtils.FIRST_LEVEL, treeResults.get(0), null, null, treeResults.get(0).getChildren(), true);
+        Assert.assertEquals(Collections.singletonList(treeResults.get(0).getId()), ids);
+    }
+
+    /**
+     * 检查按层级遍历
+     */
+    @Test
+    public void levelEach() {
+        Integer rootId = -1;
+        List<Menu> treeResults = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+
+        //各层级元素的顺序与递归遍历时一致
+        Map<Integer, List<Integer>> expected = new TreeMap<>();
+        HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) ->
+                expected.computeIfAbsent(level, key -> new ArrayList<>()).add(current.getId()));
+        Assert.assertTrue(expected.size() > 2);
+
+        Map<Integer, List<Integer>> results = new LinkedHashMap<>();
+        Set<Integer> savedIds = new HashSet<>();
+        HierarchyEachUtils.levelEach(treeResults, Menu::getChildren, (level, nodes) -> {
+            Assert.assertFalse(nodes.isEmpty());
+            Assert.assertNull(results.put(level, nodes.stream().map(Menu::getId).collect(Collectors.toList())));
+            for (Menu node : nodes) {
+                //父级元素已先处理
+                if (node.getPid() != null && !Objects.equals(node.getPid(), rootId)) {
+                    Assert.assertTrue(savedIds.contains(node.getPid()));
+                }
+            }
+            nodes.forEach(node -> savedIds.add(node.getId()));
+        });
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(results.keySet()));
+        Assert.assertEquals(expected, results);
+
+        //回调后才获取子元素
+        List<Integer> levels = new ArrayList<>();
+        HierarchyEachUtils.levelEach(MenuResolver.getResolvedWithChildrenMenuList(rootId), Menu::getChildren, (level, nodes) -> {
+            levels.add(level);
+            if (level == 1) {
+                nodes.forEach(node -> node.setChildren(null));
+            }
+        });
+        Assert.assertEquals(Arrays.asList(0, 1), levels);
+
+        HierarchyEachUtils.levelEach(null, Menu::getChildren, (level, nodes) -> Assert.fail());
+        HierarchyEachUtils.levelEach(new ArrayList<>(), Menu::getChildren, (level, nodes) -> Assert.fail());
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.levelEach(treeResults, null, (level, nodes) -> {
+        }));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.levelEach(treeResults, Menu::getChildren, null));
+    }
+
+    /**
+     * 检查后序遍历
+     */
+    @Test
+    public void postOrderEach() {
+        Integer rootId = -1;
+        List<Menu> treeResults = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+
+        //子树元素个数
+        List<Integer> subtreeSizes = HierarchyEachUtils.postOrderEach(treeResults, Menu::getChildren, (level, current, parent, childrenResults) -> {
+            int size = 1;
+            for (Integer childSize : childrenResults) {
+                size += childSize;
+            }
+            //与子元素的顺序一致
+            Assert.assertEquals(current.getChildren() == null ? 0 : current.getChildren().size(), childrenResults.size());
+            for (int i = 0; i < childrenResults.size(); i++) {
+                Assert.assertEquals(HierarchyEachUtils.stream(Collections.singletonList(current.getChildren().get(i)), Menu::getChildren).count(), childrenResults.get(i).longValue());
+            }
+            if (level == HierarchyEachUtils.FIRST_LEVEL) {
+                Assert.assertNull(parent);
+            } else {
+                Assert.assertTrue(parent.getChildren().contains(current));
+            }
+            //结果只读
+            Assert.assertThrows(UnsupportedOperationException.class, () -> childrenResults.add(0));
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> childrenResults.get(-1));
+            Assert.assertThrows(IndexOutOfBoundsException.class, () -> childrenResults.get(childrenResults.size()));
+            return size;
+        });
+        Assert.assertEquals(treeResults.size(), subtreeSizes.size());
+        for (int i = 0; i < treeResults.size(); i++) {
+            Assert.assertEquals(HierarchyEachUtils.stream(Collections.singletonList(treeResults.get(i)), Menu::getChildren).count(), subtreeSizes.get(i).longValue());
+        }
+
+        //子元素先于父级元素处理
+        List<Integer> preOrderIds = new ArrayList<>();
+        HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> preOrderIds.add(current.getId()));
+        List<Integer> postOrderIds = new ArrayList<>();
+        HierarchyEachUtils.postOrderEach(treeResults, Menu::getChildren, (level, current, parent, childrenResults) -> {
+            if (current.getChildren() != null) {
+                for (Menu child : current.getChildren()) {
+                    Assert.assertTrue(postOrderIds.contains(child.getId()));
+                }
+            }
+            return postOrderIds.add(current.getId());
+        });
+        Assert.assertEquals(new HashSet<>(preOrderIds), new HashSet<>(postOrderIds));
+        Assert.assertEquals(preOrderIds.size(), postOrderIds.size());
+
+        //超过初始容量的层级及子元素个数
+        List<Menu> deepList = new ArrayList<>();
+        List<Menu> currentList = deepList;
+        int id = 0;
+        for (int level = 0; level < 40; level++) {
+            Menu menu = null;
+            for (int i = 0; i < 20; i++) {
+                menu = new Menu();
+                menu.setId(++id);
+                currentList.add(menu);
+            }
+            menu.setChildren(new ArrayList<>());
+            currentList = menu.getChildren();
+        }
+        List<Integer> deepSizes = HierarchyEachUtils.postOrderEach(deepList, Menu::getChildren, (level, current, parent, childrenResults) -> {
+            int size = 1;
+            for (Integer childSize : childrenResults) {
+                size += childSize;
+            }
+            return size;
+        });
+        Assert.assertEquals(20, deepSizes.size());
+        Assert.assertEquals(Integer.valueOf(id - 19), deepSizes.get(19));
+        Assert.assertEquals(Integer.valueOf(1), deepSizes.get(0));
+
+        Assert.assertEquals(Collections.emptyList(), HierarchyEachUtils.postOrderEach(null, Menu::getChildren, (level, current, parent, childrenResults) -> 1));
+        Assert.assertEquals(Collections.emptyList(), HierarchyEachUtils.postOrderEach(new ArrayList<>(), Menu::getChildren, (level, current, parent, childrenResults) -> 1));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.postOrderEach(treeResults, null, (level, current, parent, childrenResults) -> 1));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.postOrderEach(treeResults, Menu::getChildren, null));
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+package com.github.jokerpper.hierarchy;
+
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class HierarchyFlatIteratorTest extends HierarchyBaseTest {
+
+    @Test
+    public void testWithFlatResult() {
+        Integer rootId = 1;
+        for (boolean isWithAllChildren : new boolean[]{false, true}) {
+            for (boolean isWithRoot : new boolean[]{false, true}) {
+                for (boolean isSortSiblings : new boolean[]{false, true}) {
+                    HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+                    functions.setIsWithAllChildren(() -> isWithAllChildren);
+                    functions.setIsWithRoot(() -> isWithRoot);
+                    functions.setIsSortSiblings(() -> isSortSiblings);
+                    functions.setTransferFunction(menu -> menu);
+                    functions.setFlatOrder(HierarchyFlatUtils.FlatOrder.PRE_ORDER);
+                    List<Integer> expectedLevels = new ArrayList<>();
+                    functions.setLevelConsumer((menu, level) -> expectedLevels.add(level));
+                    List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+
+                    //全部元素及层级
+                    HierarchyFlatIterator<Menu> iterator = HierarchyFlatUtils.getHierarchyFlatIterator(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+                    Assert.assertEquals(-1, iterator.getLevel());
+                    List<Menu> actual = new ArrayList<>();
+                    List<Integer> actualLevels = new ArrayList<>();
+                    while (iterator.hasNext()) {
+                        actual.add(iterator.next());
+                        actualLevels.add(iterator.getLevel());
+                    }
+                    Assert.assertEquals(expected, actual);
+                    Assert.assertEquals(expectedLevels, actualLevels);
+                    Assert.assertThrows(NoSuchElementException.class, iterator::next);
+
+                    //分页
+                    List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+                    for (int skip = 0; skip <= expected.size() + 1; skip++) {
+                        for (int limit = 0; limit <= 3; limit++) {
+                            List<Menu> page = HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).skip(skip).limit(limit).toList();
+                            Assert.assertEquals(expected.subList(Math.min(skip, expected.size()), Math.min(skip + limit, expected.size())), page);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithMaxDepth() {
+        Integer rootId = 1;
+        for (int maxDepth = 1; maxDepth <= 3; maxDepth++) {
+            int depth = maxDepth;
+            HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+            functions.setIsWithAllChildren(() -> true);
+            functions.setFlatOrder(HierarchyFlatUtils.FlatOrder.PRE_ORDER);
+            functions.setMaxDepth(() -> depth);
+            List<Integer> expectedTruncated = new ArrayList<>();
+            functions.setTruncatedConsumer((menu, size) -> expectedTruncated.add(menu.getId()));
+            List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+
+            List<Integer> truncated = new ArrayList<>();
+            functions.setTruncatedConsumer((menu, size) -> truncated.add(menu.getId()));
+            List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+            Assert.assertEquals(expected, HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).toList());
+            Assert.assertEquals(expectedTruncated, truncated);
+            for (int skip = 0; skip <= expected.size(); skip++) {
+                Assert.assertEquals(expected.subList(skip, Math.min(skip + 2, expected.size()))
+                        , HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).skip(skip).limit(2).toList());
+            }
+        }
+    }
+
+    @Test
+    public void testWithDescendantIterator() {
+        Integer rootId = 1;
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getFunctions(rootId), MenuResolver.getComparator());
+        for (Integer id : Arrays.asList(rootId, 2, -99)) {
+            List<Menu> expected = hierarchyIndex.getDescendants(id);
+            Assert.assertEquals(expected, hierarchyIndex.getDescendantIterator(id).toList());
+            for (int skip = 0; skip <= expected.size(); skip++) {
+                HierarchyFlatIterator<Menu> iterator = hierarchyIndex.getDescendantIterator(id).skip(skip).limit(2);
+                Assert.assertEquals(expected.subList(skip, Math.min(skip + 2, expected.size())), iterator.toList());
+                Assert.assertFalse(iterator.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testWithIndexPages() {
+        //同一份数据多次分页时通过层级索引复用子元素索引,之后的分页不再获取pid
+        Integer rootId = 1;
+        int[] counts = new int[1];
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+        functions.setGetPidFunction(menu -> {
+            counts[0]++;
+            return menu.getPid();
+        });
+        functions.setIsWithAllChildren(() -> true);
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).toList();
+
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(menuList, functions, MenuResolver.getComparator());
+        int count = counts[0];
+        List<Menu> actual = new ArrayList<>();
+        for (int skip = 0; skip < expected.size(); skip += 2) {
+            actual.addAll(hierarchyIndex.getDescendantIterator(rootId).skip(skip).limit(2).toList());
+        }
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(count, counts[0]);
+
+        //不通过层级索引时每次分页都会重新建立子元素索引
+        HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).skip(2).limit(2).toList();
+        Assert.assertTrue(counts[0] > count);
+    }
+
+    @Test
+    public void testStopWithoutTransfer() {
+        //停止迭代后不再转换其余元素
+        Integer rootId = 1;
+        int[] counts = new int[1];
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+        functions.setIsWithAllChildren(() -> true);
+        functions.setTransferFunction(menu -> {
+            counts[0]++;
+            return menu;
+        });
+        HierarchyFlatIterator<Menu> iterator = HierarchyFlatUtils.getHierarchyFlatIterator(HierarchyMetadata.getDefaultMenuList(), functions);
+        iterator.skip(3).next();
+        Assert.assertEquals(1, counts[0]);
+    }
+
+    @Test
+    public void testEmptyAndIllegalArgument() {
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(1);
+        functions.setIsWithRoot(() -> true);
+        Assert.assertFalse(HierarchyFlatUtils.getHierarchyFlatIterator(null, functions).hasNext());
+        Assert.assertFalse(HierarchyFlatUtils.getHierarchyFlatIterator(new ArrayList<>(), functions).hasNext());
+
+        HierarchyFlatIterator<Menu> iterator = HierarchyFlatUtils.getHierarchyFlatIterator(HierarchyMetadata.getDefaultMenuList(), functions);
+        Assert.assertThrows(IllegalArgumentException.class, () -> iterator.skip(-1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> iterator.limit(-1));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyFlatUtils.getHierarchyFlatIterator(new ArrayList<>(), null));
+    }
+
+}
@@ -185,6 +185,41 @@ public class HierarchyFlatUtilsTest extends HierarchyBaseTest {
     }
 
 
+    @Test
+    public void testTransferOnlyReachable() {
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+
+        //添加不可达的元素
+        Menu orphan = new Menu();
+        orphan.setId(100);
+        orphan.setPid(99);
+        orphan.setSort(1);
+        menuList.add(orphan);
+
+        Integer rootId = 1;
+        List<Integer> transferIds = new ArrayList<>();
+
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+        functions.setIsWithAllChildren(() -> true);
+        functions.setTransferFunction(menu -> {
+            transferIds.add(menu.getId());
+            return menu;
+        });
+
+        //不包含root时root元素及不可达的元素都不转换
+        List<Menu> results = HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions);
+        Assert.assertEquals(8, results.size());
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9), transferIds.stream().sorted().collect(Collectors.toList()));
+
+        //包含root时root元素只转换一次
+        transferIds.clear();
+        functions.setIsWithRoot(() -> true);
+        results = HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions);
+        Assert.assertEquals(9, results.size());
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), transferIds.stream().sorted().collect(Collectors.toList()));
+    }
+
+
     /**
      * 验证数据的最上层pid为rootId
      *
@@ -237,4 +272,162 @@ public class HierarchyFlatUtilsTest extends HierarchyBaseTest {
         }
 
     }
-}
\ No newline at end of file
+    @Test
+    public void testWithKeyComparator() {
+        Integer rootId = 1;
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+        functions.setIsWithAllChildren(() -> true);
+        List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+        List<Menu> actual = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, HierarchySortUtils.comparingIntKey(Menu::getSort));
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testWithSortSiblings() {
+        Integer rootId = 1;
+        for (boolean isWithAllChildren : new boolean[]{false, true}) {
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+                functions.setIsWithAllChildren(() -> isWithAllChildren);
+                functions.setIsWithRoot(() -> true);
+                functions.setTransferFunction(menu -> menu);
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+                Collections.shuffle(menuList, new Random(5));
+                List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions, MenuResolver.getComparator());
+
+                functions.setIsSortSiblings(() -> true);
+                Assert.assertEquals(expected, HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions, MenuResolver.getComparator()));
+            }
+        }
+    }
+
+    @Test
+    public void testWithFlatOrder() {
+        Integer rootId = 1;
+        List<Menu> treeList = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+        Menu root = HierarchyMetadata.getDefaultMenuList().stream().filter(menu -> Objects.equals(rootId, menu.getId())).findFirst().get();
+
+        //期望结果: 先序及层序的id及层级
+        List<String> expectedPreOrder = new ArrayList<>();
+        List<String> expectedLevelOrder = new ArrayList<>();
+        expectedPreOrder.add(root.getId() + ":0");
+        expectedLevelOrder.add(root.getId() + ":0");
+        HierarchyTraversal.each(treeList, 1, (current, parent, level) -> {
+            expectedPreOrder.add(current.getId() + ":" + level);
+            return current.getChildren();
+        });
+        List<Menu> levelList = treeList;
+        for (int level = 1; !levelList.isEmpty(); level++) {
+            List<Menu> nextLevelList = new ArrayList<>();
+            for (Menu menu : levelList) {
+                expectedLevelOrder.add(menu.getId() + ":" + level);
+                if (menu.getChildren() != null) {
+                    nextLevelList.addAll(menu.getChildren());
+                }
+            }
+            levelList = nextLevelList;
+        }
+
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            for (boolean isSortSiblings : new boolean[]{false, true}) {
+                HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+                functions.setIsWithAllChildren(() -> true);
+                functions.setIsWithRoot(() -> true);
+                functions.setTransferFunction(menu -> menu);
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                functions.setIsSortSiblings(() -> isSortSiblings);
+
+                for (HierarchyFlatUtils.FlatOrder flatOrder : HierarchyFlatUtils.FlatOrder.values()) {
+                    List<String> levels = new ArrayList<>();
+                    functions.setFlatOrder(flatOrder);
+                    functions.setLevelConsumer((menu, level) -> levels.add(menu.getId() + ":" + level));
+                    List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+                    Collections.shuffle(menuList, new Random(9));
+                    List<Menu> results = HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions, MenuResolver.getComparator());
+
+                    List<String> expected = flatOrder == HierarchyFlatUtils.FlatOrder.PRE_ORDER ? expectedPreOrder : expectedLevelOrder;
+                    Assert.assertEquals(expected, levels);
+                    Assert.assertEquals(expected.stream().map(it -> it.substring(0, it.indexOf(':'))).collect(Collectors.toList())
+                            , results.stream().map(menu -> String.valueOf(menu.getId())).collect(Collectors.toList()));
+                }
+
+                //只返回root及其直接子元素
+                functions.setIsWithAllChildren(() -> false);
+                functions.setLevelConsumer(null);
+                List<Menu> results = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+                Assert.assertEquals(treeList.size() + 1, results.size());
+                Assert.assertEquals(rootId, results.get(0).getId());
+            }
+        }
+    }
+
+    @Test
+    public void testWithMaxDepth() {
+        Integer rootId = 1;
+        //各元素的层级及子元素个数
+        Map<Integer, Integer> levels = new HashMap<>();
+        Map<Integer, Integer> childrenSizes = new HashMap<>();
+        HierarchyTraversal.each(MenuResolver.getResolvedWithChildrenMenuList(rootId), 1, (current, parent, level) -> {
+            levels.put(current.getId(), level);
+            childrenSizes.put(current.getId(), current.getChildren() == null ? 0 : current.getChildren().size());
+            return current.getChildren();
+        });
+
+        List<HierarchyFlatUtils.FlatOrder> flatOrders = new ArrayList<>(Arrays.asList(HierarchyFlatUtils.FlatOrder.values()));
+        flatOrders.add(null);
+        for (HierarchyFlatUtils.FlatOrder flatOrder : flatOrders) {
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+                functions.setIsWithAllChildren(() -> true);
+                functions.setFlatOrder(flatOrder);
+                functions.setTransferFunction(menu -> menu);
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                List<Menu> fullResults = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+
+                for (int maxDepth = 1; maxDepth <= 4; maxDepth++) {
+                    int depth = maxDepth;
+                    //期望结果: 过滤超过最大层级的元素后顺序不变
+                    List<Integer> expected = fullResults.stream().map(Menu::getId).filter(id -> levels.get(id) <= depth).collect(Collectors.toList());
+                    Map<Integer, Integer> expectedTruncated = new TreeMap<>();
+                    for (Integer id : expected) {
+                        if (levels.get(id) == depth && childrenSizes.get(id) > 0) {
+                            expectedTruncated.put(id, childrenSizes.get(id));
+                        }
+                    }
+
+                    Map<Integer, Integer> truncated = new TreeMap<>();
+                    functions.setMaxDepth(() -> depth);
+                    functions.setTruncatedConsumer((menu, size) -> truncated.put(menu.getId(), size));
+                    List<Menu> results = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+                    Assert.assertEquals(expected, results.stream().map(Menu::getId).collect(Collectors.toList()));
+                    Assert.assertEquals(expectedTruncated, truncated);
+                    functions.setMaxDepth(null);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithUseSourceList() {
+        Integer rootId = 1;
+        for (boolean isWithAllChildren : new boolean[]{false, true}) {
+            HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> functions = MenuResolver.getFlatFunctions(rootId);
+            functions.setIsWithAllChildren(() -> isWithAllChildren);
+            functions.setIsWithRoot(() -> true);
+            List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+            Collections.shuffle(menuList, new Random(5));
+            List<Menu> expected = HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions, MenuResolver.getComparator());
+            List<Menu> sortedList = new ArrayList<>(menuList);
+            HierarchySortUtils.sortList(sortedList, MenuResolver.getComparator());
+
+            //直接使用源数据列表时不清空且原地排序
+            functions.setIsUseSourceList(() -> true);
+            Assert.assertEquals(expected, HierarchyFlatUtils.getHierarchyFlatResult(menuList, functions, MenuResolver.getComparator()));
+            Assert.assertEquals(sortedList, menuList);
+            Assert.assertEquals(expected.subList(0, 2), HierarchyFlatUtils.getHierarchyFlatIterator(menuList, functions, MenuResolver.getComparator()).limit(2).toList());
+            Assert.assertEquals(HierarchyIndex.of(sortedList, functions).getDescendants(rootId), HierarchyIndex.of(menuList, functions).getDescendants(rootId));
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.github.jokerpper.hierarchy;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class HierarchyIndexTest extends HierarchyBaseTest {
+
+    @Test
+    public void testHierarchyResult() {
+        Integer rootId = 1;
+        Comparator<Menu> comparator = MenuResolver.getComparator();
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getFunctions(rootId), comparator);
+
+        String expected = JSONObject.toJSONString(MenuResolver.getResolvedWithChildrenMenuList(rootId));
+
+        //多次查询结果一致
+        for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(expected, JSONObject.toJSONString(hierarchyIndex.getHierarchyResult(rootId, Menu::setChildren)));
+            Assert.assertEquals(expected, JSONObject.toJSONString(hierarchyIndex.getHierarchyResult(rootId, menu -> {
+                Menu result = new Menu();
+                result.setId(menu.getId());
+                result.setName(menu.getName());
+                result.setPid(menu.getPid());
+                result.setSort(menu.getSort());
+                return result;
+            }, Menu::setChildren)));
+        }
+
+        //以任意元素为根
+        Menu menu = hierarchyIndex.getElement(2);
+        Assert.assertEquals(JSONObject.toJSONString(menu.getChildren()), JSONObject.toJSONString(hierarchyIndex.getHierarchyResult(2, Menu::setChildren)));
+
+        //不存在时为空列表
+        Assert.assertEquals(Collections.emptyList(), hierarchyIndex.getHierarchyResult(-99, Menu::setChildren));
+        Assert.assertEquals(Collections.emptyList(), hierarchyIndex.getHierarchyResult(-99, data -> data, Menu::setChildren));
+    }
+
+    @Test
+    public void testWithSortSiblings() {
+        Integer rootId = 1;
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        Collections.shuffle(menuList, new Random(7));
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setIsSortSiblings(() -> true);
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(menuList, functions, HierarchySortUtils.comparingIntKey(Menu::getSort));
+
+        String expected = JSONObject.toJSONString(MenuResolver.getResolvedWithChildrenMenuList(rootId));
+        Assert.assertEquals(expected, JSONObject.toJSONString(hierarchyIndex.getHierarchyResult(rootId, Menu::setChildren)));
+    }
+
+    @Test
+    public void testQuery() {
+        Integer rootId = 1;
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(menuList, MenuResolver.getFlatFunctions(rootId));
+        Map<Integer, Menu> menuMap = menuList.stream().collect(Collectors.toMap(Menu::getId, menu -> menu));
+
+        Assert.assertEquals(menuList.size(), hierarchyIndex.size());
+
+        for (Menu menu : menuList) {
+            Integer id = menu.getId();
+            Assert.assertSame(menu, hierarchyIndex.getElement(id));
+
+            //父元素
+            Menu expectedParent = Objects.equals(rootId, id) ? null : menuMap.get(menu.getPid());
+            Assert.assertSame(expectedParent, hierarchyIndex.getParent(id));
+
+            //直接子元素(与源数据顺序一致)
+            List<Menu> expectedChildren = menuList.stream()
+                    .filter(it -> !Objects.equals(rootId, it.getId()) && Objects.equals(id, it.getPid()))
+                    .collect(Collectors.toList());
+            Assert.assertEquals(expectedChildren, hierarchyIndex.getChildren(id));
+
+            //全部子元素(先序)
+            List<Menu> descendants = hierarchyIndex.getDescendants(id);
+            Set<Integer> descendantIds = descendants.stream().map(Menu::getId).collect(Collectors.toSet());
+            Assert.assertEquals(descendants.size(), descendantIds.size());
+            for (int i = 0; i < descendants.size(); i++) {
+                Menu descendant = descendants.get(i);
+                Assert.assertTrue(Objects.equals(id, descendant.getPid()) || descendants.subList(0, i).contains(hierarchyIndex.getParent(descendant.getId())));
+            }
+        }
+
+        //root全部子元素与HierarchyFlatUtils一致
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+        flatFunctions.setIsWithAllChildren(() -> true);
+        Set<Menu> expectedDescendants = new HashSet<>(HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), flatFunctions));
+        Assert.assertEquals(expectedDescendants, new HashSet<>(hierarchyIndex.getDescendants(rootId)));
+
+        //不存在时
+        Assert.assertNull(hierarchyIndex.getElement(-99));
+        Assert.assertNull(hierarchyIndex.getParent(-99));
+        Assert.assertEquals(Collections.emptyList(), hierarchyIndex.getChildren(-99));
+        Assert.assertEquals(Collections.emptyList(), hierarchyIndex.getDescendants(-99));
+    }
+
+    @Test
+    public void testRootWithoutElement() {
+        //root id不存在元素时仍可查询root的直接子元素
+        Integer rootId = 1;
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList().stream()
+                .filter(menu -> !Objects.equals(rootId, menu.getId()))
+                .collect(Collectors.toList());
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(menuList, MenuResolver.getFunctions(rootId));
+
+        Assert.assertNull(hierarchyIndex.getElement(rootId));
+        Assert.assertNull(hierarchyIndex.getParent(2));
+        Assert.assertEquals(menuList.stream().filter(menu -> Objects.equals(rootId, menu.getPid())).collect(Collectors.toList())
+                , hierarchyIndex.getChildren(rootId));
+    }
+
+    @Test
+    public void testEmpty() {
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(null, MenuResolver.getFunctions(1));
+        Assert.assertEquals(0, hierarchyIndex.size());
+        Assert.assertEquals(Collections.emptyList(), hierarchyIndex.getChildren(1));
+
+        hierarchyIndex = HierarchyIndex.of(new ArrayList<>(), MenuResolver.getFlatFunctions(1), MenuResolver.getComparator());
+        Assert.assertEquals(0, hierarchyIndex.size());
+    }
+
+    @Test
+    public void testFunctionsNull() {
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyIndex.of(new ArrayList<>(), (HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyIndex.of(new ArrayList<>(), (HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyIndex.of(new ArrayList<>(), new HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu>()));
+
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getFunctions(1));
+        Assert.assertThrows(NullPointerException.class, () -> hierarchyIndex.getHierarchyResult(1, null));
+        Assert.assertThrows(NullPointerException.class, () -> hierarchyIndex.getHierarchyResult(1, null, Menu::setChildren));
+        Assert.assertThrows(NullPointerException.class, () -> hierarchyIndex.getHierarchyResult(1, menu -> menu, null));
+    }
+
+}
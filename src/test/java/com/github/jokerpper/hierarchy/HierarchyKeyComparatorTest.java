@@ -0,0 +1,74 @@
+package com.github.jokerpper.hierarchy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class HierarchyKeyComparatorTest {
+
+    /**
+     * 获取随机的数据列表 (元素为[排序键, 源下标])
+     *
+     * @param size
+     * @param random
+     * @param bound  排序键范围,为0时不限制
+     * @return
+     */
+    private static List<long[]> getRandomList(int size, Random random, int bound) {
+        List<long[]> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long key = bound == 0 ? random.nextLong() : random.nextInt(bound) - bound / 2;
+            list.add(new long[]{key, i});
+        }
+        return list;
+    }
+
+    @Test
+    public void testSortStable() {
+        Random random = new Random(7);
+        for (int size : new int[]{0, 1, 2, 10, 47, 48, 100, 1000, 20000}) {
+            for (int bound : new int[]{0, 3, 1000, 1 << 20}) {
+                List<long[]> list = getRandomList(size, random, bound);
+
+                //期望结果: 稳定排序
+                List<long[]> expected = new ArrayList<>(list);
+                expected.sort(Comparator.comparingLong(it -> it[0]));
+
+                List<long[]> longKeyList = new LinkedList<>(list);
+                HierarchyKeyComparator.<long[]>ofLongKey(it -> it[0]).sort(longKeyList);
+                Assert.assertArrayEquals(expected.toArray(), longKeyList.toArray());
+
+                if (bound != 0) {
+                    List<long[]> intKeyList = new ArrayList<>(list);
+                    HierarchyKeyComparator.<long[]>ofIntKey(it -> (int) it[0]).sort(intKeyList);
+                    Assert.assertArrayEquals(expected.toArray(), intKeyList.toArray());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSortWithExtremeKey() {
+        List<long[]> list = new ArrayList<>();
+        long[] keys = {Long.MAX_VALUE, Long.MIN_VALUE, 0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < 100; i++) {
+            list.add(new long[]{keys[i % keys.length], i});
+        }
+        List<long[]> expected = new ArrayList<>(list);
+        expected.sort(Comparator.comparingLong(it -> it[0]));
+
+        HierarchyKeyComparator.<long[]>ofLongKey(it -> it[0]).sort(list);
+        Assert.assertArrayEquals(expected.toArray(), list.toArray());
+    }
+
+    @Test
+    public void testCompare() {
+        Comparator<long[]> intKeyComparator = HierarchyKeyComparator.ofIntKey(it -> (int) it[0]);
+        Comparator<long[]> longKeyComparator = HierarchyKeyComparator.ofLongKey(it -> it[0]);
+        Assert.assertTrue(intKeyComparator.compare(new long[]{-1}, new long[]{1}) < 0);
+        Assert.assertEquals(0, intKeyComparator.compare(new long[]{1}, new long[]{1}));
+        Assert.assertTrue(longKeyComparator.compare(new long[]{Long.MAX_VALUE}, new long[]{Long.MIN_VALUE}) > 0);
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.github.jokerpper.hierarchy;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HierarchyLazyListTest extends HierarchyBaseTest {
+
+    @Test
+    public void testWithSameResult() {
+        Integer rootId = 1;
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            for (boolean isWithRoot : new boolean[]{false, true}) {
+                for (boolean isSortSiblings : new boolean[]{false, true}) {
+                    for (Integer maxDepth : new Integer[]{null, 1, 2}) {
+                        for (HierarchyUtils.LeafChildren leafChildren : new HierarchyUtils.LeafChildren[]{null, HierarchyUtils.LeafChildren.EMPTY}) {
+                            HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                            functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                            functions.setIsEnableTransfer(() -> isEnableTransfer);
+                            functions.setIsWithRoot(() -> isWithRoot);
+                            functions.setIsSortSiblings(() -> isSortSiblings);
+                            functions.setMaxDepth(maxDepth == null ? null : () -> maxDepth);
+                            functions.setLeafChildren(leafChildren);
+                            List<Integer> expectedTruncated = new ArrayList<>();
+                            functions.setTruncatedConsumer((menu, size) -> expectedTruncated.add(menu.getId()));
+                            String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+
+                            List<Integer> truncated = new ArrayList<>();
+                            functions.setTruncatedConsumer((menu, size) -> truncated.add(menu.getId()));
+                            functions.setIsLazyChildren(() -> true);
+                            Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator())));
+                            Collections.sort(expectedTruncated);
+                            Collections.sort(truncated);
+                            Assert.assertEquals(expectedTruncated, truncated);
+
+                            HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                            longFunctions.setTransferFunction(functions.getTransferFunction());
+                            longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                            longFunctions.setIsWithRoot(() -> isWithRoot);
+                            longFunctions.setIsSortSiblings(() -> isSortSiblings);
+                            longFunctions.setMaxDepth(functions.getMaxDepth());
+                            longFunctions.setLeafChildren(leafChildren);
+                            longFunctions.setIsLazyChildren(() -> true);
+                            Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions, MenuResolver.getComparator())));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResolveOnFirstAccess() {
+        //只在首次访问子元素时进行转换
+        Integer rootId = 1;
+        List<Integer> transferIds = new ArrayList<>();
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(menu -> {
+            transferIds.add(menu.getId());
+            return JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class);
+        });
+        functions.setIsLazyChildren(() -> true);
+        functions.setIsWithRoot(() -> true);
+        List<Menu> results = HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+
+        Menu root = results.get(0);
+        List<Integer> rootDirectChildIds = new ArrayList<>();
+        for (Menu menu : HierarchyMetadata.getDefaultMenuList()) {
+            if (Objects.equals(rootId, menu.getPid())) {
+                rootDirectChildIds.add(menu.getId());
+            }
+        }
+        Assert.assertEquals(rootDirectChildIds.size() + 1, transferIds.size());
+        Assert.assertEquals(rootDirectChildIds.size(), root.getChildren().size());
+
+        //获取元素个数时不进行处理
+        Menu menu = root.getChildren().stream().filter(it -> it.getId() == 2).findFirst().orElse(null);
+        Assert.assertNotNull(menu);
+        HierarchyLazyList<Menu, Menu> children = (HierarchyLazyList<Menu, Menu>) menu.getChildren();
+        int transferSize = transferIds.size();
+        Assert.assertTrue(children.size() > 0);
+        Assert.assertFalse(children.isResolved());
+        Assert.assertEquals(transferSize, transferIds.size());
+
+        //首次获取子元素时只处理当前元素的子元素
+        Menu child = children.get(0);
+        Assert.assertTrue(children.isResolved());
+        Assert.assertEquals(transferSize + children.size(), transferIds.size());
+        Assert.assertSame(child, children.get(0));
+        Assert.assertEquals(transferSize + children.size(), transferIds.size());
+
+        //子元素列表不可修改
+        Assert.assertThrows(UnsupportedOperationException.class, () -> children.add(child));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> children.remove(0));
+    }
+
+    @Test
+    public void testWithChildrenListFunction() {
+        //子元素列表函数不读取元素时不会立即处理子元素列表
+        Integer rootId = 1;
+        List<Integer> transferIds = new ArrayList<>();
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(menu -> {
+            transferIds.add(menu.getId());
+            return JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class);
+        });
+        functions.setIsLazyChildren(() -> true);
+        functions.setChildrenListFunction(Collections::unmodifiableList);
+        List<Menu> results = HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+        Assert.assertEquals(results.size(), transferIds.size());
+
+        //读取元素(如复制为其他列表)时立即处理
+        transferIds.clear();
+        functions.setChildrenListFunction(ArrayList::new);
+        HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+        Assert.assertTrue(transferIds.size() > results.size());
+    }
+
+    @Test
+    public void testWithThreads() throws Exception {
+        //多个线程同时访问时只处理一次
+        Integer rootId = 0;
+        int size = 2000;
+        List<Menu> menuList = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setPid(id <= 2 ? 0 : (id & 1) + 1);
+            menu.setSort(id % 7);
+            menuList.add(menu);
+        }
+        int[] counts = new int[1];
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(menu -> {
+            synchronized (counts) {
+                counts[0]++;
+            }
+            return JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class);
+        });
+        functions.setIsLazyChildren(() -> true);
+        List<Menu> results = HierarchyUtils.getHierarchyResult(menuList, functions, MenuResolver.getComparator());
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Menu>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executorService.submit(() -> {
+                    List<Menu> children = new ArrayList<>();
+                    for (Menu menu : results) {
+                        children.addAll(menu.getChildren());
+                    }
+                    return children;
+                }));
+            }
+            List<Menu> expected = futures.get(0).get();
+            for (Future<List<Menu>> future : futures) {
+                List<Menu> actual = future.get();
+                Assert.assertEquals(expected.size(), actual.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    Assert.assertSame(expected.get(i), actual.get(i));
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        Assert.assertEquals(size, counts[0]);
+    }
+
+    @Test
+    public void testWithBuilder() {
+        //复用缓冲区时延迟处理的结果不受之后构建的影响
+        Integer rootId = 1;
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+        functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+        functions.setIsLazyChildren(() -> true);
+        HierarchyBuilder<Menu, Menu> builder = HierarchyBuilder.of(functions, MenuResolver.getComparator());
+        List<Menu> results = builder.build(HierarchyMetadata.getDefaultMenuList());
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        menuList.forEach(menu -> menu.setPid(-1));
+        builder.build(menuList);
+        Assert.assertEquals(expected, JSONObject.toJSONString(results));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.github.jokerpper.hierarchy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class HierarchyLongIntMapTest {
+
+    @Test
+    public void putAndGet() {
+        HierarchyLongIntMap map = new HierarchyLongIntMap(0);
+        Map<Long, Integer> expectedMap = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            long key = i % 3 == 0 ? random.nextLong() : random.nextInt(5000);
+            Integer expectedValue = expectedMap.putIfAbsent(key, i);
+            int value = map.putIfAbsent(key, i);
+            Assert.assertEquals(expectedValue == null ? HierarchyLongIntMap.NOT_FOUND : expectedValue.intValue(), value);
+        }
+        Assert.assertEquals(expectedMap.size(), map.size());
+        expectedMap.forEach((key, value) -> Assert.assertEquals(value.intValue(), map.get(key)));
+        Assert.assertEquals(HierarchyLongIntMap.NOT_FOUND, map.get(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void clear() {
+        HierarchyLongIntMap map = new HierarchyLongIntMap(4);
+        for (int i = 0; i < 100; i++) {
+            map.putIfAbsent(i, i);
+        }
+        map.clear();
+        Assert.assertEquals(0, map.size());
+        Assert.assertEquals(HierarchyLongIntMap.NOT_FOUND, map.get(1L));
+        Assert.assertEquals(HierarchyLongIntMap.NOT_FOUND, map.putIfAbsent(1L, 2));
+        Assert.assertEquals(2, map.get(1L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putNegativeValue() {
+        new HierarchyLongIntMap(16).putIfAbsent(1L, -1);
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.github.jokerpper.hierarchy;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+
+public class HierarchyParallelBuilderTest extends HierarchyBaseTest {
+
+    private static Menu copy(Menu menu) {
+        Menu result = new Menu();
+        result.setId(menu.getId());
+        result.setName(menu.getName());
+        result.setPid(menu.getPid());
+        result.setSort(menu.getSort());
+        return result;
+    }
+
+    /**
+     * 获取树形结构的签名 (先序的id及子元素个数)
+     *
+     * @param results
+     * @return
+     */
+    private static List<String> getSignature(List<Menu> results) {
+        List<String> signature = new ArrayList<>();
+        HierarchyTraversal.each(results, 0, (current, parent, level) -> {
+            List<Menu> children = current.getChildren();
+            signature.add(current.getId() + ":" + level + ":" + (children == null ? 0 : children.size()));
+            return children;
+        });
+        return signature;
+    }
+
+    /**
+     * 通过获取pid函数生成数据 (root id为0)
+     *
+     * @param size
+     * @param pidFunction
+     * @return
+     */
+    private static List<Menu> generate(int size, IntUnaryOperator pidFunction) {
+        List<Menu> menuList = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setPid(pidFunction.applyAsInt(id));
+            menu.setSort(id % 7);
+            menuList.add(menu);
+        }
+        Collections.shuffle(menuList, new Random(size));
+        return menuList;
+    }
+
+    @Test
+    public void testWithSmallThreshold() {
+        Integer rootId = 1;
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        HierarchyChildrenIndex<Menu> childrenIndex = HierarchyChildrenIndex.of(menuList, Menu::getId, Menu::getPid, (Integer id) -> Objects.equals(rootId, id));
+        int[] indexes = new int[menuList.size()];
+        int count = 0;
+        for (int index = 0; index < menuList.size(); index++) {
+            if (Objects.equals(rootId, menuList.get(index).getPid())) {
+                indexes[count++] = index;
+            }
+        }
+        int[] rootDirectChildIndexes = Arrays.copyOf(indexes, count);
+
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(HierarchyParallelBuilderTest::copy);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions));
+
+        for (int threshold = 1; threshold <= 4; threshold++) {
+            HierarchyParallelBuilder<Menu, Menu> builder = new HierarchyParallelBuilder<>(childrenIndex, HierarchyParallelBuilderTest::copy, Menu::setChildren, threshold);
+            Assert.assertEquals(expected, JSONObject.toJSONString(builder.resolveWithTransfer(ForkJoinPool.commonPool(), rootDirectChildIndexes)));
+        }
+    }
+
+    @Test
+    public void testWithParallel() {
+        Integer rootId = 0;
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(7);
+            int size = 60000;
+            List<List<Menu>> menuLists = Arrays.asList(
+                    //宽
+                    generate(size, id -> id <= 8 ? 0 : random.nextInt(8) + 1),
+                    //链
+                    generate(size, id -> id - 1),
+                    //链及叶子元素
+                    generate(size, id -> id % 2 == 0 ? Math.max(id - 2, 0) : id - 1),
+                    //随机
+                    generate(size, id -> random.nextInt(id))
+            );
+
+            for (List<Menu> menuList : menuLists) {
+                for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                    for (boolean isWithRoot : new boolean[]{false, true}) {
+                        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                        functions.setTransferFunction(HierarchyParallelBuilderTest::copy);
+                        functions.setIsEnableTransfer(() -> isEnableTransfer);
+                        functions.setIsWithRoot(() -> isWithRoot);
+                        List<Menu> toResolveList = new ArrayList<>(menuList);
+                        if (isWithRoot) {
+                            Menu root = new Menu();
+                            root.setId(rootId);
+                            root.setPid(-1);
+                            root.setSort(0);
+                            toResolveList.add(root);
+                        }
+
+                        List<String> expected = getSignature(HierarchyUtils.getHierarchyResult(toResolveList, functions, MenuResolver.getComparator()));
+
+                        functions.setIsParallel(() -> true);
+                        functions.setForkJoinPool(forkJoinPool);
+                        List<String> actual = getSignature(HierarchyUtils.getHierarchyResult(toResolveList, functions, MenuResolver.getComparator()));
+                        Assert.assertEquals(expected, actual);
+
+                        //只对同级元素进行排序
+                        functions.setIsSortSiblings(() -> true);
+                        Assert.assertEquals(expected, getSignature(HierarchyUtils.getHierarchyResult(toResolveList, functions, MenuResolver.getComparator())));
+
+                        //叶子元素设置为空列表
+                        functions.setLeafChildren(HierarchyUtils.LeafChildren.EMPTY);
+                        functions.setChildrenListFunction(Collections::unmodifiableList);
+                        List<Menu> results = HierarchyUtils.getHierarchyResult(toResolveList, functions, MenuResolver.getComparator());
+                        Assert.assertEquals(expected, getSignature(results));
+                        HierarchyTraversal.each(results, 0, (current, parent, level) -> {
+                            Assert.assertNotNull(current.getChildren());
+                            Assert.assertThrows(UnsupportedOperationException.class, () -> current.getChildren().add(current));
+                            return current.getChildren();
+                        });
+                    }
+                }
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithLongIdParallel() {
+        long rootId = 0;
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            Random random = new Random(11);
+            List<Menu> menuList = generate(60000, id -> random.nextInt(id));
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                longFunctions.setTransferFunction(HierarchyParallelBuilderTest::copy);
+                longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                List<String> expected = getSignature(HierarchyUtils.getHierarchyResultByLongId(menuList, longFunctions, MenuResolver.getComparator()));
+
+                //id为long类型时同样可以并行处理
+                longFunctions.setIsParallel(() -> true);
+                longFunctions.setForkJoinPool(forkJoinPool);
+                Assert.assertEquals(expected, getSignature(HierarchyUtils.getHierarchyResultByLongId(menuList, longFunctions, MenuResolver.getComparator())));
+
+                longFunctions.setIsSortSiblings(() -> true);
+                Assert.assertEquals(expected, getSignature(HierarchyUtils.getHierarchyResultByLongId(menuList, longFunctions, MenuResolver.getComparator())));
+            }
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithStartIdParallel() {
+        Integer rootId = 0;
+        Integer id = 1;
+        Random random = new Random(13);
+        List<Menu> menuList = generate(60000, it -> random.nextInt(it));
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+            functions.setTransferFunction(HierarchyParallelBuilderTest::copy);
+            functions.setIsEnableTransfer(() -> isEnableTransfer);
+            List<Menu> toResolveList = new ArrayList<>();
+            for (Menu menu : menuList) {
+                toResolveList.add(copy(menu));
+            }
+            List<String> expected = getSignature(HierarchyUtils.getHierarchyResultById(toResolveList, functions, id, MenuResolver.getComparator()));
+            Assert.assertFalse(expected.isEmpty());
+
+            //只处理子树中的元素
+            functions.setIsParallel(() -> true);
+            toResolveList = new ArrayList<>();
+            for (Menu menu : menuList) {
+                toResolveList.add(copy(menu));
+            }
+            Assert.assertEquals(expected, getSignature(HierarchyUtils.getHierarchyResultById(toResolveList, functions, id, MenuResolver.getComparator())));
+            Set<Integer> subtreeIds = new HashSet<>();
+            for (String signature : expected) {
+                subtreeIds.add(Integer.valueOf(signature.substring(0, signature.indexOf(':'))));
+            }
+            for (Menu menu : toResolveList) {
+                if (!subtreeIds.contains(menu.getId())) {
+                    Assert.assertNull(menu.getChildren());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithParallelError() {
+        Integer rootId = 0;
+        List<Menu> menuList = generate(100000, id -> id / 2);
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setIsParallel(() -> true);
+        functions.setTransferFunction(menu -> {
+            if (menu.getId() == 99999) {
+                throw new IllegalStateException("transfer error");
+            }
+            return copy(menu);
+        });
+        Assert.assertThrows(IllegalStateException.class, () -> HierarchyUtils.getHierarchyResult(menuList, functions));
+    }
+
+}
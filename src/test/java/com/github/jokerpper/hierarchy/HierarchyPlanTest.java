@@ -0,0 +1,163 @@
+package com.github.jokerpper.hierarchy;
+
+import com.alibaba.fastjson.JSONObject;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class HierarchyPlanTest extends HierarchyBaseTest {
+
+    @Test
+    public void testWithSameResult() {
+        Integer rootId = 1;
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            for (boolean isWithRoot : new boolean[]{false, true}) {
+                for (boolean isSortSiblings : new boolean[]{false, true}) {
+                    for (Integer maxDepth : new Integer[]{null, 2}) {
+                        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                        functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                        functions.setIsEnableTransfer(() -> isEnableTransfer);
+                        functions.setIsWithRoot(() -> isWithRoot);
+                        functions.setIsSortSiblings(() -> isSortSiblings);
+                        functions.setMaxDepth(maxDepth == null ? null : () -> maxDepth);
+                        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+                        HierarchyPlan<Menu, Menu> plan = HierarchyPlan.of(functions, MenuResolver.getComparator());
+                        Assert.assertEquals(expected, JSONObject.toJSONString(plan.build(HierarchyMetadata.getDefaultMenuList())));
+                        Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyBuilder.of(plan).build(HierarchyMetadata.getDefaultMenuList())));
+
+                        HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                        longFunctions.setTransferFunction(functions.getTransferFunction());
+                        longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                        longFunctions.setIsWithRoot(() -> isWithRoot);
+                        longFunctions.setIsSortSiblings(() -> isSortSiblings);
+                        longFunctions.setMaxDepth(maxDepth == null ? null : () -> maxDepth);
+                        Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyPlan.ofLongId(longFunctions, MenuResolver.getComparator()).build(HierarchyMetadata.getDefaultMenuList())));
+
+                        for (HierarchyFlatUtils.FlatOrder flatOrder : new HierarchyFlatUtils.FlatOrder[]{null, HierarchyFlatUtils.FlatOrder.PRE_ORDER, HierarchyFlatUtils.FlatOrder.LEVEL_ORDER}) {
+                            HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+                            flatFunctions.setTransferFunction(functions.getTransferFunction());
+                            flatFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                            flatFunctions.setIsWithRoot(() -> isWithRoot);
+                            flatFunctions.setIsSortSiblings(() -> isSortSiblings);
+                            flatFunctions.setIsWithAllChildren(() -> true);
+                            flatFunctions.setMaxDepth(maxDepth == null ? null : () -> maxDepth);
+                            flatFunctions.setFlatOrder(flatOrder);
+                            String expectedFlat = JSONObject.toJSONString(HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), flatFunctions, MenuResolver.getComparator()));
+                            Assert.assertEquals(expectedFlat, JSONObject.toJSONString(HierarchyPlan.ofFlat(flatFunctions, MenuResolver.getComparator()).build(HierarchyMetadata.getDefaultMenuList())));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithFunctionsChanged() {
+        //创建后修改functions不影响已创建的计划
+        Integer rootId = 1;
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions));
+        int[] counts = new int[1];
+        functions.setIsWithRoot(() -> {
+            counts[0]++;
+            return false;
+        });
+        HierarchyPlan<Menu, Menu> plan = HierarchyPlan.of(functions);
+        functions.setIsWithRoot(() -> true);
+        functions.setFilterPredicate(menu -> false);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(expected, JSONObject.toJSONString(plan.build(HierarchyMetadata.getDefaultMenuList())));
+        }
+        //选项只在创建时计算一次
+        Assert.assertEquals(1, counts[0]);
+
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+        List<Menu> expectedFlat = HierarchyFlatUtils.getHierarchyFlatResult(HierarchyMetadata.getDefaultMenuList(), flatFunctions);
+        HierarchyPlan<Menu, Menu> flatPlan = HierarchyPlan.ofFlat(flatFunctions);
+        flatFunctions.setIsWithAllChildren(() -> true);
+        Assert.assertEquals(expectedFlat, flatPlan.build(HierarchyMetadata.getDefaultMenuList()));
+    }
+
+    @Test
+    public void testWithThreads() throws Exception {
+        //多个线程共享同一计划
+        Integer rootId = 1;
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+        functions.setIsSortSiblings(() -> true);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+        HierarchyPlan<Menu, Menu> plan = HierarchyPlan.of(functions, MenuResolver.getComparator());
+        ThreadLocal<HierarchyBuilder<Menu, Menu>> builderThreadLocal = ThreadLocal.withInitial(() -> HierarchyBuilder.of(plan));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                boolean isUseBuilder = i % 2 == 0;
+                futures.add(executorService.submit(() -> JSONObject.toJSONString(isUseBuilder
+                        ? builderThreadLocal.get().build(HierarchyMetadata.getDefaultMenuList())
+                        : plan.build(HierarchyMetadata.getDefaultMenuList()))));
+            }
+            for (Future<String> future : futures) {
+                Assert.assertEquals(expected, future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmptyAndIllegalArgument() {
+        Assert.assertEquals(Collections.emptyList(), HierarchyPlan.of(MenuResolver.getFunctions(1)).build(null));
+        Assert.assertEquals(Collections.emptyList(), HierarchyPlan.ofLongId(MenuResolver.getLongFunctions(1)).build(new ArrayList<>()));
+        Assert.assertEquals(Collections.emptyList(), HierarchyPlan.ofFlat(MenuResolver.getFlatFunctions(1)).build(null));
+
+        //创建时检查函数
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.of((HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.ofLongId((HierarchyUtils.HierarchyLongFunctions<Menu, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.ofFlat((HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu>) null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyBuilder.of((HierarchyPlan<Menu, Menu>) null));
+
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(1);
+        functions.setSetChildrenFunction(null);
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.of(functions));
+
+        HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(1);
+        longFunctions.setIsEnableTransfer(() -> true);
+        longFunctions.setTransferFunction(null);
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.ofLongId(longFunctions));
+
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(1);
+        flatFunctions.setGetIdFunction(null);
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyPlan.ofFlat(flatFunctions));
+    }
+
+    @Test
+    public void testWithFlatOrderResultSize() {
+        //按指定顺序返回时同样记录结果个数
+        Integer rootId = 1;
+        for (HierarchyFlatUtils.FlatOrder flatOrder : new HierarchyFlatUtils.FlatOrder[]{null, HierarchyFlatUtils.FlatOrder.PRE_ORDER, HierarchyFlatUtils.FlatOrder.LEVEL_ORDER}) {
+            HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+            flatFunctions.setIsWithAllChildren(() -> true);
+            flatFunctions.setIsWithRoot(() -> true);
+            flatFunctions.setFlatOrder(flatOrder);
+            List<Menu> menuList = new ArrayList<>();
+            for (int id = 1; id <= 100; id++) {
+                Menu menu = new Menu();
+                menu.setId(id);
+                menu.setPid(id == 1 ? 0 : id / 2);
+                menuList.add(menu);
+            }
+            HierarchyWorkspace workspace = new HierarchyWorkspace();
+            List<Menu> results = HierarchyPlan.ofFlat(flatFunctions).build(menuList, workspace);
+            Assert.assertEquals(menuList.size(), results.size());
+            Assert.assertTrue(workspace.getResultCapacity(0) >= results.size());
+        }
+    }
+
+}
@@ -2,11 +2,11 @@ package com.github.jokerpper.hierarchy;
 
 import com.github.jokerpper.hierarchy.model.Menu;
 import com.github.jokerpper.hierarchy.support.HierarchyValidateHelper;
+import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class HierarchySortUtilsTest {
@@ -62,4 +62,86 @@ public class HierarchySortUtilsTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    public void testParallelSortWithChildren() {
+        Comparator<Menu> comparator = Comparator.comparing(Menu::getId);
+        Function<Menu, List<Menu>> getChildrenFunction = (parent) -> parent.getChildren();
+        for (int threshold = 1; threshold <= 4; threshold++) {
+            List<Menu> sourceList = HierarchyMetadata.getDefaultMenuTreeList();
+            HierarchySortUtils.parallelSortWithChildren(sourceList, getChildrenFunction, comparator, ForkJoinPool.commonPool(), threshold);
+            HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+        }
+
+        List<Menu> sourceList = HierarchyMetadata.getDefaultMenuTreeList();
+        HierarchySortUtils.parallelSortWithChildren(sourceList, getChildrenFunction, comparator);
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+    }
+
+    @Test
+    public void testParallelSortWithChildrenByLarge() {
+        //生成数据 (每个元素的pid为随机的前一个元素id)
+        Random random = new Random(7);
+        List<Menu> menuList = new ArrayList<>();
+        for (int id = 1; id <= 100000; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setPid(random.nextInt(id));
+            menu.setSort(random.nextInt(1000));
+            menuList.add(menu);
+        }
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = HierarchyBaseTest.MenuResolver.getFunctions(0);
+        List<Menu> sourceList = HierarchyUtils.getHierarchyResult(menuList, functions);
+
+        Comparator<Menu> comparator = Comparator.comparing(Menu::getSort).thenComparing(Menu::getId);
+        HierarchySortUtils.parallelSortWithChildren(sourceList, Menu::getChildren, comparator, ForkJoinPool.commonPool(), 64);
+
+        //校验各children已排序
+        int[] count = new int[1];
+        HierarchyEachUtils.recursionEach(sourceList, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> {
+            count[0]++;
+            if (hasExistChildren) {
+                List<Menu> expected = new ArrayList<>(children);
+                expected.sort(comparator);
+                Assert.assertEquals(expected, children);
+            }
+        });
+        Assert.assertEquals(menuList.size(), count[0]);
+    }
+
+    @Test
+    public void testParallelSortWithChildrenAndEmptyList() {
+        Comparator<Menu> comparator = Comparator.comparing(Menu::getId);
+        Function<Menu, List<Menu>> getChildrenFunction = (parent) -> parent.getChildren();
+        HierarchySortUtils.parallelSortWithChildren(null, getChildrenFunction, comparator);
+        HierarchySortUtils.parallelSortWithChildren(Collections.emptyList(), getChildrenFunction, comparator);
+        Assert.assertThrows(IllegalArgumentException.class, () -> HierarchySortUtils.parallelSortWithChildren(null, getChildrenFunction, comparator, ForkJoinPool.commonPool(), 0));
+    }
+
+    @Test
+    public void testSortByKey() {
+        Comparator<Menu> comparator = Comparator.comparing(Menu::getSort);
+        List<Menu> sourceList = HierarchyMetadata.getDefaultMenuList();
+        HierarchySortUtils.sortByIntKey(sourceList, Menu::getSort);
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+
+        sourceList = HierarchyMetadata.getDefaultMenuList();
+        HierarchySortUtils.sortByLongKey(sourceList, Menu::getSort);
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+
+        sourceList = HierarchyMetadata.getDefaultMenuTreeList();
+        HierarchySortUtils.sortWithChildrenByIntKey(sourceList, Menu::getChildren, Menu::getSort);
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+
+        sourceList = HierarchyMetadata.getDefaultMenuTreeList();
+        HierarchySortUtils.sortWithChildrenByLongKey(sourceList, Menu::getChildren, Menu::getSort);
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+
+        sourceList = HierarchyMetadata.getDefaultMenuTreeList();
+        HierarchySortUtils.parallelSortWithChildren(sourceList, Menu::getChildren, HierarchySortUtils.comparingIntKey(Menu::getSort));
+        HierarchyValidateHelper.assertSameSortedResult(sourceList, comparator);
+
+        Assert.assertThrows(NullPointerException.class, () -> HierarchySortUtils.comparingIntKey(null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchySortUtils.comparingLongKey(null));
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.github.jokerpper.hierarchy;
+
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class HierarchySpliteratorTest extends HierarchyBaseTest {
+
+    @Test
+    public void testWithSameOrder() {
+        Integer rootId = -1;
+        List<Menu> treeResults = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+        List<String> expected = getExpected(treeResults);
+
+        Assert.assertEquals(expected, HierarchyEachUtils.streamWithLevel(treeResults, Menu::getChildren)
+                .map(it -> it.getLevel() + ":" + it.getElement().getId()).collect(Collectors.toList()));
+        Assert.assertEquals(expected.stream().map(it -> it.substring(it.indexOf(':') + 1)).collect(Collectors.toList()),
+                HierarchyEachUtils.stream(treeResults, Menu::getChildren).map(it -> String.valueOf(it.getId())).collect(Collectors.toList()));
+
+        //并行时保持顺序
+        Assert.assertEquals(expected, HierarchyEachUtils.streamWithLevel(treeResults, Menu::getChildren).parallel()
+                .map(it -> it.getLevel() + ":" + it.getElement().getId()).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testWithSplit() {
+        //多种结构及分割方式时结果与遍历一致
+        Random random = new Random(1);
+        List<List<Menu>> sourceLists = new ArrayList<>();
+        sourceLists.add(MenuResolver.getResolvedWithChildrenMenuList(-1));
+        sourceLists.add(getTree(1, 0));
+        sourceLists.add(getTree(1, 40));
+        sourceLists.add(getTree(3, 6));
+        for (List<Menu> sourceList : sourceLists) {
+            List<String> expected = getExpected(sourceList);
+            for (int i = 0; i < 20; i++) {
+                HierarchySpliterator<Menu, String> spliterator = new HierarchySpliterator<>(sourceList, HierarchyEachUtils.FIRST_LEVEL, Menu::getChildren, (source, level) -> level + ":" + source.getId());
+                List<String> results = new ArrayList<>();
+                collect(spliterator, random, results);
+                Assert.assertEquals(expected, results);
+            }
+        }
+    }
+
+    @Test
+    public void testWithSingleRoot() {
+        //只有一个根元素时同样可以分割
+        List<Menu> sourceList = getTree(1, 3);
+        HierarchySpliterator<Menu, Integer> spliterator = new HierarchySpliterator<>(sourceList, HierarchyEachUtils.FIRST_LEVEL, Menu::getChildren, (source, level) -> source.getId());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        Assert.assertNotNull(prefix);
+        Assert.assertEquals(Long.MAX_VALUE >>> 1, spliterator.estimateSize());
+        List<Integer> prefixIds = new ArrayList<>();
+        prefix.forEachRemaining(prefixIds::add);
+        Assert.assertEquals(Collections.singletonList(sourceList.get(0).getId()), prefixIds);
+        Assert.assertNull(prefix.trySplit());
+        Assert.assertNotNull(spliterator.trySplit());
+
+        //叶子元素不能分割
+        List<Menu> leafList = getTree(1, 0);
+        spliterator = new HierarchySpliterator<>(leafList, HierarchyEachUtils.FIRST_LEVEL, Menu::getChildren, (source, level) -> source.getId());
+        Assert.assertNull(spliterator.trySplit());
+        Assert.assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+        Assert.assertTrue(spliterator.tryAdvance(id -> {
+        }));
+        Assert.assertNull(spliterator.trySplit());
+        Assert.assertFalse(spliterator.tryAdvance(id -> {
+        }));
+        Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.NONNULL));
+    }
+
+    @Test
+    public void testWithParallel() {
+        //并行处理各元素
+        List<Menu> sourceList = getTree(4, 6);
+        List<String> expected = getExpected(sourceList);
+        Set<Integer> ids = Collections.synchronizedSet(new HashSet<>());
+        long count = HierarchyEachUtils.stream(sourceList, Menu::getChildren).parallel().peek(it -> ids.add(it.getId())).count();
+        Assert.assertEquals(expected.size(), count);
+        Assert.assertEquals(expected.size(), ids.size());
+    }
+
+    @Test
+    public void testEmptyAndIllegalArgument() {
+        Assert.assertEquals(0, HierarchyEachUtils.stream(null, Menu::getChildren).count());
+        Assert.assertEquals(0, HierarchyEachUtils.streamWithLevel(new ArrayList<Menu>(), Menu::getChildren).count());
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.stream(new ArrayList<Menu>(), null));
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyEachUtils.streamWithLevel(new ArrayList<Menu>(), null));
+    }
+
+    /**
+     * 随机遍历及分割后依次获取结果
+     */
+    private static void collect(Spliterator<String> spliterator, Random random, List<String> results) {
+        while (true) {
+            if (random.nextInt(3) == 0) {
+                if (!spliterator.tryAdvance(results::add)) {
+                    return;
+                }
+                continue;
+            }
+            Spliterator<String> prefix = spliterator.trySplit();
+            if (prefix == null) {
+                spliterator.forEachRemaining(results::add);
+                return;
+            }
+            collect(prefix, random, results);
+        }
+    }
+
+    /**
+     * 通过递归遍历获取各元素的层级及id
+     */
+    private static List<String> getExpected(List<Menu> sourceList) {
+        List<String> expected = new ArrayList<>();
+        HierarchyEachUtils.recursionEach(sourceList, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> expected.add(level + ":" + current.getId()));
+        return expected;
+    }
+
+    /**
+     * 获取各元素均存在指定个数子元素的树形数据
+     *
+     * @param size  各层级的子元素个数
+     * @param depth 深度
+     */
+    private static List<Menu> getTree(int size, int depth) {
+        int[] ids = new int[1];
+        return getTree(size, depth, ids);
+    }
+
+    private static List<Menu> getTree(int size, int depth, int[] ids) {
+        List<Menu> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Menu menu = new Menu();
+            menu.setId(++ids[0]);
+            if (depth > 0) {
+                menu.setChildren(getTree(size == 1 ? 1 : size - (i & 1), depth - 1, ids));
+            }
+            results.add(menu);
+        }
+        return results;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.github.jokerpper.hierarchy;
+
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class HierarchyTraversalTest extends HierarchyBaseTest {
+
+    /**
+     * 链的深度
+     */
+    private static final int DEEP = 200000;
+
+    /**
+     * 获取深度为DEEP的链 (root id为0)
+     *
+     * @return
+     */
+    private static List<Menu> getDeepMenuList() {
+        List<Menu> menuList = new ArrayList<>(DEEP + 1);
+        for (int id = 0; id <= DEEP; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            menu.setPid(id - 1);
+            menu.setSort(DEEP - id);
+            menuList.add(menu);
+        }
+        return menuList;
+    }
+
+    @Test
+    public void testCallbackOrder() {
+        List<Menu> treeList = MenuResolver.getResolvedWithChildrenMenuList(1);
+
+        //期望结果: 递归遍历的回调顺序
+        List<String> expected = new ArrayList<>();
+        new Object() {
+            void each(List<Menu> menuList, Menu parent, int level) {
+                for (Menu menu : menuList) {
+                    expected.add("enter:" + menu.getId() + ":" + (parent == null ? null : parent.getId()) + ":" + level);
+                    if (menu.getChildren() != null) {
+                        each(menu.getChildren(), menu, level + 1);
+                    }
+                    expected.add("exit:" + menu.getId() + ":" + level);
+                }
+            }
+        }.each(treeList, null, 3);
+
+        List<String> actual = new ArrayList<>();
+        HierarchyTraversal.each(treeList, 3, new HierarchyTraversal.Visitor<Menu>() {
+            @Override
+            public List<Menu> enter(Menu current, Menu parent, int level) {
+                actual.add("enter:" + current.getId() + ":" + (parent == null ? null : parent.getId()) + ":" + level);
+                return current.getChildren();
+            }
+
+            @Override
+            public void exit(Menu current, int level) {
+                actual.add("exit:" + current.getId() + ":" + level);
+            }
+        });
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testWithSequentialList() {
+        //子元素列表不支持随机访问时通过迭代器遍历 (不通过下标获取元素)
+        int size = 100000;
+        Menu root = new Menu();
+        root.setId(0);
+        root.setChildren(new LinkedList<Menu>() {
+            @Override
+            public Menu get(int index) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        for (int id = 1; id <= size; id++) {
+            Menu menu = new Menu();
+            menu.setId(id);
+            root.getChildren().add(menu);
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        HierarchyTraversal.each(Collections.singletonList(root), 0, (current, parent, level) -> {
+            ids.add(current.getId());
+            return current.getChildren();
+        });
+        Assert.assertEquals(size + 1, ids.size());
+        for (int i = 0; i <= size; i++) {
+            Assert.assertEquals(i, ids.get(i).intValue());
+        }
+    }
+
+    @Test
+    public void testIndexCallbackOrder() {
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        HierarchyChildrenIndex<Menu> childrenIndex = HierarchyChildrenIndex.of(menuList, Menu::getId, Menu::getPid, (Integer id) -> id == -1);
+
+        //期望结果: 递归遍历的回调顺序
+        List<String> expected = new ArrayList<>();
+        new Object() {
+            void each(int index, int depth) {
+                expected.add("enter:" + index + ":" + depth);
+                for (int position = childrenIndex.getChildrenStart(index); position < childrenIndex.getChildrenEnd(index); position++) {
+                    each(childrenIndex.getChildIndex(position), depth + 1);
+                }
+                expected.add("exit:" + index + ":" + depth);
+            }
+        }.each(0, 0);
+
+        List<String> actual = new ArrayList<>();
+        HierarchyTraversal.each(childrenIndex, 0, new HierarchyTraversal.IndexVisitor() {
+            @Override
+            public void enter(int index, int depth) {
+                actual.add("enter:" + index + ":" + depth);
+            }
+
+            @Override
+            public void exit(int index, int depth) {
+                actual.add("exit:" + index + ":" + depth);
+            }
+        });
+        Assert.assertEquals(expected, actual);
+
+        //默认回调不处理
+        HierarchyTraversal.each(childrenIndex, 0, new HierarchyTraversal.IndexVisitor() {
+        });
+    }
+
+    @Test
+    public void testDeepHierarchy() {
+        Integer rootId = 0;
+        List<Menu> menuList = getDeepMenuList();
+
+        //树形结构(转换)
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setTransferFunction(menu -> {
+            Menu result = new Menu();
+            result.setId(menu.getId());
+            result.setPid(menu.getPid());
+            result.setSort(menu.getSort());
+            return result;
+        });
+        List<Menu> treeResults = HierarchyUtils.getHierarchyResult(menuList, functions);
+        Assert.assertEquals(1, treeResults.size());
+
+        //树形结构打平
+        HierarchyFlatUtils.HierarchyFlatFunctions<Menu, Integer, Menu> flatFunctions = MenuResolver.getFlatFunctions(rootId);
+        flatFunctions.setGetChildrenFunction(Menu::getChildren);
+        flatFunctions.setIsWithAllChildren(() -> true);
+        Assert.assertEquals(DEEP, HierarchyFlatUtils.getHierarchyFlatResult(treeResults, flatFunctions).size());
+
+        flatFunctions.setTransferFunction(menu -> menu);
+        Assert.assertEquals(DEEP, HierarchyFlatUtils.getHierarchyFlatResult(treeResults, flatFunctions).size());
+
+        //排序
+        HierarchySortUtils.sortWithChildren(treeResults, Menu::getChildren, MenuResolver.getComparator());
+
+        //遍历
+        int[] counts = new int[1];
+        HierarchyEachUtils.recursionEach(treeResults, Menu::getChildren, (level, current, parent, parentList, children, hasExistChildren) -> {
+            Assert.assertEquals(current.getId() - 1, level);
+            counts[0]++;
+        });
+        Assert.assertEquals(DEEP, counts[0]);
+
+        //层级索引
+        HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(menuList, MenuResolver.getFunctions(rootId));
+        Assert.assertEquals(DEEP, hierarchyIndex.getDescendants(rootId).size());
+        Assert.assertEquals(1, hierarchyIndex.getHierarchyResult(rootId, Menu::setChildren).size());
+        Assert.assertEquals(1, hierarchyIndex.getHierarchyResult(rootId, menu -> menu, Menu::setChildren).size());
+    }
+
+}
@@ -8,6 +8,7 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -197,5 +198,414 @@ public class HierarchyUtilsTest extends HierarchyBaseTest {
         Assert.assertEquals(defaultResults, withGetChildrenResults);
     }
 
+    @Test
+    public void testTransferOnlyReachable() {
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+
+        //添加不可达的元素
+        Menu orphan = new Menu();
+        orphan.setId(100);
+        orphan.setPid(99);
+        orphan.setSort(1);
+        menuList.add(orphan);
+
+        Integer rootId = 1;
+        List<Integer> transferIds = new ArrayList<>();
+
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, JSONObject> functions = new HierarchyUtils.HierarchyFunctions<>();
+        functions.setGetPidFunction(Menu::getPid);
+        functions.setGetIdFunction(Menu::getId);
+        functions.setIsRootFunction(id -> Objects.equals(rootId, id));
+        functions.setSetChildrenFunction((parent, children) -> parent.put("children", children));
+        functions.setTransferFunction(menu -> {
+            transferIds.add(menu.getId());
+            return (JSONObject) JSONObject.toJSON(menu);
+        });
+
+        //不包含root时root元素及不可达的元素都不转换
+        HierarchyUtils.getHierarchyResult(menuList, functions);
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9), transferIds.stream().sorted().collect(Collectors.toList()));
+
+        //包含root时root元素只转换一次
+        transferIds.clear();
+        functions.setIsWithRoot(() -> true);
+        HierarchyUtils.getHierarchyResult(menuList, functions);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), transferIds.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testWithLongId() {
+        Comparator<Menu> comparator = MenuResolver.getComparator();
+
+        //与默认函数处理的结果一致
+        List<Menu> expectedResults = MenuResolver.getResolvedWithChildrenMenuList(-1);
+        List<Menu> longIdResults = HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getLongFunctions(-1), comparator);
+        Assert.assertEquals(expectedResults, longIdResults);
+
+        //包含root
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(1);
+        functions.setIsWithRoot(() -> true);
+        HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(1);
+        longFunctions.setIsWithRoot(() -> true);
+        Assert.assertEquals(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, comparator),
+                HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions, comparator));
+
+        //启用转换
+        List<Integer> transferIds = new ArrayList<>();
+        longFunctions.setTransferFunction(menu -> {
+            transferIds.add(menu.getId());
+            Menu result = new Menu();
+            result.setId(menu.getId());
+            result.setName(menu.getName());
+            result.setPid(menu.getPid());
+            result.setSort(menu.getSort());
+            return result;
+        });
+        List<Menu> transferResults = HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions, comparator);
+        Assert.assertEquals(JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, comparator)), JSONObject.toJSONString(transferResults));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), transferIds.stream().sorted().collect(Collectors.toList()));
+
+        //不包含root
+        longFunctions.setIsWithRoot(() -> false);
+        Assert.assertEquals(3, HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions).size());
+
+        //数据源为null/空
+        Assert.assertTrue(HierarchyUtils.getHierarchyResultByLongId(null, longFunctions).isEmpty());
+        Assert.assertTrue(HierarchyUtils.getHierarchyResultByLongId(new ArrayList<>(), longFunctions).isEmpty());
+    }
+
+    @Test
+    public void testWithLongIdByBigId() {
+        long base = 1L << 40;
+        List<LinkedHashMap<String, Long>> sourceList = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            LinkedHashMap<String, Long> data = new LinkedHashMap<>();
+            data.put("id", base + i);
+            data.put("pid", i <= 10 ? 0L : base + (i - 1) / 10);
+            sourceList.add(data);
+        }
+
+        HierarchyUtils.HierarchyLongFunctions<LinkedHashMap<String, Long>, LinkedHashMap<String, Long>> functions = new HierarchyUtils.HierarchyLongFunctions<>();
+        functions.setGetIdFunction(data -> data.get("id"));
+        functions.setGetPidFunction(data -> data.get("pid"));
+        functions.setIsRootFunction(id -> id == 0L);
+        functions.setSetChildrenFunction((parent, children) -> parent.put("childrenSize", children == null ? 0L : children.size()));
+
+        List<LinkedHashMap<String, Long>> results = HierarchyUtils.getHierarchyResultByLongId(sourceList, functions);
+        Assert.assertEquals(10, results.size());
+        Assert.assertEquals(990, sourceList.stream().mapToLong(data -> data.get("childrenSize")).sum());
+    }
+
+    @Test
+    public void testWithLongIdByNullPid() {
+        //root元素的pid为null
+        Supplier<List<Menu>> menuListSupplier = () -> {
+            List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+            menuList.stream().filter(menu -> menu.getPid() == -1).forEach(menu -> menu.setPid(null));
+            return menuList;
+        };
+        Comparator<Menu> comparator = MenuResolver.getComparator();
+
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = new HierarchyUtils.HierarchyFunctions<>();
+        functions.setGetIdFunction(Menu::getId);
+        functions.setGetPidFunction(Menu::getPid);
+        functions.setIsRootFunction(Objects::isNull);
+        functions.setSetChildrenFunction(Menu::setChildren);
+        String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(menuListSupplier.get(), functions, comparator));
+
+        //pid为null时拆箱抛出NullPointerException
+        HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = new HierarchyUtils.HierarchyLongFunctions<>();
+        longFunctions.setGetIdFunction(Menu::getId);
+        longFunctions.setGetPidFunction(Menu::getPid);
+        longFunctions.setIsRootFunction(id -> id == -1L);
+        longFunctions.setSetChildrenFunction(Menu::setChildren);
+        Assert.assertThrows(NullPointerException.class, () -> HierarchyUtils.getHierarchyResultByLongId(menuListSupplier.get(), longFunctions, comparator));
+
+        //pid为null时转换为root值
+        longFunctions.setGetPidFunction(menu -> menu.getPid() == null ? -1L : menu.getPid());
+        Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultByLongId(menuListSupplier.get(), longFunctions, comparator)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testLongFunctionsNull() {
+        HierarchyUtils.getHierarchyResultByLongId(null, null);
+    }
+
+    @Test
+    public void testWithKeyComparator() {
+        Integer rootId = 1;
+        String expected = JSONObject.toJSONString(MenuResolver.getResolvedWithChildrenMenuList(rootId));
+
+        List<Menu> intKeyResults = HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getFunctions(rootId)
+                , HierarchySortUtils.comparingIntKey(Menu::getSort));
+        Assert.assertEquals(expected, JSONObject.toJSONString(intKeyResults));
+
+        List<Menu> longKeyResults = HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getLongFunctions(rootId)
+                , HierarchySortUtils.comparingLongKey(Menu::getSort));
+        Assert.assertEquals(expected, JSONObject.toJSONString(longKeyResults));
+    }
+
+    @Test
+    public void testWithSortSiblings() {
+        Integer rootId = 1;
+        List<Comparator<Menu>> comparators = Arrays.asList(MenuResolver.getComparator(), HierarchySortUtils.comparingIntKey(Menu::getSort));
+        for (Comparator<Menu> comparator : comparators) {
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                for (boolean isWithRoot : new boolean[]{false, true}) {
+                    HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                    functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                    functions.setIsEnableTransfer(() -> isEnableTransfer);
+                    functions.setIsWithRoot(() -> isWithRoot);
+                    String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(getShuffledMenuList(), functions, comparator));
+
+                    functions.setIsSortSiblings(() -> true);
+                    Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(getShuffledMenuList(), functions, comparator)));
+
+                    HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                    longFunctions.setTransferFunction(functions.getTransferFunction());
+                    longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                    longFunctions.setIsWithRoot(() -> isWithRoot);
+                    longFunctions.setIsSortSiblings(() -> true);
+                    Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultByLongId(getShuffledMenuList(), longFunctions, comparator)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWithMaxDepth() {
+        Integer rootId = 1;
+        for (int maxDepth = 1; maxDepth <= 4; maxDepth++) {
+            //期望结果: 截断超过最大层级的元素
+            List<Menu> expectedList = MenuResolver.getResolvedWithChildrenMenuList(rootId);
+            Map<Integer, Integer> expectedTruncated = new TreeMap<>();
+            int depth = maxDepth;
+            HierarchyTraversal.each(expectedList, 1, (current, parent, level) -> {
+                if (level == depth && current.getChildren() != null) {
+                    expectedTruncated.put(current.getId(), current.getChildren().size());
+                    current.setChildren(null);
+                }
+                return current.getChildren();
+            });
+            String expected = JSONObject.toJSONString(expectedList);
+
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                Map<Integer, Integer> truncated = new TreeMap<>();
+                HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                functions.setMaxDepth(() -> depth);
+                functions.setTruncatedConsumer((menu, size) -> truncated.put(menu.getId(), size));
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator())));
+                Assert.assertEquals(expectedTruncated, truncated);
+
+                truncated.clear();
+                HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                longFunctions.setTransferFunction(functions.getTransferFunction());
+                longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                longFunctions.setIsWithRoot(() -> true);
+                longFunctions.setMaxDepth(() -> depth);
+                longFunctions.setTruncatedConsumer((menu, size) -> truncated.put(menu.getId(), size));
+                List<Menu> rootList = HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions, MenuResolver.getComparator());
+                Assert.assertEquals(expected, JSONObject.toJSONString(rootList.get(0).getChildren()));
+                Assert.assertEquals(expectedTruncated, truncated);
+            }
+        }
+
+        //最大层级需大于0
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setMaxDepth(() -> 0);
+        Assert.assertThrows(IllegalArgumentException.class, () -> HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions));
+    }
+
+    @Test
+    public void testWithStartId() {
+        Integer rootId = 1;
+        for (Integer id : Arrays.asList(rootId, 2, -99)) {
+            HierarchyIndex<Menu, Integer> hierarchyIndex = HierarchyIndex.of(HierarchyMetadata.getDefaultMenuList(), MenuResolver.getFunctions(rootId), MenuResolver.getComparator());
+            String expected = JSONObject.toJSONString(hierarchyIndex.getHierarchyResult(id, Menu::setChildren));
+            int descendantSize = hierarchyIndex.getDescendants(id).size();
+
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                //只转换子树中的元素
+                int[] counts = new int[1];
+                HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                functions.setTransferFunction(menu -> {
+                    counts[0]++;
+                    return JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class);
+                });
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultById(getShuffledMenuList(), functions, id, HierarchySortUtils.comparingIntKey(Menu::getSort))));
+                Assert.assertEquals(isEnableTransfer ? descendantSize : 0, counts[0]);
+
+                //以id所对应的元素作为根
+                functions.setIsWithRoot(() -> true);
+                if (id == -99) {
+                    Assert.assertThrows(IllegalArgumentException.class, () -> HierarchyUtils.getHierarchyResultById(getShuffledMenuList(), functions, id, MenuResolver.getComparator()));
+                    continue;
+                }
+                List<Menu> rootList = HierarchyUtils.getHierarchyResultById(getShuffledMenuList(), functions, id, MenuResolver.getComparator());
+                Assert.assertEquals(id, rootList.get(0).getId());
+                Assert.assertEquals(expected, JSONObject.toJSONString(rootList.get(0).getChildren()));
+            }
+
+            //与getHierarchyResult相同的选项
+            for (int i = 0; i < 3; i++) {
+                int option = i;
+                HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                functions.setIsSortSiblings(() -> true);
+                functions.setIsLazyChildren(() -> option == 1);
+                functions.setIsParallel(() -> option == 2);
+                List<Menu> menuList = getShuffledMenuList();
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultById(menuList, functions, id, MenuResolver.getComparator())));
+
+                //不设置子树以外元素的children
+                Set<Integer> subtreeIds = new HashSet<>();
+                for (Menu menu : hierarchyIndex.getDescendants(id)) {
+                    subtreeIds.add(menu.getId());
+                }
+                for (Menu menu : menuList) {
+                    if (!subtreeIds.contains(menu.getId())) {
+                        Assert.assertNull(menu.getChildren());
+                    }
+                }
+            }
+        }
+
+        //限制层级
+        HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+        functions.setMaxDepth(() -> 1);
+        for (Menu menu : HierarchyUtils.getHierarchyResultById(HierarchyMetadata.getDefaultMenuList(), functions, 2, MenuResolver.getComparator())) {
+            Assert.assertNull(menu.getChildren());
+        }
+        Assert.assertEquals(Collections.emptyList(), HierarchyUtils.getHierarchyResultById(null, functions, 2));
+    }
+
+    @Test
+    public void testWithUseSourceList() {
+        Integer rootId = 1;
+        for (boolean isSortSiblings : new boolean[]{false, true}) {
+            for (boolean isEnableTransfer : new boolean[]{false, true}) {
+                HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                functions.setIsEnableTransfer(() -> isEnableTransfer);
+                functions.setIsSortSiblings(() -> isSortSiblings);
+                String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(getShuffledMenuList(), functions, MenuResolver.getComparator()));
+                List<Menu> sortedList = getShuffledMenuList();
+                HierarchySortUtils.sortList(sortedList, MenuResolver.getComparator());
+
+                //直接使用源数据列表: 不清空,未开启isSortSiblings时原地排序
+                functions.setIsUseSourceList(() -> true);
+                List<Menu> menuList = getShuffledMenuList();
+                List<Menu> copyList = new ArrayList<>(menuList);
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(menuList, functions, MenuResolver.getComparator())));
+                Assert.assertEquals(getIds(isSortSiblings ? copyList : sortedList), getIds(menuList));
+
+                HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                longFunctions.setTransferFunction(functions.getTransferFunction());
+                longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                longFunctions.setIsSortSiblings(() -> isSortSiblings);
+                longFunctions.setIsUseSourceList(() -> true);
+                menuList = getShuffledMenuList();
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResultByLongId(menuList, longFunctions, MenuResolver.getComparator())));
+                Assert.assertEquals(getIds(isSortSiblings ? copyList : sortedList), getIds(menuList));
+
+                menuList = getShuffledMenuList();
+                Assert.assertEquals(JSONObject.toJSONString(HierarchyUtils.getHierarchyResultById(getShuffledMenuList(), functions, rootId, MenuResolver.getComparator()))
+                        , JSONObject.toJSONString(HierarchyUtils.getHierarchyResultById(menuList, functions, rootId, MenuResolver.getComparator())));
+                Assert.assertEquals(getIds(isSortSiblings ? copyList : sortedList), getIds(menuList));
+
+                //存在过滤条件时仍复制源数据列表
+                functions.setFilterPredicate(menu -> true);
+                menuList = getShuffledMenuList();
+                Assert.assertEquals(expected, JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(menuList, functions, MenuResolver.getComparator())));
+                Assert.assertEquals(getIds(copyList), getIds(menuList));
+            }
+        }
+    }
+
+    @Test
+    public void testWithLeafChildren() {
+        Integer rootId = 1;
+        for (boolean isEnableTransfer : new boolean[]{false, true}) {
+            for (boolean isWithRoot : new boolean[]{false, true}) {
+                for (Integer maxDepth : new Integer[]{null, 1, 2}) {
+                    HierarchyUtils.HierarchyFunctions<Menu, Integer, Menu> functions = MenuResolver.getFunctions(rootId);
+                    functions.setTransferFunction(menu -> JSONObject.parseObject(JSONObject.toJSONString(menu), Menu.class));
+                    functions.setIsEnableTransfer(() -> isEnableTransfer);
+                    functions.setIsWithRoot(() -> isWithRoot);
+                    functions.setMaxDepth(maxDepth == null ? null : () -> maxDepth);
+                    String expected = JSONObject.toJSONString(HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator()));
+
+                    //叶子元素共享不可变空列表,子元素列表通过函数转换
+                    int[] counts = new int[1];
+                    functions.setLeafChildren(HierarchyUtils.LeafChildren.EMPTY);
+                    functions.setChildrenListFunction(children -> {
+                        counts[0]++;
+                        return Collections.unmodifiableList(children);
+                    });
+                    List<Menu> results = HierarchyUtils.getHierarchyResult(HierarchyMetadata.getDefaultMenuList(), functions, MenuResolver.getComparator());
+                    Assert.assertEquals(expected, JSONObject.toJSONString(results).replace("\"children\":[],", ""));
+                    Assert.assertEquals(counts[0], assertLeafChildren(results, Collections.emptyList()));
+
+                    HierarchyUtils.HierarchyLongFunctions<Menu, Menu> longFunctions = MenuResolver.getLongFunctions(rootId);
+                    longFunctions.setTransferFunction(functions.getTransferFunction());
+                    longFunctions.setIsEnableTransfer(() -> isEnableTransfer);
+                    longFunctions.setIsWithRoot(() -> isWithRoot);
+                    longFunctions.setMaxDepth(functions.getMaxDepth());
+                    longFunctions.setLeafChildren(HierarchyUtils.LeafChildren.EMPTY);
+                    Assert.assertEquals(JSONObject.toJSONString(results), JSONObject.toJSONString(HierarchyUtils.getHierarchyResultByLongId(HierarchyMetadata.getDefaultMenuList(), longFunctions, MenuResolver.getComparator())));
+
+                    //叶子元素设置为Null
+                    functions.setLeafChildren(HierarchyUtils.LeafChildren.NULL);
+                    functions.setChildrenListFunction(null);
+                    List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+                    menuList.forEach(menu -> menu.setChildren(new ArrayList<>()));
+                    results = HierarchyUtils.getHierarchyResult(menuList, functions, MenuResolver.getComparator());
+                    Assert.assertEquals(expected, JSONObject.toJSONString(results));
+                    assertLeafChildren(results, null);
+
+                    //只构建指定id的子树
+                    functions.setLeafChildren(HierarchyUtils.LeafChildren.EMPTY);
+                    assertLeafChildren(HierarchyUtils.getHierarchyResultById(HierarchyMetadata.getDefaultMenuList(), functions, 2, MenuResolver.getComparator()), Collections.emptyList());
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查叶子元素的children
+     *
+     * @param results
+     * @param leafChildren 叶子元素的children
+     * @return 存在子元素的元素个数
+     */
+    private static int assertLeafChildren(List<Menu> results, List<Menu> leafChildren) {
+        int[] counts = new int[1];
+        HierarchyTraversal.each(results, 0, (current, parent, level) -> {
+            List<Menu> children = current.getChildren();
+            if (children == leafChildren) {
+                return null;
+            }
+            Assert.assertFalse(children.isEmpty());
+            counts[0]++;
+            return children;
+        });
+        return counts[0];
+    }
+
+    private static List<Integer> getIds(List<Menu> menuList) {
+        List<Integer> ids = new ArrayList<>(menuList.size());
+        for (Menu menu : menuList) {
+            ids.add(menu.getId());
+        }
+        return ids;
+    }
+
+    private static List<Menu> getShuffledMenuList() {
+        List<Menu> menuList = HierarchyMetadata.getDefaultMenuList();
+        Collections.shuffle(menuList, new Random(3));
+        return menuList;
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.github.jokerpper.hierarchy.usage;
+
+import com.github.jokerpper.hierarchy.HierarchyEachUtils;
+import com.github.jokerpper.hierarchy.HierarchyMetadata;
+import com.github.jokerpper.hierarchy.model.Menu;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 在其他包中使用 HierarchyEachUtils (只能使用公开的类型)
+ */
+public class HierarchyEachUtilsUsageTest {
+
+    @Test
+    public void recursionEachWithParentListSnapshot() {
+        List<Menu> treeList = HierarchyMetadata.getDefaultMenuTreeList();
+        Map<Integer, List<Menu>> parentLists = new HashMap<>();
+        Map<Integer, List<Integer>> expectedParentIds = new HashMap<>();
+        HierarchyEachUtils.recursionEach(treeList, Menu::getChildren, new HierarchyEachUtils.EachCallback<Menu>() {
+
+            @Override
+            public boolean withParentList() {
+                return true;
+            }
+
+            @Override
+            public boolean withParentListSnapshot() {
+                return true;
+            }
+
+            @Override
+            public void each(int level, Menu current, Menu parent, List<Menu> parentList, List<Menu> children, boolean hasExistChildren) {
+                if (parentList != null) {
+                    parentLists.put(current.getId(), parentList);
+                    expectedParentIds.put(current.getId(), parentList.stream().map(Menu::getId).collect(Collectors.toList()));
+                }
+            }
+        });
+        Assert.assertFalse(parentLists.isEmpty());
+
+        //回调后父级列表仍可使用
+        for (Map.Entry<Integer, List<Menu>> entry : parentLists.entrySet()) {
+            Assert.assertEquals(expectedParentIds.get(entry.getKey()), entry.getValue().stream().map(Menu::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void recursionEachWithResult() {
+        List<Menu> treeList = HierarchyMetadata.getDefaultMenuTreeList();
+        List<Integer> allIds = HierarchyEachUtils.stream(treeList, Menu::getChildren).map(Menu::getId).collect(Collectors.toList());
+        Assert.assertTrue(allIds.size() > 2);
+
+        //找到第二个元素后终止
+        List<Integer> ids = new ArrayList<>();
+        HierarchyEachUtils.recursionEach(treeList, Menu::getChildren, (HierarchyEachUtils.EachResultCallback<Menu>) (level, current, parent, parentList, children, hasExistChildren) -> {
+            ids.add(current.getId());
+            return ids.size() == 2 ? HierarchyEachUtils.EachResult.TERMINATE : HierarchyEachUtils.EachResult.CONTINUE;
+        });
+        Assert.assertEquals(allIds.subList(0, 2), ids);
+
+        //只遍历第一层级
+        ids.clear();
+        HierarchyEachUtils.recursionEach(treeList, Menu::getChildren, (HierarchyEachUtils.EachResultCallback<Menu>) (level, current, parent, parentList, children, hasExistChildren) -> {
+            ids.add(current.getId());
+            return HierarchyEachUtils.EachResult.SKIP_CHILDREN;
+        });
+        Assert.assertEquals(treeList.stream().map(Menu::getId).collect(Collectors.toList()), ids);
+    }
+
+    @Test
+    public void levelEach() {
+        List<Menu> treeList = HierarchyMetadata.getDefaultMenuTreeList();
+        Map<Integer, List<Integer>> expected = new TreeMap<>();
+        HierarchyEachUtils.streamWithLevel(treeList, Menu::getChildren)
+                .forEach(it -> expected.computeIfAbsent(it.getLevel(), key -> new ArrayList<>()).add(it.getElement().getId()));
+
+        Map<Integer, List<Integer>> results = new LinkedHashMap<>();
+        HierarchyEachUtils.levelEach(treeList, Menu::getChildren, (level, nodes) -> results.put(level, nodes.stream().map(Menu::getId).collect(Collectors.toList())));
+        Assert.assertEquals(expected, results);
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(results.keySet()));
+    }
+
+    @Test
+    public void postOrderEach() {
+        //各根元素的子树元素个数
+        List<Menu> treeList = HierarchyMetadata.getDefaultMenuTreeList();
+        List<Long> sizes = HierarchyEachUtils.postOrderEach(treeList, Menu::getChildren, (level, current, parent, childrenResults) -> {
+            long size = 1;
+            for (Long childSize : childrenResults) {
+                size += childSize;
+            }
+            return size;
+        });
+        List<Long> expected = treeList.stream().map(it -> HierarchyEachUtils.stream(Collections.singletonList(it), Menu::getChildren).count()).collect(Collectors.toList());
+        Assert.assertEquals(expected, sizes);
+    }
+
+}